@@ -0,0 +1,83 @@
+package com.github.matthewdesouza.recipeapp.benchmark;
+
+import com.github.matthewdesouza.recipeapp.database.InMemoryStorageBackend;
+import com.github.matthewdesouza.recipeapp.database.JdbcStorageBackend;
+import com.github.matthewdesouza.recipeapp.database.RecipeDAO;
+import com.github.matthewdesouza.recipeapp.database.StorageBackend;
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Datasets shared by the benchmarks. Recipes are generated from a fixed seed, so every run and backend sees the same
+ * titles and content.
+ */
+final class BenchmarkData {
+    private static final String[] WORDS = {
+            "chocolate", "cake", "carrot", "soup", "lemon", "tart", "garlic", "bread", "spicy", "noodles",
+            "roasted", "chicken", "vegan", "curry", "apple", "pie", "grilled", "salmon", "tomato", "salad"
+    };
+    private static final int INSERT_BATCH_SIZE = 1_000;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @param backend {@code memory} or {@code h2}.
+     * @param dir     Directory for the database files of an embedded database.
+     */
+    static StorageBackend open(String backend, Path dir) {
+        return switch (backend) {
+            case "memory" -> new InMemoryStorageBackend();
+            case "h2" -> JdbcStorageBackend.h2(dir.resolve("recipe"));
+            default -> throw new IllegalArgumentException("Unknown backend " + backend);
+        };
+    }
+
+    static List<Recipe> recipes(int count, int userId) {
+        Random random = new Random(42);
+        List<Recipe> recipes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Recipe recipe = new Recipe();
+            recipe.setTitle(word(random) + " " + word(random) + " recipe " + i);
+            StringBuilder content = new StringBuilder();
+            for (int w = 0; w < 40; w++) {
+                content.append(word(random)).append(' ');
+            }
+            recipe.setContent(content.toString());
+            recipe.setImageUri("file:///images/" + i + ".png");
+            recipe.setUserId(userId);
+            recipes.add(recipe);
+        }
+        return recipes;
+    }
+
+    /**
+     * Inserts recipes through {@link RecipeDAO#createRecipes(List)}, in batches like the catalog importer.
+     */
+    static void insert(List<Recipe> recipes) throws SQLException {
+        for (int from = 0; from < recipes.size(); from += INSERT_BATCH_SIZE) {
+            RecipeDAO.createRecipes(recipes.subList(from, Math.min(from + INSERT_BATCH_SIZE, recipes.size())));
+        }
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
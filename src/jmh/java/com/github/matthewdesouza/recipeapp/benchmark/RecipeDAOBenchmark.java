@@ -0,0 +1,67 @@
+package com.github.matthewdesouza.recipeapp.benchmark;
+
+import com.github.matthewdesouza.recipeapp.database.RecipeDAO;
+import com.github.matthewdesouza.recipeapp.database.Storage;
+import com.github.matthewdesouza.recipeapp.database.StorageBackend;
+import com.github.matthewdesouza.recipeapp.database.UserDAO;
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+import com.github.matthewdesouza.recipeapp.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-table reads of {@link RecipeDAO}, against the embedded database and, to separate out the cost of the
+ * database itself, the in-memory backend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeDAOBenchmark {
+    @Param({"memory", "h2"})
+    public String backend;
+
+    @Param({"1000", "100000", "1000000"})
+    public int recipes;
+
+    private Path dir;
+    private StorageBackend storage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        dir = Files.createTempDirectory("recipe-bench");
+        storage = BenchmarkData.open(backend, dir);
+        Storage.use(storage);
+
+        User author = new User("bench", "bench");
+        UserDAO.createUser(author);
+        BenchmarkData.insert(BenchmarkData.recipes(recipes, author.getId()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        storage.close();
+        BenchmarkData.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Set<Recipe> getAllRecipes() {
+        return RecipeDAO.getAllRecipes();
+    }
+
+    /**
+     * A title search matching about one recipe in four hundred.
+     */
+    @Benchmark
+    public Set<Recipe> searchRecipesByTitle() {
+        return RecipeDAO.searchRecipesByTitle("chocolate cake");
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.matthewdesouza.recipeapp.benchmark;
+
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Recipe#hashCode()} and {@link Recipe#equals(Object)} as exercised by the {@code Set<Recipe>} results of the
+ * DAO, without any storage involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeHashingBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int recipes;
+
+    private List<Recipe> list;
+    private Set<Recipe> set;
+    private Recipe present;
+    private Recipe absent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = BenchmarkData.recipes(recipes, 1);
+        for (int i = 0; i < list.size(); i++) {
+            list.get(i).setId(i + 1);
+        }
+        set = new HashSet<>(list);
+        present = new Recipe(list.get(list.size() / 2));
+        absent = new Recipe(present);
+        absent.setContent(present.getContent() + " ");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int hashCodeOne() {
+        return present.hashCode();
+    }
+
+    @Benchmark
+    public Set<Recipe> buildSet() {
+        return new HashSet<>(list);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean containsPresent() {
+        return set.contains(present);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean containsAbsent() {
+        return set.contains(absent);
+    }
+}
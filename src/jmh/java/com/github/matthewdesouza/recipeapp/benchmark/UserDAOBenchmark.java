@@ -0,0 +1,51 @@
+package com.github.matthewdesouza.recipeapp.benchmark;
+
+import com.github.matthewdesouza.recipeapp.database.Storage;
+import com.github.matthewdesouza.recipeapp.database.StorageBackend;
+import com.github.matthewdesouza.recipeapp.database.UserDAO;
+import com.github.matthewdesouza.recipeapp.database.exception.UserNotFoundException;
+import com.github.matthewdesouza.recipeapp.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logins through {@link UserDAO#authenticateUser(String, String)}, which are dominated by the bcrypt cost
+ * ({@code -Jvm-args -Drecipeapp.bcrypt.cost=N} to compare costs).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDAOBenchmark {
+    @Param({"memory", "h2"})
+    public String backend;
+
+    private Path dir;
+    private StorageBackend storage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("recipe-bench");
+        storage = BenchmarkData.open(backend, dir);
+        Storage.use(storage);
+        UserDAO.createUser(new User("bench", "bench-password"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        storage.close();
+        BenchmarkData.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public User authenticateUser() throws UserNotFoundException {
+        return UserDAO.authenticateUser("bench", "bench-password");
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.matthewdesouza.recipeapp;
+
+import java.nio.file.Path;
+
+/**
+ * Locations of the application's per-user files, following each platform's conventions.
+ */
+public final class AppDirectories {
+    private AppDirectories() {
+    }
+
+    /**
+     * @return The directory holding the application's configuration, logs and local data; not created by this method.
+     */
+    public static Path configHome() {
+        String os = System.getProperty("os.name").toLowerCase();
+        String userHome = System.getProperty("user.home");
+
+        if (os.contains("win")) {
+            // Windows
+            return Path.of(userHome, "AppData", "Roaming", "recipe-app");
+        } else if (os.contains("mac")) {
+            // macOS
+            return Path.of(userHome, "Library", "Application Support", "recipe-app");
+        } else {
+            // Assume Linux/Unix
+            return Path.of(userHome, ".config", "recipe-app");
+        }
+    }
+}
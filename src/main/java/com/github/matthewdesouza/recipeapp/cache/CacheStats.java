@@ -0,0 +1,77 @@
+package com.github.matthewdesouza.recipeapp.cache;
+
+/**
+ * Point-in-time statistics of an {@link LruCache}.
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long loadCount;
+    private final long totalLoadTimeNanos;
+    private final long evictionCount;
+    private final long size;
+    private final long weightedSize;
+
+    CacheStats(long hitCount, long missCount, long loadCount, long totalLoadTimeNanos,
+               long evictionCount, long size, long weightedSize) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadCount = loadCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.weightedSize = weightedSize;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return Fraction of lookups that were served from the cache, or 0 if there were none.
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * @return Mean time spent in the loader on a miss, in nanoseconds.
+     */
+    public double getAverageLoadPenaltyNanos() {
+        return loadCount == 0 ? 0.0 : (double) totalLoadTimeNanos / loadCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hitRate=" + String.format("%.3f", getHitRate()) +
+                ", hits=" + hitCount +
+                ", misses=" + missCount +
+                ", avgLoadMs=" + String.format("%.3f", getAverageLoadPenaltyNanos() / 1_000_000.0) +
+                ", evictions=" + evictionCount +
+                ", size=" + size +
+                ", weightedSize=" + weightedSize +
+                '}';
+    }
+}
@@ -0,0 +1,319 @@
+package com.github.matthewdesouza.recipeapp.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Thread-safe, size-bounded cache with least-recently-used eviction.
+ * <p>
+ * The cache is bounded by entry count and, optionally, by a total weight computed per entry by a {@link Weigher}
+ * (e.g. an approximate size in bytes); entries can also be given a time-to-live after which they are treated as absent.
+ * Values are loaded outside the cache lock, once per key: concurrent misses on a key wait for the load already in
+ * flight instead of starting their own, so a slow loader only blocks callers waiting for that value. A load whose key
+ * is invalidated while it runs is returned to the callers already waiting for it but not cached, and later callers
+ * start a fresh load, which keeps writers from having a stale value re-inserted or handed out behind them.
+ *
+ * <pre>{@code
+ * LruCache<Integer, Recipe> cache = LruCache.<Integer, Recipe>builder()
+ *         .maximumSize(10_000)
+ *         .maximumWeight(64L << 20, (id, recipe) -> estimateBytes(recipe))
+ *         .build();
+ * Recipe recipe = cache.get(id, RecipeDAO::loadRecipe);
+ * }</pre>
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+public final class LruCache<K, V> {
+    /**
+     * Computes the weight of a cache entry.
+     */
+    @FunctionalInterface
+    public interface Weigher<K, V> {
+        long weigh(K key, V value);
+    }
+
+    private static final class Node<V> {
+        private final V value;
+        private final long weight;
+        private final long writeNanos;
+
+        private Node(V value, long weight, long writeNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.writeNanos = writeNanos;
+        }
+    }
+
+    private static final class Load<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        // Guarded by the cache.
+        private boolean invalidated;
+    }
+
+    private final long maximumSize;
+    private final long maximumWeight;
+    private final Weigher<? super K, ? super V> weigher;
+    private final long expireAfterWriteNanos;
+    private final LinkedHashMap<K, Node<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, Load<V>> loading = new HashMap<>();
+
+    // All guarded by `this`, like `map` and `loading`.
+    private long weightedSize;
+    private long hitCount;
+    private long missCount;
+    private long loadCount;
+    private long totalLoadTimeNanos;
+    private long evictionCount;
+
+    private LruCache(Builder<K, V> builder) {
+        this.maximumSize = builder.maximumSize;
+        this.maximumWeight = builder.maximumWeight;
+        this.weigher = builder.weigher;
+        this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * @param key Key to look up.
+     * @return The cached value, or {@code null} if absent.
+     */
+    public synchronized V getIfPresent(K key) {
+        Node<V> node = liveNode(key);
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return node.value;
+    }
+
+    /**
+     * Returns the cached value for a key, loading and caching it on a miss. If another caller is already loading the
+     * key, waits for that load instead of starting another one.
+     *
+     * @param key    Key to look up.
+     * @param loader Computes the value on a miss; a {@code null} result is returned but not cached. Whatever it throws
+     *               is rethrown to every caller waiting for the load.
+     * @return The cached or freshly loaded value.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Load<V> load;
+        boolean owner;
+        synchronized (this) {
+            Node<V> node = liveNode(key);
+            if (node != null) {
+                hitCount++;
+                return node.value;
+            }
+            missCount++;
+            load = loading.get(key);
+            owner = load == null;
+            if (owner) {
+                load = new Load<>();
+                loading.put(key, load);
+            }
+        }
+        if (!owner) {
+            return await(load.future);
+        }
+
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                loading.remove(key, load);
+            }
+            load.future.completeExceptionally(e);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        synchronized (this) {
+            loadCount++;
+            totalLoadTimeNanos += elapsed;
+            loading.remove(key, load);
+            if (value != null && !load.invalidated) {
+                store(key, value);
+            }
+        }
+        load.future.complete(value);
+        return value;
+    }
+
+    /**
+     * Caches a value, replacing any previous value for the key.
+     *
+     * @param key   Key to store under.
+     * @param value Value to store.
+     */
+    public synchronized void put(K key, V value) {
+        store(key, value);
+    }
+
+    /**
+     * Removes a single key, and keeps an in-flight load of it from caching what it read before the removal.
+     *
+     * @param key Key to remove.
+     */
+    public synchronized void invalidate(K key) {
+        Load<V> load = loading.remove(key);
+        if (load != null) {
+            load.invalidated = true;
+        }
+        remove(key);
+    }
+
+    /**
+     * Removes every entry matching a predicate. In-flight loads have no value to test yet, so none of them is cached.
+     *
+     * @param predicate Selects the entries to remove, given their key and value.
+     */
+    public synchronized void invalidateIf(BiPredicate<? super K, ? super V> predicate) {
+        invalidateLoads();
+        Iterator<Map.Entry<K, Node<V>>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Node<V>> entry = iterator.next();
+            if (predicate.test(entry.getKey(), entry.getValue().value)) {
+                weightedSize -= entry.getValue().weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        invalidateLoads();
+        map.clear();
+        weightedSize = 0;
+    }
+
+    public synchronized long size() {
+        return map.size();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hitCount, missCount, loadCount, totalLoadTimeNanos, evictionCount, map.size(), weightedSize);
+    }
+
+    private void store(K key, V value) {
+        long weight = weigher == null ? 1 : weigher.weigh(key, value);
+        remove(key);
+        if (weight > maximumWeight) {
+            return; // Would evict everything else and still not fit.
+        }
+        map.put(key, new Node<>(value, weight, System.nanoTime()));
+        weightedSize += weight;
+        evict();
+    }
+
+    private Node<V> liveNode(K key) {
+        Node<V> node = map.get(key);
+        if (node != null && expireAfterWriteNanos > 0 && System.nanoTime() - node.writeNanos >= expireAfterWriteNanos) {
+            remove(key);
+            evictionCount++;
+            return null;
+        }
+        return node;
+    }
+
+    private void invalidateLoads() {
+        for (Load<V> load : loading.values()) {
+            load.invalidated = true;
+        }
+        loading.clear();
+    }
+
+    private void remove(K key) {
+        Node<V> previous = map.remove(key);
+        if (previous != null) {
+            weightedSize -= previous.weight;
+        }
+    }
+
+    private void evict() {
+        Iterator<Node<V>> iterator = map.values().iterator();
+        while ((map.size() > maximumSize || weightedSize > maximumWeight) && iterator.hasNext()) {
+            Node<V> eldest = iterator.next();
+            weightedSize -= eldest.weight;
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Waits for a load started by another caller, rethrowing what its loader threw.
+     */
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Configures an {@link LruCache}. Without any bounds the cache holds up to {@link Long#MAX_VALUE} entries.
+     */
+    public static final class Builder<K, V> {
+        private long maximumSize = Long.MAX_VALUE;
+        private long maximumWeight = Long.MAX_VALUE;
+        private Weigher<? super K, ? super V> weigher;
+        private long expireAfterWriteNanos;
+
+        private Builder() {
+        }
+
+        public Builder<K, V> maximumSize(long maximumSize) {
+            if (maximumSize < 0) {
+                throw new IllegalArgumentException("maximumSize must not be negative: " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder<K, V> maximumWeight(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+            if (maximumWeight < 0) {
+                throw new IllegalArgumentException("maximumWeight must not be negative: " + maximumWeight);
+            }
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        /**
+         * Expires entries a fixed time after they were stored, so data changed outside this process is picked up.
+         *
+         * @param duration Time-to-live of an entry; zero keeps entries until they are evicted or invalidated.
+         * @return This builder.
+         */
+        public Builder<K, V> expireAfterWrite(Duration duration) {
+            if (duration.isNegative()) {
+                throw new IllegalArgumentException("Expiry must not be negative: " + duration);
+            }
+            this.expireAfterWriteNanos = duration.toNanos();
+            return this;
+        }
+
+        public LruCache<K, V> build() {
+            return new LruCache<>(this);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.matthewdesouza.recipeapp.catalog;
+
+import com.github.matthewdesouza.recipeapp.logging.LoggerConfigurator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Command line entry point for bulk catalog operations.
+ *
+ * <pre>
+ * java -cp recipe-app.jar com.github.matthewdesouza.recipeapp.catalog.CatalogTool \
+ *     import recipes.jsonl [--format jsonl|csv] [--gzip] [--batch-size 1000] [--user-id 1]
+ * java -cp recipe-app.jar com.github.matthewdesouza.recipeapp.catalog.CatalogTool \
+ *     export recipes.csv.gz [--format jsonl|csv] [--gzip] [--fetch-size 1000] [--after-id N | --resume]
+ * </pre>
+ *
+ * Files ending in {@code .gz}, or any file with {@code --gzip}, are (de)compressed on the fly. {@code --resume} continues
+ * an existing export after the last complete recipe it contains, first cutting off a recipe left half-written by an
+ * interruption, see {@link RecipeExporter#trimForResume(Path, RecipeFormat, boolean)}; appending to a gzip file adds a
+ * new gzip member, which readers handle transparently. Exits with status 1 on failure and 2 on bad usage.
+ */
+public final class CatalogTool {
+    private static final String USAGE = """
+            Usage: CatalogTool import <file> [--format jsonl|csv] [--gzip] [--batch-size N] [--user-id N]
+                   CatalogTool export <file> [--format jsonl|csv] [--gzip] [--fetch-size N] [--after-id N | --resume]
+            """;
+
+    private static final Set<String> FLAGS = Set.of("--gzip", "--resume");
+
+    private CatalogTool() {
+    }
+
+    public static void main(String[] args) {
+        LoggerConfigurator.configureLogging();
+        if (args.length < 2 || !(args[0].equals("import") || args[0].equals("export"))) {
+            System.err.print(USAGE);
+            System.exit(2);
+        }
+
+        Path file = Path.of(args[1]);
+        Map<String, String> options = new HashMap<>();
+        RecipeFormat format = RecipeFormat.fromFileName(file.getFileName().toString());
+        try {
+            for (int i = 2; i < args.length; i++) {
+                if (FLAGS.contains(args[i])) {
+                    options.put(args[i], "true");
+                } else if (args[i].startsWith("--") && i + 1 < args.length) {
+                    options.put(args[i], args[++i]);
+                } else {
+                    throw new IllegalArgumentException("Unknown or incomplete option " + args[i]);
+                }
+            }
+            if (options.containsKey("--format")) {
+                format = RecipeFormat.parse(options.get("--format"));
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+        }
+
+        try {
+            if (args[0].equals("import")) {
+                runImport(file, format, options);
+            } else {
+                runExport(file, format, options);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number: " + e.getMessage());
+            System.exit(2);
+        } catch (IOException | SQLException e) {
+            System.err.println(args[0].equals("import") ? "Import failed: " + e.getMessage() : "Export failed: " + e.getMessage());
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static void runImport(Path file, RecipeFormat format, Map<String, String> options) throws IOException, SQLException {
+        int batchSize = intOption(options, "--batch-size", RecipeImporter.DEFAULT_BATCH_SIZE);
+        int userId = intOption(options, "--user-id", 1);
+        InputStream in = open(file, isGzip(file, options));
+        try (RecipeReader reader = RecipeReader.open(new InputStreamReader(in, StandardCharsets.UTF_8), format)) {
+            ImportResult result = new RecipeImporter(batchSize, userId).importFrom(reader);
+            System.out.printf("Imported %d recipes (%d skipped) in %.1f s, %.0f rows/s.%n",
+                    result.importedCount(), result.skipped(), result.elapsedNanos() / 1e9, result.rowsPerSecond());
+            if (result.importedCount() > 0) {
+                System.out.printf("Recipe ids %d to %d.%n",
+                        result.recipeIds()[0], result.recipeIds()[result.importedCount() - 1]);
+            }
+        }
+    }
+
+    private static void runExport(Path file, RecipeFormat format, Map<String, String> options) throws IOException, SQLException {
+        int fetchSize = intOption(options, "--fetch-size", RecipeExporter.DEFAULT_FETCH_SIZE);
+        boolean gzip = isGzip(file, options);
+        boolean append = false;
+        int afterId = intOption(options, "--after-id", 0);
+        if (options.containsKey("--resume") && Files.exists(file) && Files.size(file) > 0) {
+            try {
+                afterId = RecipeExporter.trimForResume(file, format, gzip);
+            } catch (IOException e) {
+                throw new IOException("Cannot resume, %s could not be read (%s); use --after-id instead."
+                        .formatted(file, e.getMessage()), e);
+            }
+            // Nothing is left if the interruption came before the first complete record, CSV header included.
+            append = Files.size(file) > 0;
+            System.out.printf("Resuming export after recipe id %d.%n", afterId);
+        }
+
+        OutputStream out = append
+                ? Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                : Files.newOutputStream(file);
+        if (gzip) {
+            out = new GZIPOutputStream(out, 1 << 16);
+        }
+        try (RecipeWriter writer = RecipeWriter.open(new OutputStreamWriter(out, StandardCharsets.UTF_8), format, !append)) {
+            ExportResult result = new RecipeExporter(fetchSize).exportTo(writer, afterId);
+            System.out.printf("Exported %d recipes in %.1f s, %.0f rows/s, last id %d.%n",
+                    result.exportedCount(), result.elapsedNanos() / 1e9, result.rowsPerSecond(), result.lastId());
+        }
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static boolean isGzip(Path file, Map<String, String> options) {
+        return options.containsKey("--gzip") || file.getFileName().toString().endsWith(".gz");
+    }
+
+    static InputStream open(Path file, boolean gzip) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return gzip ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+}
@@ -0,0 +1,152 @@
+package com.github.matthewdesouza.recipeapp.catalog;
+
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads recipes from RFC 4180 CSV. The first record is a header naming the columns, in any order; quoted fields may
+ * contain commas, doubled quotes and line breaks.
+ */
+final class CsvRecipeReader implements RecipeReader {
+    private final BufferedReader reader;
+    private long lineNumber = 1;
+    private int idColumn = -1;
+    private int titleColumn = -1;
+    private int contentColumn = -1;
+    private int uriColumn = -1;
+    private int userIdColumn = -1;
+    private boolean headerRead;
+
+    CsvRecipeReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public Recipe next() throws IOException {
+        if (!headerRead) {
+            readHeader();
+        }
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isEmpty());
+
+        Recipe recipe = new Recipe();
+        recipe.setId(parseInt(field(record, idColumn), "id"));
+        recipe.setTitle(field(record, titleColumn));
+        recipe.setContent(field(record, contentColumn));
+        recipe.setImageUri(field(record, uriColumn));
+        recipe.setUserId(parseInt(field(record, userIdColumn), "userId"));
+        return recipe;
+    }
+
+    private int parseInt(String value, String column) throws IOException {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed %s `%s` on line %d.".formatted(column, value, lineNumber), e);
+        }
+    }
+
+    private void readHeader() throws IOException {
+        headerRead = true;
+        List<String> header = readRecord();
+        if (header == null) {
+            return;
+        }
+        for (int i = 0; i < header.size(); i++) {
+            switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "id" -> idColumn = i;
+                case "title" -> titleColumn = i;
+                case "content" -> contentColumn = i;
+                case "uri", "imageuri" -> uriColumn = i;
+                case "userid" -> userIdColumn = i;
+                default -> {
+                    // Unknown columns are ignored.
+                }
+            }
+        }
+        if (titleColumn < 0 || contentColumn < 0) {
+            throw new IOException("CSV header must name `title` and `content` columns, got " + header + ".");
+        }
+    }
+
+    private static String field(List<String> record, int column) {
+        if (column < 0 || column >= record.size()) {
+            return null;
+        }
+        String value = record.get(column);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * @return The fields of the next record, or {@code null} at the end of the input.
+     */
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field on line " + lineNumber + ".");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int following = reader.read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                lineNumber++;
+                return fields;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                fields.add(field.toString());
+                lineNumber++;
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.matthewdesouza.recipeapp.catalog;
+
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+
+/**
+ * Writes recipes as RFC 4180 CSV with {@code \r\n} record separators, quoting fields only where needed.
+ */
+final class CsvRecipeWriter implements RecipeWriter {
+    private final BufferedWriter writer;
+
+    CsvRecipeWriter(BufferedWriter writer, boolean writeHeader) throws IOException {
+        this.writer = writer;
+        if (writeHeader) {
+            writer.write("id,title,content,uri,userId\r\n");
+        }
+    }
+
+    @Override
+    public void write(Recipe recipe) throws IOException {
+        writer.write(Integer.toString(recipe.getId()));
+        writer.write(',');
+        writeField(recipe.getTitle());
+        writer.write(',');
+        writeField(recipe.getContent());
+        writer.write(',');
+        writeField(recipe.getImageUri());
+        writer.write(',');
+        writer.write(Integer.toString(recipe.getUserId()));
+        writer.write("\r\n");
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
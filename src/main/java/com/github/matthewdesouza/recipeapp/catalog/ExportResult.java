@@ -0,0 +1,27 @@
+package com.github.matthewdesouza.recipeapp.catalog;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a {@link RecipeExporter} run.
+ *
+ * @param exportedCount Number of recipes written.
+ * @param lastId        Id of the last recipe written, or the starting id if nothing was written; pass it as
+ *                      {@code afterId} to continue from there.
+ * @param elapsedNanos  Wall-clock duration of the export.
+ */
+public record ExportResult(long exportedCount, int lastId, long elapsedNanos) {
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : exportedCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ExportResult{" +
+                "exported=" + exportedCount +
+                ", lastId=" + lastId +
+                ", elapsedMs=" + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) +
+                ", rowsPerSecond=" + String.format("%.0f", rowsPerSecond()) +
+                '}';
+    }
+}
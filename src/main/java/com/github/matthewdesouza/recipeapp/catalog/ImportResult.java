@@ -0,0 +1,30 @@
+package com.github.matthewdesouza.recipeapp.catalog;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a {@link RecipeImporter} run.
+ *
+ * @param recipeIds    Ids generated for the imported recipes, in input order.
+ * @param skipped      Records left out because they had no title or content.
+ * @param elapsedNanos Wall-clock duration of the import.
+ */
+public record ImportResult(int[] recipeIds, long skipped, long elapsedNanos) {
+    public int importedCount() {
+        return recipeIds.length;
+    }
+
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : recipeIds.length * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "imported=" + importedCount() +
+                ", skipped=" + skipped +
+                ", elapsedMs=" + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) +
+                ", rowsPerSecond=" + String.format("%.0f", rowsPerSecond()) +
+                '}';
+    }
+}
@@ -0,0 +1,193 @@
+package com.github.matthewdesouza.recipeapp.catalog;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Just enough JSON for flat recipe records: objects whose values are strings, numbers, booleans or {@code null}.
+ */
+final class Json {
+    private final String text;
+    private int pos;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @param text A single flat JSON object.
+     * @return Its members in order; numbers are returned as {@link Long} or {@link Double}.
+     * @throws IllegalArgumentException If the text is not a flat JSON object.
+     */
+    static Map<String, Object> parseObject(String text) {
+        Json json = new Json(text);
+        Map<String, Object> object = json.readObject();
+        json.skipWhitespace();
+        if (json.pos != text.length()) {
+            throw json.error("Unexpected trailing characters");
+        }
+        return object;
+    }
+
+    /**
+     * Appends a string as a quoted JSON string literal.
+     */
+    static void appendQuoted(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append("\\u%04x".formatted((int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    private Map<String, Object> readObject() {
+        skipWhitespace();
+        expect('{');
+        Map<String, Object> object = new LinkedHashMap<>();
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            object.put(key, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return object;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private Object readValue() {
+        char c = peek();
+        if (c == '"') {
+            return readString();
+        }
+        if (text.startsWith("null", pos)) {
+            pos += 4;
+            return null;
+        }
+        if (text.startsWith("true", pos)) {
+            pos += 4;
+            return Boolean.TRUE;
+        }
+        if (text.startsWith("false", pos)) {
+            pos += 5;
+            return Boolean.FALSE;
+        }
+        if (c == '-' || (c >= '0' && c <= '9')) {
+            return readNumber();
+        }
+        throw error("Unsupported value");
+    }
+
+    private Object readNumber() {
+        int start = pos;
+        boolean integral = true;
+        while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+            if (".eE".indexOf(text.charAt(pos)) >= 0) {
+                integral = false;
+            }
+            pos++;
+        }
+        String number = text.substring(start, pos);
+        try {
+            return integral ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw error("Malformed number");
+        }
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder out = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return out.toString();
+            }
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case '"', '\\', '/' -> out.append(escaped);
+                case 'b' -> out.append('\b');
+                case 'f' -> out.append('\f');
+                case 'n' -> out.append('\n');
+                case 'r' -> out.append('\r');
+                case 't' -> out.append('\t');
+                case 'u' -> {
+                    if (pos + 4 > text.length()) {
+                        throw error("Truncated unicode escape");
+                    }
+                    try {
+                        out.append((char) Integer.parseInt(text, pos, pos + 4, 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Malformed unicode escape");
+                    }
+                    pos += 4;
+                }
+                default -> throw error("Unknown escape");
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() {
+        if (pos >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        return text.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            pos--;
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at column " + (pos + 1));
+    }
+}
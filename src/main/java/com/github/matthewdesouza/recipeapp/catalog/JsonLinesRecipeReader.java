@@ -0,0 +1,57 @@
+package com.github.matthewdesouza.recipeapp.catalog;
+
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Reads recipes from JSON Lines; blank lines are skipped.
+ */
+final class JsonLinesRecipeReader implements RecipeReader {
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    JsonLinesRecipeReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public Recipe next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        try {
+            Map<String, Object> fields = Json.parseObject(line);
+            Recipe recipe = new Recipe();
+            if (fields.get("id") instanceof Number id) {
+                recipe.setId(id.intValue());
+            }
+            recipe.setTitle(asString(fields.get("title")));
+            recipe.setContent(asString(fields.get("content")));
+            recipe.setImageUri(asString(fields.containsKey("uri") ? fields.get("uri") : fields.get("imageUri")));
+            if (fields.get("userId") instanceof Number userId) {
+                recipe.setUserId(userId.intValue());
+            }
+            return recipe;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed recipe on line %d: %s".formatted(lineNumber, e.getMessage()), e);
+        }
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
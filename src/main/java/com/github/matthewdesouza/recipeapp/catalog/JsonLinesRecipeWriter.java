@@ -0,0 +1,36 @@
+package com.github.matthewdesouza.recipeapp.catalog;
+
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+
+/**
+ * Writes one JSON object per recipe and line.
+ */
+final class JsonLinesRecipeWriter implements RecipeWriter {
+    private final BufferedWriter writer;
+    private final StringBuilder line = new StringBuilder(256);
+
+    JsonLinesRecipeWriter(BufferedWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(Recipe recipe) throws IOException {
+        line.setLength(0);
+        line.append("{\"id\": ").append(recipe.getId()).append(", \"title\": ");
+        Json.appendQuoted(line, recipe.getTitle());
+        line.append(", \"content\": ");
+        Json.appendQuoted(line, recipe.getContent());
+        line.append(", \"uri\": ");
+        Json.appendQuoted(line, recipe.getImageUri());
+        line.append(", \"userId\": ").append(recipe.getUserId()).append("}\n");
+        writer.append(line);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,197 @@
+package com.github.matthewdesouza.recipeapp.catalog;
+
+import com.github.matthewdesouza.recipeapp.database.RecipeDAO;
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Writes the recipe catalog to a {@link RecipeWriter} straight from a database cursor.
+ * <p>
+ * Rows are read through {@link RecipeDAO#streamRecipes(int, int, RecipeDAO.RecipeConsumer)} in id order and written
+ * as they arrive, so memory use does not depend on the size of the table. Progress is logged with the last id
+ * written, which is also where an interrupted export can be resumed from.
+ */
+public final class RecipeExporter {
+    private static final Logger log = LoggerFactory.getLogger(RecipeExporter.class);
+
+    public static final int DEFAULT_FETCH_SIZE = Integer.getInteger("recipeapp.export.fetchSize", 1000);
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * Streams recipes with an id above {@code afterId}, in id order.
+     */
+    @FunctionalInterface
+    public interface RecipeSource {
+        void stream(int afterId, int fetchSize, RecipeDAO.RecipeConsumer consumer) throws SQLException, IOException;
+    }
+
+    /**
+     * How much of an earlier export is made of complete records, see {@link #scan(Path, RecipeFormat, boolean)}.
+     *
+     * @param completeBytes Length of the complete records, uncompressed.
+     * @param totalBytes    Length of everything that could be read, uncompressed.
+     * @param truncated     Whether the gzip stream was cut off.
+     */
+    private record Tail(long completeBytes, long totalBytes, boolean truncated) {
+    }
+
+    private final int fetchSize;
+    private final RecipeSource source;
+
+    public RecipeExporter(int fetchSize) {
+        this(fetchSize, RecipeDAO::streamRecipes);
+    }
+
+    public RecipeExporter(int fetchSize, RecipeSource source) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize must be positive: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+        this.source = source;
+    }
+
+    /**
+     * Exports every recipe with an id above {@code afterId}.
+     *
+     * @param writer  Destination; not closed by this method.
+     * @param afterId 0 to export everything, or the last id of a previous export to continue it.
+     * @return Number of recipes written and the last id.
+     * @throws IOException  If writing failed.
+     * @throws SQLException If reading from the database failed.
+     */
+    public ExportResult exportTo(RecipeWriter writer, int afterId) throws IOException, SQLException {
+        long start = System.nanoTime();
+        long[] count = {0};
+        int[] lastId = {afterId};
+        long[] lastProgress = {start};
+
+        source.stream(afterId, fetchSize, recipe -> {
+            writer.write(recipe);
+            lastId[0] = recipe.getId();
+            count[0]++;
+
+            long now = System.nanoTime();
+            if (now - lastProgress[0] >= PROGRESS_INTERVAL_NANOS) {
+                lastProgress[0] = now;
+                log.info("Exported {} recipes, up to id {}.", count[0], lastId[0]);
+            }
+        });
+
+        ExportResult result = new ExportResult(count[0], lastId[0], System.nanoTime() - start);
+        log.info("Export finished: {}", result);
+        return result;
+    }
+
+    /**
+     * Cuts an earlier export back to its last complete record, so it can be continued after the id returned.
+     * <p>
+     * An interrupted export ends in a record only partly flushed, and when compressed in a gzip stream without its
+     * end. A plain file is truncated after the last complete record; a compressed one has its complete records
+     * recompressed into a single gzip member, to which the continuation can be appended as another member. If not
+     * even one record (or the CSV header) is complete, the file is left empty.
+     *
+     * @param file   Earlier export.
+     * @param format Format it was written in.
+     * @param gzip   Whether it is gzip-compressed.
+     * @return The highest recipe id in the complete records, 0 if there are none.
+     * @throws IOException If the file could not be read or rewritten.
+     */
+    public static int trimForResume(Path file, RecipeFormat format, boolean gzip) throws IOException {
+        Tail tail = scan(file, format, gzip);
+        if (tail.truncated() || tail.completeBytes() < tail.totalBytes()) {
+            log.info("Dropping the unfinished end of {} after {} complete bytes.", file, tail.completeBytes());
+            if (gzip) {
+                recompress(file, tail.completeBytes());
+            } else {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(tail.completeBytes());
+                }
+            }
+        }
+
+        int lastId = 0;
+        try (RecipeReader reader = RecipeReader.open(
+                new InputStreamReader(CatalogTool.open(file, gzip), StandardCharsets.UTF_8), format)) {
+            Recipe recipe;
+            while ((recipe = reader.next()) != null) {
+                lastId = Math.max(lastId, recipe.getId());
+            }
+        }
+        return lastId;
+    }
+
+    /**
+     * Finds where the last complete record of an export ends. Every record ends with a line feed, which in CSV only
+     * counts outside a quoted field. A gzip stream that was cut off is read as far as it goes.
+     */
+    private static Tail scan(Path file, RecipeFormat format, boolean gzip) throws IOException {
+        boolean csv = format == RecipeFormat.CSV;
+        boolean quoted = false;
+        long complete = 0;
+        long total = 0;
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = CatalogTool.open(file, gzip)) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                for (int i = 0; i < n; i++) {
+                    if (csv && buffer[i] == '"') {
+                        quoted = !quoted; // An escaped quote toggles twice.
+                    } else if (buffer[i] == '\n' && !quoted) {
+                        complete = total + i + 1;
+                    }
+                }
+                total += n;
+            }
+        } catch (EOFException | ZipException e) {
+            if (!gzip) {
+                throw e;
+            }
+            return new Tail(complete, total, true);
+        }
+        return new Tail(complete, total, false);
+    }
+
+    /**
+     * Replaces a gzip file with one member holding the first {@code length} uncompressed bytes of it.
+     */
+    private static void recompress(Path file, long length) throws IOException {
+        Path trimmed = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            if (length > 0) {
+                try (InputStream in = CatalogTool.open(file, true);
+                     OutputStream out = new GZIPOutputStream(Files.newOutputStream(trimmed), 1 << 16)) {
+                    byte[] buffer = new byte[1 << 16];
+                    for (long remaining = length; remaining > 0; ) {
+                        int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                        if (n == -1) {
+                            throw new EOFException("%s ended before byte %d.".formatted(file, length));
+                        }
+                        out.write(buffer, 0, n);
+                        remaining -= n;
+                    }
+                }
+            }
+            Files.move(trimmed, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(trimmed);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.matthewdesouza.recipeapp.catalog;
+
+import java.util.Locale;
+
+/**
+ * File formats recipes can be imported from and exported to.
+ * <p>
+ * Both carry the fields {@code id}, {@code title}, {@code content}, {@code uri} and {@code userId}; all but
+ * {@code title} and {@code content} may be omitted on import.
+ */
+public enum RecipeFormat {
+    /**
+     * One JSON object per line, e.g. {@code {"title": "Pancakes", "content": "...", "uri": null, "userId": 1}}.
+     */
+    JSONL,
+    /**
+     * RFC 4180 CSV with a header row naming the columns.
+     */
+    CSV;
+
+    /**
+     * @param fileName File name, possibly ending in {@code .gz}.
+     * @return The format implied by the file extension, defaulting to {@link #JSONL}.
+     */
+    public static RecipeFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        return name.endsWith(".csv") ? CSV : JSONL;
+    }
+
+    public static RecipeFormat parse(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "jsonl", "json", "ndjson" -> JSONL;
+            case "csv" -> CSV;
+            default -> throw new IllegalArgumentException("Unknown format: " + name);
+        };
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.matthewdesouza.recipeapp.catalog;
+
+import com.github.matthewdesouza.recipeapp.database.RecipeDAO;
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk-loads recipes from a {@link RecipeReader} into the database.
+ * <p>
+ * Records are streamed from the reader and written in batches of {@code batchSize} rows, each batch being a single
+ * JDBC batch in its own transaction; only the current batch and the generated ids are kept in memory. If a batch fails
+ * the import stops with the exception, and every earlier batch stays committed.
+ */
+public final class RecipeImporter {
+    private static final Logger log = LoggerFactory.getLogger(RecipeImporter.class);
+
+    public static final int DEFAULT_BATCH_SIZE = Integer.getInteger("recipeapp.import.batchSize", 1000);
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * Writes one batch of recipes and returns their generated ids in order.
+     */
+    @FunctionalInterface
+    public interface BatchWriter {
+        int[] write(List<Recipe> batch) throws SQLException;
+    }
+
+    private final int batchSize;
+    private final int defaultUserId;
+    private final BatchWriter writer;
+
+    /**
+     * @param batchSize     Rows per JDBC batch and transaction.
+     * @param defaultUserId Author of records that do not name one.
+     */
+    public RecipeImporter(int batchSize, int defaultUserId) {
+        this(batchSize, defaultUserId, RecipeDAO::createRecipes);
+    }
+
+    public RecipeImporter(int batchSize, int defaultUserId, BatchWriter writer) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.defaultUserId = defaultUserId;
+        this.writer = writer;
+    }
+
+    /**
+     * Imports every recipe the reader yields.
+     *
+     * @param reader Source of recipes; not closed by this method.
+     * @return Generated ids and throughput.
+     * @throws IOException  If the input could not be read.
+     * @throws SQLException If a batch could not be written.
+     */
+    public ImportResult importFrom(RecipeReader reader) throws IOException, SQLException {
+        long start = System.nanoTime();
+        long lastProgress = start;
+        int[] ids = new int[Math.max(16, batchSize)];
+        int imported = 0;
+        long skipped = 0;
+        List<Recipe> batch = new ArrayList<>(batchSize);
+
+        Recipe recipe;
+        while ((recipe = reader.next()) != null) {
+            if (recipe.getTitle() == null || recipe.getTitle().isBlank() || recipe.getContent() == null) {
+                skipped++;
+                continue;
+            }
+            if (recipe.getUserId() == 0) {
+                recipe.setUserId(defaultUserId);
+            }
+            batch.add(recipe);
+            if (batch.size() == batchSize) {
+                ids = append(ids, imported, writer.write(batch));
+                imported += batch.size();
+                batch.clear();
+
+                long now = System.nanoTime();
+                if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    lastProgress = now;
+                    log.info("Imported {} recipes ({} rows/s).", imported,
+                            String.format("%.0f", imported * (double) TimeUnit.SECONDS.toNanos(1) / (now - start)));
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            ids = append(ids, imported, writer.write(batch));
+            imported += batch.size();
+        }
+
+        ImportResult result = new ImportResult(Arrays.copyOf(ids, imported), skipped, System.nanoTime() - start);
+        log.info("Import finished: {}", result);
+        return result;
+    }
+
+    private static int[] append(int[] ids, int size, int[] batchIds) {
+        if (size + batchIds.length > ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(ids.length * 2, size + batchIds.length));
+        }
+        System.arraycopy(batchIds, 0, ids, size, batchIds.length);
+        return ids;
+    }
+}
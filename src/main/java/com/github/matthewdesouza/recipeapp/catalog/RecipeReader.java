@@ -0,0 +1,30 @@
+package com.github.matthewdesouza.recipeapp.catalog;
+
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streams recipes out of an import file one at a time, so files of any size can be read in constant memory.
+ */
+public interface RecipeReader extends AutoCloseable {
+    /**
+     * @return The next recipe, or {@code null} at the end of the input. Its id and userId are 0 if the input did not
+     * include them; ids are informational only and never used for inserts.
+     * @throws IOException If the input could not be read or is malformed; the message names the offending line.
+     */
+    Recipe next() throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    static RecipeReader open(Reader reader, RecipeFormat format) {
+        BufferedReader buffered = reader instanceof BufferedReader b ? b : new BufferedReader(reader, 1 << 16);
+        return switch (format) {
+            case JSONL -> new JsonLinesRecipeReader(buffered);
+            case CSV -> new CsvRecipeReader(buffered);
+        };
+    }
+}
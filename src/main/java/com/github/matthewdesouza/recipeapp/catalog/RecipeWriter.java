@@ -0,0 +1,34 @@
+package com.github.matthewdesouza.recipeapp.catalog;
+
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes recipes to an export file one at a time, in a format {@link RecipeReader} can read back.
+ */
+public interface RecipeWriter extends AutoCloseable {
+    void write(Recipe recipe) throws IOException;
+
+    /**
+     * Flushes and closes the underlying writer.
+     */
+    @Override
+    void close() throws IOException;
+
+    /**
+     * @param writer      Destination of the records.
+     * @param format      Output format.
+     * @param writeHeader Whether to start with a CSV header row; {@code false} when appending to an existing export.
+     * @return A writer for the given format.
+     */
+    static RecipeWriter open(Writer writer, RecipeFormat format, boolean writeHeader) throws IOException {
+        BufferedWriter buffered = writer instanceof BufferedWriter b ? b : new BufferedWriter(writer, 1 << 16);
+        return switch (format) {
+            case JSONL -> new JsonLinesRecipeWriter(buffered);
+            case CSV -> new CsvRecipeWriter(buffered, writeHeader);
+        };
+    }
+}
@@ -0,0 +1,214 @@
+package com.github.matthewdesouza.recipeapp.collection;
+
+import java.util.Arrays;
+
+/**
+ * Map from primitive int keys to int counts in an open-addressing hash table with linear probing, laid out like
+ * {@link IntSet}: parallel key and value arrays kept at most {@value #MAX_LOAD_PERCENT}% full, so an entry takes
+ * about 12 to 23 bytes instead of the ~64 of a boxed {@link java.util.HashMap} entry.
+ * <p>
+ * A key is present exactly while its count is non-zero: {@link #addTo(int, int)} removes a key whose count drops to
+ * zero, and {@link #get(int)} returns 0 for an absent key.
+ * <p>
+ * Not thread-safe.
+ */
+public final class IntIntMap {
+    private static final int MAX_LOAD_PERCENT = 70;
+    private static final int MIN_CAPACITY = 4;
+    // Marks a free slot, so the count of key zero is kept separately.
+    private static final int FREE = 0;
+
+    /**
+     * Receives the entries of {@link #forEach(EntryConsumer)}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int zeroValue;
+
+    public IntIntMap() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize Number of entries the map can take before it has to grow.
+     */
+    public IntIntMap(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        keys = new int[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * @return The count of the key, 0 if it is absent.
+     */
+    public int get(int key) {
+        if (key == FREE) {
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; keys[i] != FREE; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Adds {@code delta} to the count of the key, adding the key if it is absent and removing it if its count becomes
+     * zero.
+     *
+     * @return The new count.
+     */
+    public int addTo(int key, int delta) {
+        if (key == FREE) {
+            int previous = zeroValue;
+            zeroValue += delta;
+            if (previous == 0 && zeroValue != 0) {
+                size++;
+            } else if (previous != 0 && zeroValue == 0) {
+                size--;
+            }
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        for (; keys[i] != FREE; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                int value = values[i] + delta;
+                if (value == 0) {
+                    shiftBack(i);
+                    size--;
+                } else {
+                    values[i] = value;
+                }
+                return value;
+            }
+        }
+        if (delta == 0) {
+            return 0;
+        }
+        keys[i] = key;
+        values[i] = delta;
+        size++;
+        if ((long) tableSize() * 100 > (long) keys.length * MAX_LOAD_PERCENT) {
+            rehash(keys.length * 2);
+        }
+        return delta;
+    }
+
+    /**
+     * @return The count the key had, 0 if it was absent.
+     */
+    public int remove(int key) {
+        if (key == FREE) {
+            int previous = zeroValue;
+            if (previous != 0) {
+                zeroValue = 0;
+                size--;
+            }
+            return previous;
+        }
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; keys[i] != FREE; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                int previous = values[i];
+                shiftBack(i);
+                size--;
+                return previous;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Calls the action with every entry, in no particular order, without boxing. The action must not modify the map.
+     */
+    public void forEach(EntryConsumer action) {
+        if (zeroValue != 0) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, 0);
+        size = 0;
+        zeroValue = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int tableSize() {
+        return zeroValue != 0 ? size - 1 : size;
+    }
+
+    /**
+     * Closes the gap left at {@code gap} like {@link IntSet} does, moving keys together with their values.
+     */
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            int key = keys[i];
+            if (key == FREE) {
+                break;
+            }
+            int home = mix(key) & mask;
+            // Moves the entry unless its home slot lies cyclically in (gap, i].
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != FREE) {
+                int i = mix(oldKeys[j]) & mask;
+                while (keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.max(expectedSize, 1) * 100 / MAX_LOAD_PERCENT + 1;
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) Math.min(needed, 1 << 30) - 1) << 1);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
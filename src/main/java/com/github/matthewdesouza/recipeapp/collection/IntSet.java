@@ -0,0 +1,320 @@
+package com.github.matthewdesouza.recipeapp.collection;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of primitive ints in an open-addressing hash table with linear probing.
+ * <p>
+ * Each element takes one slot of an {@code int[]} kept at most {@value #MAX_LOAD_PERCENT}% full, i.e. about 6 to 12
+ * bytes per element instead of the ~48 of a boxed {@link java.util.HashSet} entry. {@link #contains(int)},
+ * {@link #add(int)} and {@link #remove(int)} neither box nor allocate. The {@link java.util.Set} methods taking
+ * objects still work, through boxing, so the set can be handed to code expecting a {@code Set<Integer>}; its iterator
+ * does not support {@link Iterator#remove()}.
+ * <p>
+ * Not thread-safe.
+ */
+public final class IntSet extends AbstractSet<Integer> {
+    private static final int MAX_LOAD_PERCENT = 70;
+    private static final int MIN_CAPACITY = 4;
+    // Marks a free slot, so zero itself is tracked separately.
+    private static final int FREE = 0;
+
+    private int[] slots;
+    private int size;
+    private boolean containsZero;
+
+    public IntSet() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize Number of elements the set can take before it has to grow.
+     */
+    public IntSet(int expectedSize) {
+        slots = new int[capacityFor(expectedSize)];
+    }
+
+    /**
+     * @return A set of the given ints.
+     */
+    public static IntSet of(int... values) {
+        IntSet set = new IntSet(values.length);
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    /**
+     * @return A copy of the given set, without boxing if it is an {@link IntSet}.
+     */
+    public static IntSet copyOf(Collection<Integer> values) {
+        if (values instanceof IntSet intSet) {
+            IntSet copy = new IntSet(0);
+            copy.slots = intSet.slots.clone();
+            copy.size = intSet.size;
+            copy.containsZero = intSet.containsZero;
+            return copy;
+        }
+        IntSet copy = new IntSet(values.size());
+        copy.addAll(values);
+        return copy;
+    }
+
+    public boolean contains(int value) {
+        if (value == FREE) {
+            return containsZero;
+        }
+        int mask = slots.length - 1;
+        for (int i = mix(value) & mask; slots[i] != FREE; i = (i + 1) & mask) {
+            if (slots[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Whether the value was not in the set yet.
+     */
+    public boolean add(int value) {
+        if (value == FREE) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int mask = slots.length - 1;
+        int i = mix(value) & mask;
+        for (; slots[i] != FREE; i = (i + 1) & mask) {
+            if (slots[i] == value) {
+                return false;
+            }
+        }
+        slots[i] = value;
+        size++;
+        if ((long) tableSize() * 100 > (long) slots.length * MAX_LOAD_PERCENT) {
+            rehash(slots.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @return Whether the value was in the set.
+     */
+    public boolean remove(int value) {
+        if (value == FREE) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int mask = slots.length - 1;
+        for (int i = mix(value) & mask; slots[i] != FREE; i = (i + 1) & mask) {
+            if (slots[i] == value) {
+                shiftBack(i);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return A new set of the elements in both this set and {@code other}.
+     */
+    public IntSet intersect(IntSet other) {
+        IntSet smaller = size <= other.size ? this : other;
+        IntSet larger = smaller == this ? other : this;
+        IntSet result = new IntSet(smaller.size);
+        smaller.forEachInt(value -> {
+            if (larger.contains(value)) {
+                result.add(value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Calls the action with every element, in no particular order, without boxing.
+     */
+    public void forEachInt(IntConsumer action) {
+        if (containsZero) {
+            action.accept(0);
+        }
+        for (int value : slots) {
+            if (value != FREE) {
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * @return The elements in ascending order.
+     */
+    public int[] toIntArray() {
+        int[] values = new int[size];
+        int count = 0;
+        if (containsZero) {
+            values[count++] = 0;
+        }
+        for (int value : slots) {
+            if (value != FREE) {
+                values[count++] = value;
+            }
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer value && contains(value.intValue());
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        return add(value.intValue());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer value && remove(value.intValue());
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        IntSet kept = new IntSet(Math.min(size, c.size()));
+        forEachInt(value -> {
+            if (c.contains(value)) {
+                kept.add(value);
+            }
+        });
+        if (kept.size == size) {
+            return false;
+        }
+        slots = kept.slots;
+        size = kept.size;
+        containsZero = kept.containsZero;
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean changed = false;
+        for (Object o : c) {
+            changed |= remove(o);
+        }
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, FREE);
+        size = 0;
+        containsZero = false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+            private boolean zeroPending = containsZero;
+            private int next = advance(0);
+
+            private int advance(int from) {
+                while (from < slots.length && slots[from] == FREE) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return zeroPending || next < slots.length;
+            }
+
+            @Override
+            public Integer next() {
+                if (zeroPending) {
+                    zeroPending = false;
+                    return 0;
+                }
+                if (next >= slots.length) {
+                    throw new NoSuchElementException();
+                }
+                int value = slots[next];
+                next = advance(next + 1);
+                return value;
+            }
+        };
+    }
+
+    private int tableSize() {
+        return containsZero ? size - 1 : size;
+    }
+
+    /**
+     * Closes the gap left at {@code gap} by moving later entries of the same probe run back, so lookups never stop
+     * early at a slot that was freed.
+     */
+    private void shiftBack(int gap) {
+        int mask = slots.length - 1;
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            int value = slots[i];
+            if (value == FREE) {
+                break;
+            }
+            int home = mix(value) & mask;
+            // Moves the entry unless its home slot lies cyclically in (gap, i].
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                slots[gap] = value;
+                gap = i;
+            }
+        }
+        slots[gap] = FREE;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = slots;
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int value : old) {
+            if (value != FREE) {
+                int i = mix(value) & mask;
+                while (slots[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = value;
+            }
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.max(expectedSize, 1) * 100 / MAX_LOAD_PERCENT + 1;
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) Math.min(needed, 1 << 30) - 1) << 1);
+    }
+
+    /**
+     * Spreads sequential ids, the common case, over the table.
+     */
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
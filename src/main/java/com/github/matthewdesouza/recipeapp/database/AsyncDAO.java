@@ -0,0 +1,158 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import com.github.matthewdesouza.recipeapp.collection.IntSet;
+import com.github.matthewdesouza.recipeapp.database.exception.UserNotFoundException;
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+import com.github.matthewdesouza.recipeapp.model.RecipeSummary;
+import com.github.matthewdesouza.recipeapp.model.User;
+import com.github.matthewdesouza.recipeapp.popularity.RankedRecipe;
+import com.github.matthewdesouza.recipeapp.recommend.Recommendation;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Non-blocking front for {@link RecipeDAO} and {@link UserDAO}.
+ * <p>
+ * Every call runs on its own virtual thread and completes the returned future with the DAO's result, or exceptionally
+ * with whatever the DAO threw (e.g. {@link UserNotFoundException}). Blocking on JDBC or bcrypt only parks the virtual
+ * thread, so the JavaFX Application Thread stays free; concurrency is still bounded by the connection pool.
+ * <p>
+ * Cancelling a returned future does not abort a statement that is already running, it only discards the result.
+ */
+public final class AsyncDAO {
+    /**
+     * A DAO call that may throw a checked exception.
+     */
+    @FunctionalInterface
+    public interface DaoCall<T> {
+        T call() throws Exception;
+    }
+
+    private static final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("recipe-dao-", 0).factory());
+
+    private AsyncDAO() {
+    }
+
+    /**
+     * Runs an arbitrary sequence of DAO calls on a virtual thread, e.g. a check followed by an insert.
+     *
+     * @param call Work to run off the calling thread.
+     * @return Future completed with the call's result.
+     */
+    public static <T> CompletableFuture<T> supply(DaoCall<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Runs a sequence of reads on a virtual thread inside one read-only transaction, so they share a connection and
+     * see a consistent snapshot.
+     *
+     * @param call Reads to run off the calling thread.
+     * @return Future completed with the call's result.
+     * @see StorageBackend#inReadOnlyTransaction(TransactionWork)
+     */
+    public static <T> CompletableFuture<T> supplyReadOnly(DaoCall<T> call) {
+        return supply(() -> Storage.get().inReadOnlyTransaction(() -> {
+            try {
+                return call.call();
+            } catch (SQLException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }));
+    }
+
+    public static CompletableFuture<Void> createRecipe(Recipe recipe, User user) {
+        return supply(() -> {
+            RecipeDAO.createRecipe(recipe, user);
+            return null;
+        });
+    }
+
+    public static CompletableFuture<Recipe> getRecipeByRecipeId(int id) {
+        return supply(() -> RecipeDAO.getRecipeByRecipeId(id));
+    }
+
+    public static CompletableFuture<Integer> updateRecipe(Recipe recipe) {
+        return supply(() -> RecipeDAO.updateRecipe(recipe));
+    }
+
+    public static CompletableFuture<Integer> deleteRecipe(int recipeId) {
+        return supply(() -> RecipeDAO.deleteRecipe(recipeId));
+    }
+
+    public static CompletableFuture<List<RecipeSummary>> getRecipeSummaryPage(int afterId, int pageSize) {
+        return supply(() -> RecipeDAO.getRecipeSummaryPage(afterId, pageSize));
+    }
+
+    public static CompletableFuture<List<RecipeSummary>> searchRecipes(String query, int limit) {
+        return supply(() -> RecipeDAO.searchRecipes(query, limit));
+    }
+
+    public static CompletableFuture<Void> buildSearchIndex() {
+        return supply(() -> {
+            RecipeDAO.buildSearchIndex();
+            return null;
+        });
+    }
+
+    public static CompletableFuture<User> authenticateUser(String username, String password) {
+        return supply(() -> UserDAO.authenticateUser(username, password));
+    }
+
+    public static CompletableFuture<Void> createUser(User user) {
+        return supply(() -> {
+            UserDAO.createUser(user);
+            return null;
+        });
+    }
+
+    public static CompletableFuture<User> getUserByUsername(String username) {
+        return supply(() -> UserDAO.getUserByUsername(username));
+    }
+
+    public static CompletableFuture<Boolean> usernameExists(String username) {
+        return supply(() -> UserDAO.usernameExists(username));
+    }
+
+    public static CompletableFuture<Map<Integer, String>> getUsernamesByIds(Collection<Integer> ids) {
+        return supply(() -> UserDAO.getUsernamesByIds(ids));
+    }
+
+    public static CompletableFuture<List<RankedRecipe>> getMostLikedRecipes(int limit) {
+        return supply(() -> RecipeDAO.getMostLikedRecipes(limit));
+    }
+
+    public static CompletableFuture<List<RankedRecipe>> getTrendingRecipes(int limit) {
+        return supply(() -> RecipeDAO.getTrendingRecipes(limit));
+    }
+
+    public static CompletableFuture<List<Recommendation>> getSimilarRecipes(int recipeId, int limit) {
+        return supply(() -> RecipeDAO.getSimilarRecipes(recipeId, limit));
+    }
+
+    public static CompletableFuture<List<Recommendation>> getRecommendedRecipes(User user, int limit) {
+        return supply(() -> RecipeDAO.getRecommendedRecipes(user, limit));
+    }
+
+    public static CompletableFuture<IntSet> getLikedRecipeIds(int userId, Collection<Integer> recipeIds) {
+        return supply(() -> UserDAO.getLikedRecipeIds(userId, recipeIds));
+    }
+}
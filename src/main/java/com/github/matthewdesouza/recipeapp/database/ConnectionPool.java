@@ -0,0 +1,223 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of JDBC connections.
+ * <p>
+ * At most {@link PoolConfig#maxSize()} connections are handed out at once; further callers wait up to
+ * {@link PoolConfig#connectionTimeoutMs()} for one to be returned. Idle connections are reused most-recently-used
+ * first, validated before being handed out again, and evicted by a background task once they have been idle for
+ * longer than {@link PoolConfig#idleTimeoutMs()}. If {@link PoolConfig#leakDetectionThresholdMs()} is set, the same
+ * task logs connections that have been borrowed for longer than that, together with the stack trace of the borrower.
+ */
+final class ConnectionPool implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPool.class);
+
+    /**
+     * Opens new physical connections for the pool.
+     */
+    @FunctionalInterface
+    interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final PoolConfig config;
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final StatementCacheStats statementCacheStats = new StatementCacheStats();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    ConnectionPool(ConnectionFactory factory, PoolConfig config) {
+        this.factory = factory;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recipe-db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                config.housekeepingIntervalMs(), config.housekeepingIntervalMs(), TimeUnit.MILLISECONDS);
+        fillToMinimum();
+        log.info("Connection pool started (min={}, max={}).", config.minSize(), config.maxSize());
+    }
+
+    /**
+     * Borrows a connection, waiting for one to become available if the pool is exhausted.
+     *
+     * @return A validated connection; close it to return it to the pool.
+     * @throws SQLException If no connection became available in time or a new one could not be opened.
+     */
+    PooledConnection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+        try {
+            if (!permits.tryAcquire(config.connectionTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Timed out after %d ms waiting for a database connection (borrowed=%d, max=%d)."
+                        .formatted(config.connectionTimeoutMs(), borrowed.size(), config.maxSize()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = open();
+            }
+            pooled.markBorrowed(config.leakDetectionThresholdMs() > 0);
+            borrowed.add(pooled);
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection. Connections that are closed, or returned after the pool shut down, are discarded.
+     *
+     * @param pooled Connection previously obtained from {@link #borrow()}.
+     */
+    void release(PooledConnection pooled) {
+        if (!borrowed.remove(pooled)) {
+            return; // Already returned.
+        }
+        try {
+            if (closed || openCount.get() > config.maxSize() || pooled.connection().isClosed()) {
+                discard(pooled);
+            } else {
+                pooled.markIdle();
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    StatementCacheStats statementCacheStats() {
+        return statementCacheStats;
+    }
+
+    int borrowedCount() {
+        return borrowed.size();
+    }
+
+    int idleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+        log.info("Connection pool closed, {} connection(s) still borrowed. {}", borrowed.size(), statementCacheStats);
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            log.debug("Discarding stale connection after failed validation.");
+            discard(pooled);
+        }
+        return null;
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        // Connections that were in use a moment ago are assumed alive, this keeps a ping off the hot path.
+        if (pooled.idleMillis() < config.validationIntervalMs()) {
+            return true;
+        }
+        try {
+            int timeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(config.validationTimeoutMs()));
+            return pooled.connection().isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection connection = factory.create();
+        openCount.incrementAndGet();
+        return new PooledConnection(this, connection,
+                new StatementCache(connection, config.statementCacheSize(), statementCacheStats));
+    }
+
+    private void discard(PooledConnection pooled) {
+        openCount.decrementAndGet();
+        try {
+            pooled.connection().close();
+        } catch (SQLException e) {
+            log.debug("Error closing discarded connection.", e);
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && openCount.get() < config.minSize()) {
+            try {
+                idle.offerLast(open());
+            } catch (SQLException e) {
+                log.warn("Unable to open idle connection: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void housekeep() {
+        try {
+            // Least recently used connections sit at the tail of the deque.
+            Iterator<PooledConnection> iterator = idle.descendingIterator();
+            while (iterator.hasNext() && openCount.get() > config.minSize()) {
+                PooledConnection pooled = iterator.next();
+                if (pooled.idleMillis() >= config.idleTimeoutMs() && idle.remove(pooled)) {
+                    discard(pooled);
+                }
+            }
+
+            long threshold = config.leakDetectionThresholdMs();
+            if (threshold > 0) {
+                for (PooledConnection pooled : borrowed) {
+                    if (pooled.borrowedMillis() >= threshold && pooled.markLeakReported()) {
+                        log.warn("Possible connection leak: connection borrowed by thread `{}` {} ms ago has not been returned.",
+                                pooled.borrowThread(), pooled.borrowedMillis(), pooled.borrowSite());
+                    }
+                }
+            }
+
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            log.error("Connection pool housekeeping failed.", e);
+        }
+    }
+}
@@ -1,36 +1,88 @@
 package com.github.matthewdesouza.recipeapp.database;
 
-import org.mindrot.jbcrypt.BCrypt;
+import com.github.matthewdesouza.recipeapp.security.PasswordHasher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.sql.*;
+import java.util.List;
 
-public class DatabaseConnector {
-    private static final String URL = "jdbc:mariadb://localhost:3306/";
-    private static final String USER = "root";
-    private static final String PASSWORD = "mariadb";
+/**
+ * Executes SQL against one database through a pool of connections.
+ * <p>
+ * Each instance belongs to a {@link JdbcStorageBackend}; {@link #getInstance()} returns the one of the configured
+ * {@link Storage} backend.
+ */
+public class DatabaseConnector implements AutoCloseable {
+    private static final String DATABASE = "recipe";
 
+    private final JdbcEngine engine;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final ConnectionPool pool;
+    private final QueryMetrics metrics = QueryMetrics.fromSystemProperties();
+    private final ObjectName metricsName;
 
-    private Connection connection;
+    /**
+     * Connection of the transaction running on the current thread, if any.
+     */
+    private final ThreadLocal<PooledConnection> transactionConnection = new ThreadLocal<>();
 
     private static final Logger log = LoggerFactory.getLogger(DatabaseConnector.class);
 
-    private DatabaseConnector() {
+    /**
+     * @param engine   SQL engine behind the URL.
+     * @param url      JDBC URL; for a server engine, of the server, without a database name.
+     * @param user     Database user.
+     * @param password Database password.
+     */
+    DatabaseConnector(JdbcEngine engine, String url, String user, String password) {
+        this.engine = engine;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        initializeSchema();
+        String schemaUrl = engine.hasServerCatalog() ? url + DATABASE : url;
+        this.pool = new ConnectionPool(() -> DriverManager.getConnection(schemaUrl, user, password),
+                PoolConfig.fromSystemProperties());
+        this.metricsName = registerMetrics(schemaUrl);
+    }
+
+    private ObjectName registerMetrics(String schemaUrl) {
         try {
-            this.connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            Statement statement = connection.createStatement();
-            // Create schema.
-            statement.execute("""
-                    CREATE DATABASE IF NOT EXISTS recipe;
-                    """);
-            log.info("Recipe schema created.");
+            ObjectName name = new ObjectName("com.github.matthewdesouza.recipeapp:type=QueryMetrics,name="
+                    + ObjectName.quote(schemaUrl));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+            return name;
+        } catch (JMException e) {
+            log.warn("Query metrics of {} not exposed through JMX.", schemaUrl, e);
+            return null;
+        }
+    }
 
-            // Make schema active.
-            statement.execute("""
-                    USE recipe;
-                    """);
-            log.info("Use created schema.");
+    /**
+     * Creates the schema over a dedicated bootstrap connection, since pooled connections open the schema directly.
+     */
+    private void initializeSchema() {
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            if (engine.hasServerCatalog()) {
+                // Create schema.
+                statement.execute("""
+                        CREATE DATABASE IF NOT EXISTS recipe;
+                        """);
+                log.info("Recipe schema created.");
+
+                // Make schema active.
+                statement.execute("""
+                        USE recipe;
+                        """);
+                log.info("Use created schema.");
+            }
 
             // Create users table.
             statement.execute("""
@@ -60,17 +112,24 @@ public class DatabaseConnector {
                     CREATE TABLE IF NOT EXISTS user_likes (
                         userId INT,
                         recipeId INT,
+                        likedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
                         PRIMARY KEY (userId, recipeId),
                         FOREIGN KEY (userId) REFERENCES users(id),
                         FOREIGN KEY (recipeId) REFERENCES recipes(id)
                     );
                     """);
-            log.info("`user_likes` table created, currently unused.");
+            // Schemas created before likes were written lack the time of each like.
+            statement.execute("""
+                    ALTER TABLE user_likes ADD COLUMN IF NOT EXISTS likedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+                    """);
+            log.info("`user_likes` table created.");
 
             // Create admin account with default password `testing`
-            statement.execute("""
-INSERT INTO users VALUES (0, "admin", "%s");
-""".formatted(BCrypt.hashpw("testing123", BCrypt.gensalt())));
+            try (PreparedStatement insertAdmin = connection.prepareStatement(
+                    "INSERT INTO users (username, password) VALUES ('admin', ?)")) {
+                insertAdmin.setString(1, PasswordHasher.getInstance().hash("testing123"));
+                insertAdmin.executeUpdate();
+            }
         } catch (SQLException e) {
             log.info("Database schema already initialized, using preexisting schema.");
         }
@@ -85,16 +144,109 @@ INSERT INTO users VALUES (0, "admin", "%s");
      * @throws SQLException If an error occurs during the query execution.
      */
     public ResultSet executeUpdateWithKeys(String sql, Object... parameters) throws SQLException {
-        PreparedStatement preparedStatement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-        setPreparedStatementParameters(preparedStatement, parameters);
-        preparedStatement.executeUpdate();
-        return preparedStatement.getGeneratedKeys();
+        PooledConnection pooled = acquire();
+        PreparedStatement preparedStatement = null;
+        long start = System.nanoTime();
+        try {
+            preparedStatement = pooled.prepareStatement(sql, true);
+            setPreparedStatementParameters(preparedStatement, parameters);
+            int affectedRows = preparedStatement.executeUpdate();
+            metrics.record(sql, System.nanoTime() - start, affectedRows, parameters);
+            return PooledResultSet.wrap(preparedStatement.getGeneratedKeys(), preparedStatement, pooled);
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordError(sql, System.nanoTime() - start);
+            discard(preparedStatement, pooled);
+            throw e;
+        }
+    }
+
+    /**
+     * Executes an INSERT once per parameter row as a single JDBC batch, in one transaction.
+     *
+     * @param sql  SQL insert to execute.
+     * @param rows Parameters for each execution.
+     * @return Generated key of each row, in the order of {@code rows}.
+     * @throws SQLException If any row failed; the whole batch is rolled back in that case.
+     */
+    public int[] executeBatchWithKeys(String sql, List<Object[]> rows) throws SQLException {
+        return executeBatch(sql, rows, true);
+    }
+
+    /**
+     * Executes an INSERT, UPDATE or DELETE once per parameter row as a single JDBC batch, in one transaction.
+     *
+     * @param sql  SQL statement to execute.
+     * @param rows Parameters for each execution.
+     * @return Update count of each row, in the order of {@code rows}.
+     * @throws SQLException If any row failed; the whole batch is rolled back in that case.
+     */
+    public int[] executeBatch(String sql, List<Object[]> rows) throws SQLException {
+        return executeBatch(sql, rows, false);
+    }
+
+    private int[] executeBatch(String sql, List<Object[]> rows, boolean returnGeneratedKeys) throws SQLException {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        try (PooledConnection pooled = acquire()) {
+            Connection connection = pooled.connection();
+            // Inside a transaction the batch simply joins it; otherwise it gets a transaction of its own.
+            boolean ownTransaction = !pooled.isPinned();
+            if (ownTransaction) {
+                connection.setAutoCommit(false);
+            }
+            PreparedStatement preparedStatement = null;
+            long start = System.nanoTime();
+            try {
+                preparedStatement = pooled.prepareStatement(sql, returnGeneratedKeys);
+                for (Object[] row : rows) {
+                    setPreparedStatementParameters(preparedStatement, row);
+                    preparedStatement.addBatch();
+                }
+                int[] result = preparedStatement.executeBatch();
+
+                if (returnGeneratedKeys) {
+                    result = new int[rows.size()];
+                    int count = 0;
+                    try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+                        while (count < result.length && generatedKeys.next()) {
+                            result[count++] = generatedKeys.getInt(1);
+                        }
+                    }
+                    if (count != result.length) {
+                        throw new SQLException("Expected %d generated keys from batch, got %d.".formatted(result.length, count));
+                    }
+                }
+                if (ownTransaction) {
+                    connection.commit();
+                }
+                pooled.releaseStatement(preparedStatement);
+                metrics.record(sql, System.nanoTime() - start, rows.size(), rows.get(0));
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                metrics.recordError(sql, System.nanoTime() - start);
+                if (ownTransaction) {
+                    rollback(connection, e);
+                }
+                if (preparedStatement != null) {
+                    preparedStatement.clearBatch();
+                    pooled.discardStatement(preparedStatement);
+                }
+                throw e;
+            } finally {
+                if (ownTransaction) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        }
     }
 
     private void setPreparedStatementParameters(PreparedStatement preparedStatement, Object[] parameters) throws SQLException {
         int i = 1;
         for (Object parameter : parameters) {
-            if (parameter instanceof String) {
+            if (parameter == null) {
+                preparedStatement.setNull(i, Types.NULL);
+            } else if (parameter instanceof String) {
                 preparedStatement.setString(i, (String) parameter);
             } else if (parameter instanceof Integer) {
                 preparedStatement.setInt(i, (Integer) parameter);
@@ -105,12 +257,22 @@ INSERT INTO users VALUES (0, "admin", "%s");
         }
     }
 
+    /**
+     * @return The connector of the configured storage backend.
+     * @throws IllegalStateException If the configured backend does not use JDBC.
+     */
     public static DatabaseConnector getInstance() {
-        return SingletonHelper.INSTANCE;
+        if (Storage.get() instanceof JdbcStorageBackend jdbc) {
+            return jdbc.connector();
+        }
+        throw new IllegalStateException("The configured storage backend does not use JDBC.");
     }
 
     /**
      * Helper function for executing {@link Statement} and {@link PreparedStatement} queries.
+     * <p>
+     * The connection backing the returned {@link ResultSet} stays borrowed from the pool until the result set is
+     * closed, so callers must close it (try-with-resources).
      *
      * @param sql        SQL query to execute.
      * @param parameters Optional vararg parameter for prepared statements.
@@ -118,42 +280,256 @@ INSERT INTO users VALUES (0, "admin", "%s");
      * @throws SQLException Thrown in the case that provided parameters are not valid.
      */
     public ResultSet executeQuery(String sql, Object... parameters) throws SQLException {
-        PreparedStatement preparedStatement = connection.prepareStatement(sql);
-
-        for (int i = 0; i < parameters.length; i++) {
-            if (parameters[i] instanceof String) {
-                preparedStatement.setString(i + 1, (String) parameters[i]);
-            } else if (parameters[i] instanceof Integer) {
-                preparedStatement.setInt(i + 1, (Integer) parameters[i]);
-            }
+        PooledConnection pooled = acquire();
+        PreparedStatement preparedStatement = null;
+        long start = System.nanoTime();
+        try {
+            preparedStatement = pooled.prepareStatement(sql, false);
+            setPreparedStatementParameters(preparedStatement, parameters);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            long elapsed = System.nanoTime() - start;
+            return PooledResultSet.wrap(resultSet, preparedStatement, pooled,
+                    rows -> metrics.record(sql, elapsed, rows, parameters));
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordError(sql, System.nanoTime() - start);
+            discard(preparedStatement, pooled);
+            throw e;
         }
+    }
 
-        return preparedStatement.executeQuery();
+    /**
+     * Executes a query whose rows are streamed from the server as they are read, rather than buffered in full.
+     * <p>
+     * The statement is forward-only and read-only and is not taken from the statement cache. As with
+     * {@link #executeQuery(String, Object...)}, the connection stays borrowed until the result set is closed.
+     * Its latency in the {@link QueryMetrics} covers the first fetch only.
+     *
+     * @param sql        SQL query to execute.
+     * @param fetchSize  Number of rows to fetch from the server per round-trip.
+     * @param parameters Optional vararg parameter for prepared statements.
+     * @return Forward-only {@link ResultSet} over the query's rows.
+     * @throws SQLException Thrown in the case that provided parameters are not valid.
+     */
+    public ResultSet executeStreamingQuery(String sql, int fetchSize, Object... parameters) throws SQLException {
+        PooledConnection pooled = acquire();
+        PreparedStatement preparedStatement = null;
+        long start = System.nanoTime();
+        try {
+            preparedStatement = pooled.connection().prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(fetchSize);
+            setPreparedStatementParameters(preparedStatement, parameters);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            long elapsed = System.nanoTime() - start;
+            return PooledResultSet.wrap(resultSet, preparedStatement, pooled,
+                    rows -> metrics.record(sql, elapsed, rows, parameters));
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordError(sql, System.nanoTime() - start);
+            discard(preparedStatement, pooled);
+            throw e;
+        }
     }
 
     public int executeUpdate(String sql, Object... parameters) throws SQLException {
         if (parameters.length == 0) {
             throw new SQLException("UPDATE query must include at least 1 parameter.");
         }
-        PreparedStatement preparedStatement = connection.prepareStatement(sql);
-        int i = 1;
-        for (Object parameter : parameters) {
-            if (parameter instanceof String) {
-                preparedStatement.setString(i, (String) parameter);
-            } else if (parameter instanceof Integer) {
-                preparedStatement.setInt(i, (Integer) parameter);
-            } else if (parameter instanceof Double) {
-                preparedStatement.setDouble(i, (Double) parameter);
+        try (PooledConnection pooled = acquire()) {
+            long start = System.nanoTime();
+            PreparedStatement preparedStatement = pooled.prepareStatement(sql, false);
+            try {
+                setPreparedStatementParameters(preparedStatement, parameters);
+                int affectedRows = preparedStatement.executeUpdate();
+                metrics.record(sql, System.nanoTime() - start, affectedRows, parameters);
+                pooled.releaseStatement(preparedStatement);
+                return affectedRows;
+            } catch (SQLException | RuntimeException e) {
+                metrics.recordError(sql, System.nanoTime() - start);
+                pooled.discardStatement(preparedStatement);
+                throw e;
             }
-            i++;
         }
-        return preparedStatement.executeUpdate();
     }
 
     /**
-     * Static inner class for holding the instance (Bill Pugh Singleton Implementation)
+     * Runs work in a single transaction on a single connection.
+     * <p>
+     * While the work runs, every {@code execute*} call made from the same thread, including those made by the DAOs,
+     * goes to the same pinned connection with autocommit off, so all writes are committed together once the work
+     * returns, instead of once each. If the work throws, everything it wrote is rolled back and the exception is
+     * rethrown. A transaction started inside another one simply joins it.
+     * <p>
+     * DAO methods that catch {@link SQLException} themselves report failure through their return value; check it and
+     * throw to roll back. The DAOs update their caches and indexes and notify their listeners through
+     * {@link #afterCommit(Runnable)}, so nothing the work wrote is seen outside the transaction before it commits.
+     * Result sets must be closed before the work returns.
+     *
+     * @param work Work to run.
+     * @return The work's result.
+     * @throws SQLException If the work, the commit or the rollback failed.
      */
-    private static class SingletonHelper {
-        private static final DatabaseConnector INSTANCE = new DatabaseConnector();
+    public <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        return transaction(work, false);
+    }
+
+    /**
+     * Runs reads in a single read-only transaction, so they all see the same snapshot of the database and share one
+     * connection instead of borrowing one per query.
+     *
+     * @param work Work to run; writes fail.
+     * @return The work's result.
+     * @throws SQLException If the work failed.
+     * @see #inTransaction(TransactionWork)
+     */
+    public <T> T inReadOnlyTransaction(TransactionWork<T> work) throws SQLException {
+        return transaction(work, true);
+    }
+
+    private <T> T transaction(TransactionWork<T> work, boolean readOnly) throws SQLException {
+        if (transactionConnection.get() != null) {
+            return work.execute();
+        }
+
+        PooledConnection pooled = pool.borrow();
+        Connection connection = pooled.connection();
+        List<Runnable> completion = List.of();
+        try {
+            connection.setAutoCommit(false);
+            if (readOnly) {
+                connection.setReadOnly(true);
+            }
+            pooled.pin(readOnly);
+            transactionConnection.set(pooled);
+
+            T result = work.execute();
+            connection.commit();
+            completion = pooled.completionActions(true);
+            return result;
+        } catch (SQLException | RuntimeException | Error e) {
+            rollback(connection, e);
+            completion = pooled.completionActions(false);
+            throw e;
+        } finally {
+            transactionConnection.remove();
+            pooled.unpin();
+            try {
+                if (readOnly) {
+                    connection.setReadOnly(false);
+                }
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                closeQuietly(connection); // State unknown, so the pool must not hand this connection out again.
+            }
+            pooled.close();
+            runAll(completion);
+        }
+    }
+
+    /**
+     * Runs an action once the transaction of the current thread has committed, or right away outside a transaction,
+     * where every statement commits on its own.
+     *
+     * @param action Action to run, e.g. invalidating cached rows the transaction changed.
+     */
+    public void afterCommit(Runnable action) {
+        PooledConnection pinned = transactionConnection.get();
+        if (pinned != null) {
+            pinned.afterCommit(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs an action once the transaction of the current thread has rolled back; outside a transaction it never runs.
+     *
+     * @param action Action to run.
+     */
+    public void afterRollback(Runnable action) {
+        PooledConnection pinned = transactionConnection.get();
+        if (pinned != null) {
+            pinned.afterRollback(action);
+        }
+    }
+
+    /**
+     * @return Whether the current thread runs a read-write transaction, whose uncommitted rows must not be cached.
+     */
+    public boolean isInWriteTransaction() {
+        PooledConnection pinned = transactionConnection.get();
+        return pinned != null && !pinned.isPinnedReadOnly();
+    }
+
+    /**
+     * Runs the actions of a finished transaction, after its connection went back to the pool so they can query.
+     */
+    private static void runAll(List<Runnable> actions) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                // The transaction already ended; a failing action must not make it look failed.
+                log.error("Action after the end of a transaction failed.", e);
+            }
+        }
+    }
+
+    private PooledConnection acquire() throws SQLException {
+        PooledConnection pinned = transactionConnection.get();
+        return pinned != null ? pinned : pool.borrow();
+    }
+
+    private static void rollback(Connection connection, Throwable cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException rollbackError) {
+            cause.addSuppressed(rollbackError);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Error closing connection after a failed transaction.", e);
+        }
+    }
+
+    /**
+     * @return Hit, miss and eviction counters of the prepared statement caches across all pooled connections.
+     */
+    public StatementCacheStats getStatementCacheStats() {
+        return pool.statementCacheStats();
+    }
+
+    /**
+     * @return Per-statement execution counts, latency percentiles and row counts; also exposed through JMX.
+     */
+    public QueryMetrics getQueryMetrics() {
+        return metrics;
+    }
+
+    private void discard(PreparedStatement preparedStatement, PooledConnection pooled) {
+        try {
+            if (preparedStatement != null) {
+                pooled.discardStatement(preparedStatement);
+            }
+        } finally {
+            pooled.close();
+        }
+    }
+
+    /**
+     * Closes the connection pool and removes the query metrics from JMX.
+     */
+    @Override
+    public void close() {
+        pool.close();
+        if (metricsName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+            } catch (JMException e) {
+                log.debug("Query metrics already unregistered.", e);
+            }
+        }
     }
 }
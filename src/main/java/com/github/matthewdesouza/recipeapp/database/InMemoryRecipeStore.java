@@ -0,0 +1,230 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+import com.github.matthewdesouza.recipeapp.model.RecipeSummary;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * {@link RecipeStore} of an {@link InMemoryStorageBackend}.
+ * <p>
+ * Recipes are kept sorted by id, so pages and streams are range views of the map, like the keyset queries of the
+ * SQL stores. Author names are looked up when read, as the SQL stores join them in.
+ */
+final class InMemoryRecipeStore implements RecipeStore {
+    private final InMemoryStorageBackend backend;
+    private final InMemoryUserStore users;
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final ConcurrentSkipListMap<Integer, Recipe> recipes = new ConcurrentSkipListMap<>();
+
+    InMemoryRecipeStore(InMemoryStorageBackend backend, InMemoryUserStore users) {
+        this.backend = backend;
+        this.users = users;
+    }
+
+    @Override
+    public int insert(Recipe recipe, int userId) throws SQLException {
+        requireNonNull("title", recipe.getTitle());
+        requireNonNull("content", recipe.getContent());
+        return backend.write(() -> {
+            requireAuthor(userId);
+            int id = lastId.incrementAndGet();
+            recipes.put(id, stored(id, recipe, userId));
+            backend.onRollback(() -> recipes.remove(id));
+            return id;
+        });
+    }
+
+    @Override
+    public int[] insertAll(List<Recipe> recipes) throws SQLException {
+        return backend.inTransaction(() -> {
+            int[] ids = new int[recipes.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = insert(recipes.get(i), recipes.get(i).getUserId());
+            }
+            return ids;
+        });
+    }
+
+    @Override
+    public Recipe findById(int id) throws SQLException {
+        return backend.read(() -> {
+            Recipe recipe = recipes.get(id);
+            return recipe != null ? new Recipe(recipe) : null;
+        });
+    }
+
+    @Override
+    public int update(Recipe recipe) throws SQLException {
+        requireNonNull("title", recipe.getTitle());
+        requireNonNull("content", recipe.getContent());
+        return backend.write(() -> {
+            requireAuthor(recipe.getUserId());
+            int id = recipe.getId();
+            Recipe previous = recipes.replace(id, stored(id, recipe, recipe.getUserId()));
+            if (previous == null) {
+                return 0;
+            }
+            backend.onRollback(() -> recipes.put(id, previous));
+            return 1;
+        });
+    }
+
+    /**
+     * Deletes exclusively, so no like can be added for the recipe while its likes are removed.
+     */
+    @Override
+    public int delete(int id) throws SQLException {
+        return backend.inTransaction(() -> {
+            if (!recipes.containsKey(id)) {
+                return 0;
+            }
+            users.removeLikesOf(id);
+            Recipe previous = recipes.remove(id);
+            backend.onRollback(() -> recipes.put(id, previous));
+            return 1;
+        });
+    }
+
+    @Override
+    public List<RecipeSummary> findSummaryPage(int afterId, int limit) throws SQLException {
+        return backend.read(() -> {
+            List<RecipeSummary> page = new ArrayList<>(Math.min(limit, recipes.size()));
+            for (Recipe recipe : recipes.tailMap(afterId, false).values()) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(summary(recipe));
+            }
+            return page;
+        });
+    }
+
+    @Override
+    public List<RecipeSummary> findAllSummaries() throws SQLException {
+        return findSummaries(recipe -> true);
+    }
+
+    @Override
+    public List<RecipeSummary> findSummariesByTitle(String lowerCaseText) throws SQLException {
+        return findSummaries(recipe -> recipe.getTitle().toLowerCase().contains(lowerCaseText));
+    }
+
+    @Override
+    public Set<Recipe> findByTitle(String text) throws SQLException {
+        return backend.read(() -> {
+            Set<Recipe> matches = new HashSet<>();
+            for (Recipe recipe : recipes.values()) {
+                if (recipe.getTitle().toLowerCase().contains(text)) {
+                    matches.add(new Recipe(recipe));
+                }
+            }
+            return matches;
+        });
+    }
+
+    @Override
+    public Set<Recipe> findAll() throws SQLException {
+        return backend.read(() -> {
+            Set<Recipe> all = new HashSet<>();
+            for (Recipe recipe : recipes.values()) {
+                all.add(withAuthor(recipe));
+            }
+            return all;
+        });
+    }
+
+    @Override
+    public List<Recipe> findPage(int afterId, int limit) throws SQLException {
+        return backend.read(() -> {
+            List<Recipe> page = new ArrayList<>(Math.min(limit, recipes.size()));
+            for (Recipe recipe : recipes.tailMap(afterId, false).values()) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(withAuthor(recipe));
+            }
+            return page;
+        });
+    }
+
+    /**
+     * Iterates a weakly consistent view instead of holding a lock while the consumer runs, like a server-side
+     * cursor that does not block writers.
+     */
+    @Override
+    public void stream(int afterId, int fetchSize, RecipeDAO.RecipeConsumer consumer) throws IOException {
+        for (Recipe recipe : recipes.tailMap(afterId, false).values()) {
+            consumer.accept(new Recipe(recipe));
+        }
+    }
+
+    boolean exists(int id) {
+        return recipes.containsKey(id);
+    }
+
+    boolean hasRecipesBy(int userId) {
+        for (Recipe recipe : recipes.values()) {
+            if (recipe.getUserId() == userId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<RecipeSummary> findSummaries(Predicate<Recipe> filter) throws SQLException {
+        return backend.read(() -> {
+            List<RecipeSummary> summaries = new ArrayList<>();
+            for (Recipe recipe : recipes.values()) {
+                if (filter.test(recipe)) {
+                    summaries.add(summary(recipe));
+                }
+            }
+            return summaries;
+        });
+    }
+
+    private void requireAuthor(int userId) throws SQLIntegrityConstraintViolationException {
+        if (!users.exists(userId)) {
+            throw new SQLIntegrityConstraintViolationException(
+                    "Cannot add or update recipe, user " + userId + " does not exist.");
+        }
+    }
+
+    private RecipeSummary summary(Recipe recipe) {
+        String author = users.usernameOf(recipe.getUserId());
+        // A missing author reads as 0, the <unknown> user, as with the LEFT JOIN of the SQL stores.
+        return new RecipeSummary(recipe.getId(), recipe.getTitle(), author != null ? recipe.getUserId() : 0, author);
+    }
+
+    private Recipe withAuthor(Recipe recipe) {
+        Recipe copy = new Recipe(recipe);
+        String author = users.usernameOf(recipe.getUserId());
+        copy.setUserId(author != null ? recipe.getUserId() : 0);
+        copy.setAuthorUsername(author);
+        return copy;
+    }
+
+    private static Recipe stored(int id, Recipe recipe, int userId) {
+        Recipe stored = new Recipe(recipe);
+        stored.setId(id);
+        stored.setUserId(userId);
+        stored.setAuthorUsername(null);
+        return stored;
+    }
+
+    private static void requireNonNull(String column, Object value) throws SQLIntegrityConstraintViolationException {
+        if (value == null) {
+            throw new SQLIntegrityConstraintViolationException("Column '" + column + "' cannot be null");
+        }
+    }
+}
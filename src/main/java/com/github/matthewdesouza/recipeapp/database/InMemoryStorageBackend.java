@@ -0,0 +1,190 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Storage in concurrent maps on the heap, with the semantics of the SQL schema: generated ids, unique usernames and
+ * foreign-key checks, reported as the same {@link java.sql.SQLIntegrityConstraintViolationException}s a database would
+ * throw.
+ * <p>
+ * Meant for tests and benchmarks: nothing is persisted, and unlike the SQL backends no admin account is seeded.
+ * Transactions are serialized; single store calls run concurrently with each other but not with a transaction, and
+ * a transaction that throws is rolled back by undoing its changes in reverse order.
+ */
+public final class InMemoryStorageBackend implements StorageBackend {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryStorageBackend.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Transaction> transaction = new ThreadLocal<>();
+    private final InMemoryUserStore users = new InMemoryUserStore(this);
+    private final InMemoryRecipeStore recipes = new InMemoryRecipeStore(this, users);
+
+    public InMemoryStorageBackend() {
+        users.setRecipes(recipes);
+    }
+
+    private static final class Transaction {
+        private final boolean readOnly;
+        private final Deque<Runnable> undoLog = new ArrayDeque<>();
+        private final List<Runnable> afterCommit = new ArrayList<>();
+        private final List<Runnable> afterRollback = new ArrayList<>();
+
+        private Transaction(boolean readOnly) {
+            this.readOnly = readOnly;
+        }
+
+        private void rollback() {
+            while (!undoLog.isEmpty()) {
+                undoLog.pop().run();
+            }
+        }
+    }
+
+    @Override
+    public RecipeStore recipes() {
+        return recipes;
+    }
+
+    @Override
+    public UserStore users() {
+        return users;
+    }
+
+    @Override
+    public <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        Transaction current = transaction.get();
+        if (current != null) {
+            if (current.readOnly) {
+                throw new SQLException("Cannot start a read-write transaction inside a read-only one.");
+            }
+            return work.execute();
+        }
+
+        Transaction started = new Transaction(false);
+        boolean committed = false;
+        lock.writeLock().lock();
+        transaction.set(started);
+        try {
+            T result = work.execute();
+            committed = true;
+            return result;
+        } catch (SQLException | RuntimeException | Error e) {
+            started.rollback();
+            throw e;
+        } finally {
+            transaction.remove();
+            lock.writeLock().unlock();
+            runAll(committed ? started.afterCommit : started.afterRollback);
+        }
+    }
+
+    @Override
+    public <T> T inReadOnlyTransaction(TransactionWork<T> work) throws SQLException {
+        if (transaction.get() != null) {
+            return work.execute();
+        }
+
+        Transaction started = new Transaction(true);
+        boolean committed = false;
+        lock.readLock().lock();
+        transaction.set(started);
+        try {
+            T result = work.execute();
+            committed = true;
+            return result;
+        } finally {
+            transaction.remove();
+            lock.readLock().unlock();
+            runAll(committed ? started.afterCommit : started.afterRollback);
+        }
+    }
+
+    @Override
+    public void afterCommit(Runnable action) {
+        Transaction current = transaction.get();
+        if (current != null) {
+            current.afterCommit.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    @Override
+    public void afterRollback(Runnable action) {
+        Transaction current = transaction.get();
+        if (current != null) {
+            current.afterRollback.add(action);
+        }
+    }
+
+    @Override
+    public boolean isInWriteTransaction() {
+        Transaction current = transaction.get();
+        return current != null && !current.readOnly;
+    }
+
+    /**
+     * Runs the actions of a finished transaction, after its lock was released so they can read.
+     */
+    private static void runAll(List<Runnable> actions) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                log.error("Action after the end of a transaction failed.", e);
+            }
+        }
+    }
+
+    /**
+     * Runs a single store read, waiting for a transaction of another thread to finish first.
+     */
+    <T> T read(TransactionWork<T> work) throws SQLException {
+        if (transaction.get() != null) {
+            return work.execute();
+        }
+        lock.readLock().lock();
+        try {
+            return work.execute();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a single store write; the write must itself be atomic on the maps and register its undo action.
+     */
+    <T> T write(TransactionWork<T> work) throws SQLException {
+        Transaction current = transaction.get();
+        if (current != null && current.readOnly) {
+            throw new SQLException("Cannot write in a read-only transaction.");
+        }
+        return read(work);
+    }
+
+    /**
+     * Registers how to revert a change, in case the enclosing transaction rolls back.
+     */
+    void onRollback(Runnable undo) {
+        Transaction current = transaction.get();
+        if (current != null) {
+            current.undoLog.push(undo);
+        }
+    }
+
+    /**
+     * Nothing to release; the data is dropped with this instance.
+     */
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,327 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import com.github.matthewdesouza.recipeapp.collection.IntSet;
+import com.github.matthewdesouza.recipeapp.model.User;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link UserStore} of an {@link InMemoryStorageBackend}.
+ */
+final class InMemoryUserStore implements UserStore {
+    private final InMemoryStorageBackend backend;
+    private static final IntSet EMPTY = new IntSet();
+
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final ConcurrentHashMap<Integer, User> users = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> idsByUsername = new ConcurrentHashMap<>();
+    // Only modified in exclusive transactions, so concurrent readers never see a set change.
+    private final ConcurrentHashMap<Integer, IntSet> likedRecipeIds = new ConcurrentHashMap<>();
+    // Day each like was made, by user id and recipe id.
+    private final ConcurrentHashMap<Integer, Map<Integer, LocalDate>> likeDays = new ConcurrentHashMap<>();
+
+    // Set after construction, the two stores refer to each other for foreign-key checks.
+    private InMemoryRecipeStore recipes;
+
+    InMemoryUserStore(InMemoryStorageBackend backend) {
+        this.backend = backend;
+    }
+
+    void setRecipes(InMemoryRecipeStore recipes) {
+        this.recipes = recipes;
+    }
+
+    @Override
+    public int insert(String username, String passwordHash) throws SQLException {
+        requireNonNull("username", username);
+        requireNonNull("password", passwordHash);
+        return backend.write(() -> {
+            int id = lastId.incrementAndGet();
+            reserveUsername(username, id);
+            users.put(id, user(id, username, passwordHash));
+            backend.onRollback(() -> {
+                users.remove(id);
+                idsByUsername.remove(username, id);
+            });
+            return id;
+        });
+    }
+
+    @Override
+    public User findByUsername(String username) throws SQLException {
+        return backend.read(() -> {
+            Integer id = idsByUsername.get(username);
+            return id != null ? copy(users.get(id)) : null;
+        });
+    }
+
+    @Override
+    public Integer findIdByUsername(String username) throws SQLException {
+        return backend.read(() -> idsByUsername.get(username));
+    }
+
+    @Override
+    public User findById(int id) throws SQLException {
+        return backend.read(() -> copy(users.get(id)));
+    }
+
+    @Override
+    public int updateUsername(int id, String username) throws SQLException {
+        requireNonNull("username", username);
+        return backend.write(() -> {
+            User current = users.get(id);
+            if (current == null) {
+                return 0;
+            }
+            if (current.getUsername().equals(username)) {
+                return 1;
+            }
+            reserveUsername(username, id);
+            User[] previous = new User[1];
+            users.computeIfPresent(id, (key, user) -> {
+                previous[0] = user;
+                return user(id, username, user.getPassword());
+            });
+            if (previous[0] == null) {
+                idsByUsername.remove(username, id); // Deleted meanwhile.
+                return 0;
+            }
+            idsByUsername.remove(previous[0].getUsername(), id);
+            backend.onRollback(() -> {
+                users.put(id, previous[0]);
+                idsByUsername.remove(username, id);
+                idsByUsername.put(previous[0].getUsername(), id);
+            });
+            return 1;
+        });
+    }
+
+    @Override
+    public int updatePassword(int id, String passwordHash) throws SQLException {
+        requireNonNull("password", passwordHash);
+        return backend.write(() -> replace(id, null, passwordHash));
+    }
+
+    @Override
+    public int replacePassword(int id, String expectedHash, String newHash) throws SQLException {
+        requireNonNull("password", newHash);
+        return backend.write(() -> replace(id, expectedHash, newHash));
+    }
+
+    /**
+     * Deletes exclusively, so no recipe or like can be added for the user between the check and the removal.
+     */
+    @Override
+    public int delete(int id) throws SQLException {
+        return backend.inTransaction(() -> {
+            User previous = users.get(id);
+            if (previous == null) {
+                return 0;
+            }
+            if (recipes.hasRecipesBy(id) || !likedRecipeIds.getOrDefault(id, EMPTY).isEmpty()) {
+                throw new SQLIntegrityConstraintViolationException(
+                        "Cannot delete user " + id + ", recipes or likes still refer to it.");
+            }
+            users.remove(id);
+            idsByUsername.remove(previous.getUsername(), id);
+            backend.onRollback(() -> {
+                users.put(id, previous);
+                idsByUsername.put(previous.getUsername(), id);
+            });
+            return 1;
+        });
+    }
+
+    @Override
+    public Map<Integer, String> findUsernames(Collection<Integer> ids) throws SQLException {
+        return backend.read(() -> {
+            Map<Integer, String> usernames = new HashMap<>();
+            for (Integer id : ids) {
+                User user = users.get(id);
+                if (user != null) {
+                    usernames.put(id, user.getUsername());
+                }
+            }
+            return usernames;
+        });
+    }
+
+    @Override
+    public IntSet findLikedRecipeIds(int userId) throws SQLException {
+        return backend.read(() -> IntSet.copyOf(likedRecipeIds.getOrDefault(userId, EMPTY)));
+    }
+
+    @Override
+    public IntSet findLikedRecipeIds(int userId, Collection<Integer> recipeIds) throws SQLException {
+        return backend.read(() -> {
+            IntSet liked = likedRecipeIds.getOrDefault(userId, EMPTY);
+            IntSet rv = new IntSet();
+            for (Integer recipeId : recipeIds) {
+                if (liked.contains(recipeId)) {
+                    rv.add(recipeId);
+                }
+            }
+            return rv;
+        });
+    }
+
+    @Override
+    public Map<Integer, LocalDate> findLikeDays(int userId, Collection<Integer> recipeIds) throws SQLException {
+        return backend.read(() -> {
+            Map<Integer, LocalDate> days = likeDays.getOrDefault(userId, Map.of());
+            Map<Integer, LocalDate> rv = new HashMap<>();
+            for (Integer recipeId : recipeIds) {
+                LocalDate day = days.get(recipeId);
+                if (day != null) {
+                    rv.put(recipeId, day);
+                }
+            }
+            return rv;
+        });
+    }
+
+    /**
+     * Writes exclusively, so neither the user nor a liked recipe can be deleted between the check and the insert.
+     */
+    @Override
+    public void writeLikes(Collection<LikeChange> changes) throws SQLException {
+        backend.inTransaction(() -> {
+            for (LikeChange change : changes) {
+                int userId = change.userId();
+                int recipeId = change.recipeId();
+                if (change.liked()) {
+                    if (!exists(userId) || !recipes.exists(recipeId)) {
+                        throw new SQLIntegrityConstraintViolationException(
+                                "Cannot like recipe " + recipeId + " as user " + userId + ", one of them does not exist.");
+                    }
+                    if (likedRecipeIds.computeIfAbsent(userId, id -> new IntSet()).add(recipeId)) {
+                        likeDays.computeIfAbsent(userId, id -> new ConcurrentHashMap<>()).put(recipeId, LocalDate.now());
+                        backend.onRollback(() -> {
+                            likedRecipeIds.get(userId).remove(recipeId);
+                            likeDays.get(userId).remove(recipeId);
+                        });
+                    }
+                } else if (likedRecipeIds.getOrDefault(userId, EMPTY).remove(recipeId)) {
+                    LocalDate day = likeDays.get(userId).remove(recipeId);
+                    backend.onRollback(() -> {
+                        likedRecipeIds.get(userId).add(recipeId);
+                        likeDays.get(userId).put(recipeId, day);
+                    });
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Map<Integer, Integer> countLikes() throws SQLException {
+        return backend.read(() -> {
+            Map<Integer, Integer> likes = new HashMap<>();
+            likedRecipeIds.values().forEach(liked -> liked.forEachInt(recipeId -> likes.merge(recipeId, 1, Integer::sum)));
+            return likes;
+        });
+    }
+
+    @Override
+    public Map<LocalDate, Map<Integer, Integer>> countLikesPerDay(LocalDate since) throws SQLException {
+        return backend.read(() -> {
+            Map<LocalDate, Map<Integer, Integer>> likes = new TreeMap<>();
+            likeDays.values().forEach(days -> days.forEach((recipeId, day) -> {
+                if (!day.isBefore(since)) {
+                    likes.computeIfAbsent(day, key -> new HashMap<>()).merge(recipeId, 1, Integer::sum);
+                }
+            }));
+            return likes;
+        });
+    }
+
+    @Override
+    public Map<Integer, IntSet> findAllLikedRecipeIds() throws SQLException {
+        return backend.read(() -> {
+            Map<Integer, IntSet> likes = new HashMap<>();
+            likedRecipeIds.forEach((userId, liked) -> {
+                if (!liked.isEmpty()) {
+                    likes.put(userId, IntSet.copyOf(liked));
+                }
+            });
+            return likes;
+        });
+    }
+
+    boolean exists(int id) {
+        return users.containsKey(id);
+    }
+
+    /**
+     * @return The author's username, or null if the user does not exist.
+     */
+    String usernameOf(int id) {
+        User user = users.get(id);
+        return user != null ? user.getUsername() : null;
+    }
+
+    /**
+     * Removes every like of a recipe, as part of a transaction deleting it.
+     */
+    void removeLikesOf(int recipeId) {
+        likedRecipeIds.forEach((userId, liked) -> {
+            if (liked.remove(recipeId)) {
+                LocalDate day = likeDays.get(userId).remove(recipeId);
+                backend.onRollback(() -> {
+                    liked.add(recipeId);
+                    likeDays.get(userId).put(recipeId, day);
+                });
+            }
+        });
+    }
+
+    private void reserveUsername(String username, int id) throws SQLIntegrityConstraintViolationException {
+        Integer owner = idsByUsername.putIfAbsent(username, id);
+        if (owner != null && owner != id) {
+            throw new SQLIntegrityConstraintViolationException("Duplicate entry '" + username + "' for key 'username'");
+        }
+    }
+
+    /**
+     * Replaces a user's password hash, only if it is {@code expectedHash} unless that is null.
+     */
+    private int replace(int id, String expectedHash, String newHash) {
+        User[] previous = new User[1];
+        users.computeIfPresent(id, (key, user) -> {
+            if (expectedHash != null && !expectedHash.equals(user.getPassword())) {
+                return user;
+            }
+            previous[0] = user;
+            return user(id, user.getUsername(), newHash);
+        });
+        if (previous[0] == null) {
+            return 0;
+        }
+        backend.onRollback(() -> users.put(id, previous[0]));
+        return 1;
+    }
+
+    private static User user(int id, String username, String passwordHash) {
+        User user = new User(username, passwordHash);
+        user.setId(id);
+        return user;
+    }
+
+    private static User copy(User user) {
+        return user != null ? new User(user) : null;
+    }
+
+    private static void requireNonNull(String column, Object value) throws SQLIntegrityConstraintViolationException {
+        if (value == null) {
+            throw new SQLIntegrityConstraintViolationException("Column '" + column + "' cannot be null");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+/**
+ * SQL engines a {@link JdbcStorageBackend} can run on. The DAOs' SQL is written for MariaDB; H2 runs it in its
+ * MariaDB compatibility mode.
+ */
+enum JdbcEngine {
+    /**
+     * A MariaDB server; the connection URL names the server, and the {@code recipe} database is created on it.
+     */
+    MARIADB(true),
+    /**
+     * An embedded H2 database; the connection URL names the database file itself.
+     */
+    H2(false);
+
+    private final boolean serverCatalog;
+
+    JdbcEngine(boolean serverCatalog) {
+        this.serverCatalog = serverCatalog;
+    }
+
+    /**
+     * @return Whether the schema lives in a catalog on a server that has to be created and selected first.
+     */
+    boolean hasServerCatalog() {
+        return serverCatalog;
+    }
+}
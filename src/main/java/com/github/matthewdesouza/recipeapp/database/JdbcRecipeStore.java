@@ -0,0 +1,201 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+import com.github.matthewdesouza.recipeapp.model.RecipeSummary;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link RecipeStore} over the {@code recipes} table.
+ */
+final class JdbcRecipeStore implements RecipeStore {
+    /**
+     * Columns needed by list views; recipe content and image are deliberately left out.
+     */
+    private static final String SUMMARY_SELECT = """
+            SELECT r.id, r.title, u.id AS authorId, u.username AS authorUsername
+            FROM recipes r
+            LEFT JOIN users u ON u.id = r.userId
+            """;
+
+    private static final String INSERT = """
+            INSERT INTO recipes (title, content, uri, userId) VALUES (?, ?, ?, ?)
+            """;
+
+    private final DatabaseConnector db;
+
+    JdbcRecipeStore(DatabaseConnector db) {
+        this.db = db;
+    }
+
+    @Override
+    public int insert(Recipe recipe, int userId) throws SQLException {
+        try (ResultSet generatedKeys = db.executeUpdateWithKeys(INSERT,
+                recipe.getTitle(),
+                recipe.getContent(),
+                recipe.getImageUri(),
+                userId)) {
+            if (!generatedKeys.next()) {
+                throw new SQLException("No id generated for recipe " + recipe.getTitle());
+            }
+            return generatedKeys.getInt(1);
+        }
+    }
+
+    @Override
+    public int[] insertAll(List<Recipe> recipes) throws SQLException {
+        List<Object[]> rows = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            rows.add(new Object[]{recipe.getTitle(), recipe.getContent(), recipe.getImageUri(), recipe.getUserId()});
+        }
+        return db.executeBatchWithKeys(INSERT, rows);
+    }
+
+    @Override
+    public Recipe findById(int id) throws SQLException {
+        String sql = """
+            SELECT * FROM recipes WHERE id = ?
+            """;
+        try (ResultSet rs = db.executeQuery(sql, id)) {
+            return rs.next() ? mapRecipe(rs) : null;
+        }
+    }
+
+    @Override
+    public int update(Recipe recipe) throws SQLException {
+        String sql = """
+                UPDATE recipes
+                SET title = ?, content = ?, uri = ?, userId = ?
+                WHERE id = ?
+                """;
+        return db.executeUpdate(sql,
+                recipe.getTitle(),
+                recipe.getContent(),
+                recipe.getImageUri(),
+                recipe.getUserId(),
+                recipe.getId());
+    }
+
+    @Override
+    public int delete(int id) throws SQLException {
+        String sql = """
+                DELETE FROM recipes WHERE id = ?
+                """;
+        return db.inTransaction(() -> {
+            db.executeUpdate("DELETE FROM user_likes WHERE recipeId = ?", id);
+            return db.executeUpdate(sql, id);
+        });
+    }
+
+    @Override
+    public List<RecipeSummary> findSummaryPage(int afterId, int limit) throws SQLException {
+        return querySummaries(SUMMARY_SELECT + "WHERE r.id > ? ORDER BY r.id LIMIT ?", afterId, limit);
+    }
+
+    @Override
+    public List<RecipeSummary> findAllSummaries() throws SQLException {
+        return querySummaries(SUMMARY_SELECT + "ORDER BY r.id");
+    }
+
+    @Override
+    public List<RecipeSummary> findSummariesByTitle(String lowerCaseText) throws SQLException {
+        return querySummaries(SUMMARY_SELECT + "WHERE LOWER( r.title ) LIKE ? ORDER BY r.id", "%" + lowerCaseText + "%");
+    }
+
+    @Override
+    public Set<Recipe> findByTitle(String text) throws SQLException {
+        Set<Recipe> recipes = new HashSet<>();
+        String sql = "SELECT * FROM recipes WHERE LOWER( title ) LIKE ?";
+        try (ResultSet rs = db.executeQuery(sql, "%" + text + "%")) {
+            while (rs.next()) {
+                recipes.add(mapRecipe(rs));
+            }
+        }
+        return recipes;
+    }
+
+    @Override
+    public Set<Recipe> findAll() throws SQLException {
+        Set<Recipe> recipes = new HashSet<>();
+        String sql = """
+                SELECT r.id, r.title, r.content, r.uri, u.id AS authorId, u.username AS authorUsername
+                FROM recipes r
+                LEFT JOIN users u ON u.id = r.userId
+                """;
+        try (ResultSet rs = db.executeQuery(sql)) {
+            while (rs.next()) {
+                recipes.add(mapRecipeWithAuthor(rs));
+            }
+        }
+        return recipes;
+    }
+
+    @Override
+    public List<Recipe> findPage(int afterId, int limit) throws SQLException {
+        List<Recipe> page = new ArrayList<>(limit);
+        String sql = """
+                SELECT r.id, r.title, r.content, r.uri, u.id AS authorId, u.username AS authorUsername
+                FROM recipes r
+                LEFT JOIN users u ON u.id = r.userId
+                WHERE r.id > ?
+                ORDER BY r.id
+                LIMIT ?
+                """;
+        try (ResultSet rs = db.executeQuery(sql, afterId, limit)) {
+            while (rs.next()) {
+                page.add(mapRecipeWithAuthor(rs));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void stream(int afterId, int fetchSize, RecipeDAO.RecipeConsumer consumer) throws SQLException, IOException {
+        String sql = """
+                SELECT id, title, content, uri, userId FROM recipes WHERE id > ? ORDER BY id
+                """;
+        try (ResultSet rs = db.executeStreamingQuery(sql, fetchSize, afterId)) {
+            while (rs.next()) {
+                consumer.accept(mapRecipe(rs));
+            }
+        }
+    }
+
+    private List<RecipeSummary> querySummaries(String sql, Object... parameters) throws SQLException {
+        List<RecipeSummary> summaries = new ArrayList<>();
+        try (ResultSet rs = db.executeQuery(sql, parameters)) {
+            while (rs.next()) {
+                // authorId is NULL when the author no longer exists, which reads as 0, the <unknown> user.
+                summaries.add(new RecipeSummary(rs.getInt("id"), rs.getString("title"), rs.getInt("authorId"), rs.getString("authorUsername")));
+            }
+        }
+        return summaries;
+    }
+
+    private static Recipe mapRecipe(ResultSet rs) throws SQLException {
+        Recipe recipe = new Recipe();
+        recipe.setId(rs.getInt("id"));
+        recipe.setTitle(rs.getString("title"));
+        recipe.setContent(rs.getString("content"));
+        recipe.setImageUri(rs.getString("uri"));
+        recipe.setUserId(rs.getInt("userId"));
+        return recipe;
+    }
+
+    private static Recipe mapRecipeWithAuthor(ResultSet rs) throws SQLException {
+        Recipe recipe = new Recipe();
+        recipe.setId(rs.getInt("id"));
+        recipe.setTitle(rs.getString("title"));
+        recipe.setContent(rs.getString("content"));
+        recipe.setImageUri(rs.getString("uri"));
+        recipe.setUserId(rs.getInt("authorId")); // NULL (no matching user) reads as 0, the <unknown> user
+        recipe.setAuthorUsername(rs.getString("authorUsername"));
+        return recipe;
+    }
+}
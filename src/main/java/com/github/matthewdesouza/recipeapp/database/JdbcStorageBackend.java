@@ -0,0 +1,95 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import com.github.matthewdesouza.recipeapp.AppDirectories;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * Storage in a SQL database reached through JDBC, either a MariaDB server or an embedded H2 database.
+ */
+public final class JdbcStorageBackend implements StorageBackend {
+    private final DatabaseConnector connector;
+    private final RecipeStore recipes;
+    private final UserStore users;
+
+    private JdbcStorageBackend(DatabaseConnector connector) {
+        this.connector = connector;
+        this.recipes = new JdbcRecipeStore(connector);
+        this.users = new JdbcUserStore(connector);
+    }
+
+    /**
+     * Connects to a MariaDB server configured by {@code recipeapp.db.url} (default
+     * {@code jdbc:mariadb://localhost:3306/}), {@code recipeapp.db.user} and {@code recipeapp.db.password}.
+     */
+    public static JdbcStorageBackend mariaDb() {
+        return new JdbcStorageBackend(new DatabaseConnector(JdbcEngine.MARIADB,
+                System.getProperty("recipeapp.db.url", "jdbc:mariadb://localhost:3306/"),
+                System.getProperty("recipeapp.db.user", "root"),
+                System.getProperty("recipeapp.db.password", "mariadb")));
+    }
+
+    /**
+     * Opens the embedded H2 database at {@code recipeapp.db.h2.path}, by default {@code db/recipe} in the
+     * application's config directory, creating it if needed.
+     */
+    public static JdbcStorageBackend h2() {
+        String path = System.getProperty("recipeapp.db.h2.path",
+                AppDirectories.configHome().resolve("db").resolve("recipe").toString());
+        return h2(Path.of(path));
+    }
+
+    /**
+     * Opens an embedded H2 database at the given path, without the {@code .mv.db} suffix, creating it if needed.
+     */
+    public static JdbcStorageBackend h2(Path path) {
+        return new JdbcStorageBackend(new DatabaseConnector(JdbcEngine.H2,
+                "jdbc:h2:file:" + path.toAbsolutePath() + ";MODE=MariaDB;DATABASE_TO_LOWER=TRUE",
+                "sa", ""));
+    }
+
+    DatabaseConnector connector() {
+        return connector;
+    }
+
+    @Override
+    public RecipeStore recipes() {
+        return recipes;
+    }
+
+    @Override
+    public UserStore users() {
+        return users;
+    }
+
+    @Override
+    public <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        return connector.inTransaction(work);
+    }
+
+    @Override
+    public <T> T inReadOnlyTransaction(TransactionWork<T> work) throws SQLException {
+        return connector.inReadOnlyTransaction(work);
+    }
+
+    @Override
+    public void afterCommit(Runnable action) {
+        connector.afterCommit(action);
+    }
+
+    @Override
+    public void afterRollback(Runnable action) {
+        connector.afterRollback(action);
+    }
+
+    @Override
+    public boolean isInWriteTransaction() {
+        return connector.isInWriteTransaction();
+    }
+
+    @Override
+    public void close() {
+        connector.close();
+    }
+}
@@ -0,0 +1,275 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import com.github.matthewdesouza.recipeapp.collection.IntSet;
+import com.github.matthewdesouza.recipeapp.model.User;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link UserStore} over the {@code users} and {@code user_likes} tables.
+ */
+final class JdbcUserStore implements UserStore {
+    private static final int MAX_IN_LIST_SIZE = 1024;
+    private static final int LIKES_FETCH_SIZE = 10_000;
+
+    private final DatabaseConnector db;
+
+    JdbcUserStore(DatabaseConnector db) {
+        this.db = db;
+    }
+
+    @Override
+    public int insert(String username, String passwordHash) throws SQLException {
+        String sql = "INSERT INTO users (username, password) VALUES (?, ?)";
+        try (ResultSet generatedKeys = db.executeUpdateWithKeys(sql, username, passwordHash)) {
+            if (!generatedKeys.next()) {
+                throw new SQLException("No id generated for user " + username);
+            }
+            return generatedKeys.getInt(1);
+        }
+    }
+
+    @Override
+    public User findByUsername(String username) throws SQLException {
+        String sql = """
+                SELECT * FROM users WHERE username = ?
+                """;
+        try (ResultSet rs = db.executeQuery(sql, username)) {
+            return rs.next() ? mapUser(rs) : null;
+        }
+    }
+
+    @Override
+    public Integer findIdByUsername(String username) throws SQLException {
+        String sql = """
+            SELECT id FROM users WHERE username = ?
+            """;
+        try (ResultSet rs = db.executeQuery(sql, username)) {
+            return rs.next() ? rs.getInt("id") : null;
+        }
+    }
+
+    @Override
+    public User findById(int id) throws SQLException {
+        String sql = """
+            SELECT * FROM users WHERE id = ?
+            """;
+        try (ResultSet rs = db.executeQuery(sql, id)) {
+            return rs.next() ? mapUser(rs) : null;
+        }
+    }
+
+    @Override
+    public int updateUsername(int id, String username) throws SQLException {
+        return db.executeUpdate("UPDATE users SET username = ? WHERE id = ?", username, id);
+    }
+
+    @Override
+    public int updatePassword(int id, String passwordHash) throws SQLException {
+        return db.executeUpdate("UPDATE users SET password = ? WHERE id = ?", passwordHash, id);
+    }
+
+    @Override
+    public int replacePassword(int id, String expectedHash, String newHash) throws SQLException {
+        return db.executeUpdate("UPDATE users SET password = ? WHERE id = ? AND password = ?", newHash, id, expectedHash);
+    }
+
+    @Override
+    public int delete(int id) throws SQLException {
+        String sql = """
+                DELETE FROM users WHERE id = ?
+                """;
+        return db.executeUpdate(sql, id);
+    }
+
+    /**
+     * Looks up usernames with one {@code IN (...)} query per 1024 ids.
+     * <p>
+     * The placeholder list is padded to the next power of two so that only a handful of distinct statements ever
+     * reach the prepared statement cache.
+     */
+    @Override
+    public Map<Integer, String> findUsernames(Collection<Integer> ids) throws SQLException {
+        Map<Integer, String> usernames = new HashMap<>();
+        Integer[] distinctIds = new HashSet<>(ids).toArray(new Integer[0]);
+
+        for (int from = 0; from < distinctIds.length; from += MAX_IN_LIST_SIZE) {
+            Object[] parameters = inListParameters(distinctIds, from);
+            String sql = "SELECT id, username FROM users WHERE id IN (" + placeholders(parameters.length) + ")";
+            try (ResultSet rs = db.executeQuery(sql, parameters)) {
+                while (rs.next()) {
+                    usernames.put(rs.getInt("id"), rs.getString("username"));
+                }
+            }
+        }
+        return usernames;
+    }
+
+    @Override
+    public IntSet findLikedRecipeIds(int userId) throws SQLException {
+        IntSet rv = new IntSet();
+        String sql = """
+                SELECT recipeId FROM user_likes WHERE userId = ?
+                """;
+        try (ResultSet rs = db.executeQuery(sql, userId)) {
+            while (rs.next()) {
+                rv.add(rs.getInt("recipeId"));
+            }
+        }
+        return rv;
+    }
+
+    /**
+     * Looks up liked state with one {@code IN (...)} query per 1024 recipe ids, like {@link #findUsernames(Collection)}.
+     */
+    @Override
+    public IntSet findLikedRecipeIds(int userId, Collection<Integer> recipeIds) throws SQLException {
+        IntSet rv = new IntSet();
+        Integer[] distinctIds = new HashSet<>(recipeIds).toArray(new Integer[0]);
+
+        for (int from = 0; from < distinctIds.length; from += MAX_IN_LIST_SIZE) {
+            Object[] ids = inListParameters(distinctIds, from);
+            Object[] parameters = new Object[ids.length + 1];
+            parameters[0] = userId;
+            System.arraycopy(ids, 0, parameters, 1, ids.length);
+
+            String sql = "SELECT recipeId FROM user_likes WHERE userId = ? AND recipeId IN (" + placeholders(ids.length) + ")";
+            try (ResultSet rs = db.executeQuery(sql, parameters)) {
+                while (rs.next()) {
+                    rv.add(rs.getInt("recipeId"));
+                }
+            }
+        }
+        return rv;
+    }
+
+    /**
+     * Looks up like days in batches like {@link #findLikedRecipeIds(int, Collection)}.
+     */
+    @Override
+    public Map<Integer, LocalDate> findLikeDays(int userId, Collection<Integer> recipeIds) throws SQLException {
+        Map<Integer, LocalDate> days = new HashMap<>();
+        Integer[] distinctIds = new HashSet<>(recipeIds).toArray(new Integer[0]);
+
+        for (int from = 0; from < distinctIds.length; from += MAX_IN_LIST_SIZE) {
+            Object[] ids = inListParameters(distinctIds, from);
+            Object[] parameters = new Object[ids.length + 1];
+            parameters[0] = userId;
+            System.arraycopy(ids, 0, parameters, 1, ids.length);
+
+            String sql = "SELECT recipeId, CAST(likedAt AS DATE) AS day FROM user_likes WHERE userId = ? AND recipeId IN ("
+                    + placeholders(ids.length) + ")";
+            try (ResultSet rs = db.executeQuery(sql, parameters)) {
+                while (rs.next()) {
+                    days.put(rs.getInt("recipeId"), rs.getDate("day").toLocalDate());
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Writes all likes as one batch and all unlikes as another. {@code ON DUPLICATE KEY UPDATE} skips likes that
+     * already exist; unlike {@code INSERT IGNORE}, it still fails on a user or recipe that does not exist.
+     */
+    @Override
+    public void writeLikes(Collection<LikeChange> changes) throws SQLException {
+        List<Object[]> likes = new ArrayList<>();
+        List<Object[]> unlikes = new ArrayList<>();
+        for (LikeChange change : changes) {
+            (change.liked() ? likes : unlikes).add(new Object[]{change.userId(), change.recipeId()});
+        }
+        String insert = """
+                INSERT INTO user_likes (userId, recipeId) VALUES (?, ?)
+                ON DUPLICATE KEY UPDATE userId = userId
+                """;
+        db.inTransaction(() -> {
+            db.executeBatch(insert, likes);
+            db.executeBatch("DELETE FROM user_likes WHERE userId = ? AND recipeId = ?", unlikes);
+            return null;
+        });
+    }
+
+    @Override
+    public Map<Integer, Integer> countLikes() throws SQLException {
+        Map<Integer, Integer> likes = new HashMap<>();
+        String sql = """
+                SELECT recipeId, COUNT(*) AS likes FROM user_likes GROUP BY recipeId
+                """;
+        try (ResultSet rs = db.executeQuery(sql)) {
+            while (rs.next()) {
+                likes.put(rs.getInt("recipeId"), rs.getInt("likes"));
+            }
+        }
+        return likes;
+    }
+
+    @Override
+    public Map<LocalDate, Map<Integer, Integer>> countLikesPerDay(LocalDate since) throws SQLException {
+        Map<LocalDate, Map<Integer, Integer>> likes = new TreeMap<>();
+        String sql = """
+                SELECT recipeId, CAST(likedAt AS DATE) AS day, COUNT(*) AS likes
+                FROM user_likes
+                WHERE likedAt >= ?
+                GROUP BY recipeId, CAST(likedAt AS DATE)
+                """;
+        try (ResultSet rs = db.executeQuery(sql, since.toString())) {
+            while (rs.next()) {
+                likes.computeIfAbsent(rs.getDate("day").toLocalDate(), day -> new HashMap<>())
+                        .put(rs.getInt("recipeId"), rs.getInt("likes"));
+            }
+        }
+        return likes;
+    }
+
+    /**
+     * Streams {@code user_likes} instead of buffering it, as it can hold millions of rows.
+     */
+    @Override
+    public Map<Integer, IntSet> findAllLikedRecipeIds() throws SQLException {
+        Map<Integer, IntSet> likes = new HashMap<>();
+        String sql = """
+                SELECT userId, recipeId FROM user_likes
+                """;
+        try (ResultSet rs = db.executeStreamingQuery(sql, LIKES_FETCH_SIZE)) {
+            while (rs.next()) {
+                likes.computeIfAbsent(rs.getInt("userId"), userId -> new IntSet()).add(rs.getInt("recipeId"));
+            }
+        }
+        return likes;
+    }
+
+    /**
+     * Takes up to 1024 ids starting at {@code from}, padded to the next power of two by repeating the last id.
+     */
+    private static Object[] inListParameters(Integer[] ids, int from) {
+        int count = Math.min(MAX_IN_LIST_SIZE, ids.length - from);
+        int paddedCount = Integer.highestOneBit(count) == count ? count : Integer.highestOneBit(count) << 1;
+        Object[] parameters = new Object[paddedCount];
+        for (int i = 0; i < paddedCount; i++) {
+            parameters[i] = ids[from + Math.min(i, count - 1)];
+        }
+        return parameters;
+    }
+
+    private static String placeholders(int count) {
+        return "?, ".repeat(count - 1) + "?";
+    }
+
+    private static User mapUser(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setId(rs.getInt("id"));
+        user.setUsername(rs.getString("username"));
+        user.setPassword(rs.getString("password"));
+        return user;
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+/**
+ * The latest like or unlike of a recipe by a user, waiting to be written to {@code user_likes}.
+ *
+ * @param userId   Id of the user.
+ * @param recipeId Id of the recipe.
+ * @param liked    Whether the recipe should end up liked.
+ * @see UserStore#writeLikes(java.util.Collection)
+ */
+public record LikeChange(int userId, int recipeId, boolean liked) {
+}
@@ -0,0 +1,249 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import com.github.matthewdesouza.recipeapp.collection.IntSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer between {@link UserDAO}'s like calls and {@code user_likes}.
+ * <p>
+ * Only the latest state of each (user, recipe) pair is kept, so any number of like/unlike toggles between two flushes
+ * collapse into a single write. A background timer writes everything pending in one transaction through
+ * {@link UserStore#writeLikes(Collection)}. Changes stay pending until their write committed, so reads overlaid with
+ * {@link #overlay(int, IntSet, Collection)} never miss a like that is on its way to the database.
+ * <p>
+ * If a batch fails, its changes are retried one by one: those violating a constraint (e.g. the recipe was deleted
+ * meanwhile) are dropped and reported to {@code onDropped}, and the rest are retried at the next flush if the database
+ * could not be reached.
+ * <p>
+ * Every change to the likes as readers see them, i.e. every {@link #set(int, int, boolean)} and every drop, gets the
+ * next sequence number. {@link #snapshot(SnapshotRead)} reads the store with the changes pending at that point and
+ * no flush in between, and tells up to which number the read reflects, so an index built from it can skip exactly the
+ * changes it already contains.
+ */
+final class LikeWriteBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(LikeWriteBuffer.class);
+
+    /**
+     * Told about a change dropped because it violated a constraint.
+     */
+    @FunctionalInterface
+    interface DropListener {
+        /**
+         * @param change   The change that was not written.
+         * @param sequence Sequence number of the drop.
+         */
+        void dropped(LikeChange change, long sequence);
+    }
+
+    /**
+     * Reads the stored likes for {@link #snapshot(SnapshotRead)}.
+     */
+    @FunctionalInterface
+    interface SnapshotRead<T> {
+        /**
+         * @param pending The changes pending while the read runs, none of which is written meanwhile.
+         */
+        T read(List<LikeChange> pending) throws SQLException;
+    }
+
+    /**
+     * @param value    What the read returned.
+     * @param sequence Sequence number of the last change the read and the pending changes it was given reflect.
+     */
+    record Snapshot<T>(T value, long sequence) {
+    }
+
+    private record Dropped(LikeChange change, long sequence) {
+    }
+
+    private final long flushIntervalMs;
+    private final DropListener onDropped;
+    private final Map<Long, Boolean> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private final Object sequenceLock = new Object();
+    // Guarded by `sequenceLock`.
+    private long sequence;
+    // Started on the first like, guarded by `this`.
+    private ScheduledExecutorService timer;
+
+    /**
+     * @param flushIntervalMs Time between background flushes.
+     * @param onDropped       Told about each change dropped because it violated a constraint.
+     */
+    LikeWriteBuffer(long flushIntervalMs, DropListener onDropped) {
+        this.flushIntervalMs = flushIntervalMs;
+        this.onDropped = onDropped;
+    }
+
+    /**
+     * Records the latest state of a like, replacing any earlier pending change to the same pair.
+     *
+     * @return Sequence number of the change.
+     */
+    long set(int userId, int recipeId, boolean liked) {
+        long number;
+        synchronized (sequenceLock) {
+            pending.put(key(userId, recipeId), liked);
+            number = ++sequence;
+        }
+        startTimer();
+        return number;
+    }
+
+    /**
+     * @return Whether the latest pending change to the pair, if any, sets it to {@code liked}.
+     */
+    boolean isPending(int userId, int recipeId, boolean liked) {
+        return Boolean.valueOf(liked).equals(pending.get(key(userId, recipeId)));
+    }
+
+    /**
+     * Applies a user's pending changes on top of likes read from the store.
+     *
+     * @param userId    User whose likes were read.
+     * @param stored    Recipe ids the store returned; modified in place.
+     * @param recipeIds Recipe ids the read was limited to, or null if it was not.
+     * @return {@code stored}.
+     */
+    IntSet overlay(int userId, IntSet stored, Collection<Integer> recipeIds) {
+        pending.forEach((key, liked) -> {
+            if (userId(key) != userId || (recipeIds != null && !recipeIds.contains(recipeId(key)))) {
+                return;
+            }
+            if (liked) {
+                stored.add(recipeId(key));
+            } else {
+                stored.remove(recipeId(key));
+            }
+        });
+        return stored;
+    }
+
+    /**
+     * Runs a read of the stored likes while no flush can run, and hands it the changes pending at its start.
+     *
+     * @return What the read returned, with the sequence number it reflects.
+     */
+    <T> Snapshot<T> snapshot(SnapshotRead<T> read) throws SQLException {
+        synchronized (flushLock) {
+            List<LikeChange> changes = new ArrayList<>(pending.size());
+            long last;
+            synchronized (sequenceLock) {
+                pending.forEach((key, liked) -> changes.add(new LikeChange(userId(key), recipeId(key), liked)));
+                last = sequence;
+            }
+            return new Snapshot<>(read.read(changes), last);
+        }
+    }
+
+    /**
+     * Writes all pending changes now, on the calling thread. Dropped changes are reported once the flush is done, so
+     * that listeners may take a {@link #snapshot(SnapshotRead)}.
+     */
+    void flush() {
+        List<Dropped> dropped = new ArrayList<>();
+        synchronized (flushLock) {
+            write(dropped);
+        }
+        dropped.forEach(drop -> onDropped.dropped(drop.change(), drop.sequence()));
+    }
+
+    private void write(List<Dropped> dropped) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, Boolean> batch = new HashMap<>(pending);
+        List<LikeChange> changes = new ArrayList<>(batch.size());
+        batch.forEach((key, liked) -> changes.add(new LikeChange(userId(key), recipeId(key), liked)));
+        try {
+            Storage.get().users().writeLikes(changes);
+            // Leaves changes made during the write pending.
+            batch.forEach(pending::remove);
+            logger.debug("Wrote {} like changes.", changes.size());
+        } catch (SQLException e) {
+            logger.debug("Writing {} like changes as a batch failed, writing them one by one.", changes.size(), e);
+            writeOneByOne(changes, dropped);
+        }
+    }
+
+    private void writeOneByOne(List<LikeChange> changes, List<Dropped> dropped) {
+        for (LikeChange change : changes) {
+            try {
+                Storage.get().users().writeLikes(List.of(change));
+                pending.remove(key(change.userId(), change.recipeId()), change.liked());
+            } catch (SQLException e) {
+                if (!isConstraintViolation(e)) {
+                    logger.error("Unable to write like changes, {} still pending.", pending.size(), e);
+                    return;
+                }
+                logger.warn("Dropping like change {}: {}", change, e.getMessage());
+                synchronized (sequenceLock) {
+                    // Not a drop if the pair changed again meanwhile; that change supersedes this one.
+                    if (pending.remove(key(change.userId(), change.recipeId()), change.liked())) {
+                        dropped.add(new Dropped(change, ++sequence));
+                    }
+                }
+            }
+        }
+    }
+
+    private synchronized void startTimer() {
+        if (timer != null) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recipe-like-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // Keeps the timer alive; the changes are retried at the next flush.
+                logger.error("Unexpected error writing like changes.", e);
+            }
+        }, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drivers report a constraint violation in a batch as a {@link java.sql.BatchUpdateException}, so the SQLState
+     * class 23 is checked as well as the exception type.
+     */
+    private static boolean isConstraintViolation(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+            if (t instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("23")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long key(int userId, int recipeId) {
+        return (long) userId << 32 | (recipeId & 0xFFFFFFFFL);
+    }
+
+    private static int userId(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int recipeId(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+/**
+ * Sizing and timeout settings for the {@link ConnectionPool}.
+ * <p>
+ * Every value can be overridden with a {@code recipeapp.db.pool.*} system property, e.g.
+ * {@code -Drecipeapp.db.pool.maxSize=20}.
+ *
+ * @param minSize                  Connections kept open even when idle.
+ * @param maxSize                  Upper bound on open connections, borrowed or idle.
+ * @param connectionTimeoutMs      How long a caller waits for a free connection before failing.
+ * @param idleTimeoutMs            Idle connections above {@code minSize} are closed after this long.
+ * @param validationIntervalMs     Connections idle for longer than this are validated before being handed out.
+ * @param validationTimeoutMs      Timeout for a single validation round-trip.
+ * @param leakDetectionThresholdMs Borrowed connections held longer than this are logged as leaks, 0 disables.
+ *                                 Enabling it captures the borrower's stack trace on every borrow.
+ * @param housekeepingIntervalMs   Period of the background eviction and leak detection task.
+ * @param statementCacheSize       Prepared statements cached per connection, 0 disables the cache.
+ */
+record PoolConfig(int minSize,
+                  int maxSize,
+                  long connectionTimeoutMs,
+                  long idleTimeoutMs,
+                  long validationIntervalMs,
+                  long validationTimeoutMs,
+                  long leakDetectionThresholdMs,
+                  long housekeepingIntervalMs,
+                  int statementCacheSize) {
+    private static final String PREFIX = "recipeapp.db.pool.";
+
+    PoolConfig {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+    }
+
+    /**
+     * Builds a configuration from system properties, falling back to defaults suited to a desktop client.
+     *
+     * @return Pool configuration.
+     */
+    static PoolConfig fromSystemProperties() {
+        int maxSize = Integer.getInteger(PREFIX + "maxSize", Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        return new PoolConfig(
+                Math.min(Integer.getInteger(PREFIX + "minSize", 2), maxSize),
+                maxSize,
+                Long.getLong(PREFIX + "connectionTimeoutMs", 30_000L),
+                Long.getLong(PREFIX + "idleTimeoutMs", 600_000L),
+                Long.getLong(PREFIX + "validationIntervalMs", 500L),
+                Long.getLong(PREFIX + "validationTimeoutMs", 5_000L),
+                Long.getLong(PREFIX + "leakDetectionThresholdMs", 0L),
+                Long.getLong(PREFIX + "housekeepingIntervalMs", 30_000L),
+                Integer.getInteger(PREFIX + "statementCacheSize", 64));
+    }
+}
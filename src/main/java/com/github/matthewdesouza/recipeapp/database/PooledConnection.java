@@ -0,0 +1,159 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A physical {@link Connection} owned by a {@link ConnectionPool}.
+ * <p>
+ * Closing a pooled connection hands it back to the pool instead of closing the underlying socket.
+ */
+final class PooledConnection implements AutoCloseable {
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final StatementCache statementCache;
+    private final AtomicBoolean leakReported = new AtomicBoolean();
+
+    private volatile long lastReturnedNanos = System.nanoTime();
+    private volatile long borrowedNanos;
+    private volatile String borrowThread;
+    private volatile Throwable borrowSite;
+    // Only touched by the thread running the transaction the connection is pinned to.
+    private boolean pinned;
+    private boolean readOnly;
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private final List<Runnable> afterRollback = new ArrayList<>();
+
+    PooledConnection(ConnectionPool pool, Connection connection, StatementCache statementCache) {
+        this.pool = pool;
+        this.connection = connection;
+        this.statementCache = statementCache;
+    }
+
+    Connection connection() {
+        return connection;
+    }
+
+    /**
+     * Prepares a statement through this connection's statement cache.
+     *
+     * @param sql                 SQL text to prepare.
+     * @param returnGeneratedKeys Whether the statement must return generated keys.
+     * @return Statement to hand back with {@link #releaseStatement(PreparedStatement)} or
+     * {@link #discardStatement(PreparedStatement)}.
+     * @throws SQLException If the statement could not be prepared.
+     */
+    PreparedStatement prepareStatement(String sql, boolean returnGeneratedKeys) throws SQLException {
+        return statementCache.acquire(sql, returnGeneratedKeys);
+    }
+
+    void releaseStatement(PreparedStatement statement) {
+        statementCache.release(statement);
+    }
+
+    void discardStatement(PreparedStatement statement) {
+        statementCache.discard(statement);
+    }
+
+    void markBorrowed(boolean captureBorrowSite) {
+        borrowedNanos = System.nanoTime();
+        borrowThread = Thread.currentThread().getName();
+        borrowSite = captureBorrowSite ? new Exception("Connection borrowed here") : null;
+        leakReported.set(false);
+    }
+
+    void markIdle() {
+        lastReturnedNanos = System.nanoTime();
+        borrowSite = null;
+    }
+
+    long idleMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastReturnedNanos);
+    }
+
+    long borrowedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - borrowedNanos);
+    }
+
+    String borrowThread() {
+        return borrowThread;
+    }
+
+    Throwable borrowSite() {
+        return borrowSite;
+    }
+
+    /**
+     * Flags this connection as reported by leak detection so each leak is only logged once.
+     *
+     * @return {@code true} if the leak had not been reported yet.
+     */
+    boolean markLeakReported() {
+        return leakReported.compareAndSet(false, true);
+    }
+
+    /**
+     * Keeps {@link #close()} from returning this connection to the pool while a transaction runs on it.
+     *
+     * @param readOnly Whether the transaction is read-only.
+     */
+    void pin(boolean readOnly) {
+        pinned = true;
+        this.readOnly = readOnly;
+    }
+
+    void unpin() {
+        pinned = false;
+        readOnly = false;
+    }
+
+    boolean isPinned() {
+        return pinned;
+    }
+
+    boolean isPinnedReadOnly() {
+        return pinned && readOnly;
+    }
+
+    /**
+     * Registers an action to run once the transaction this connection is pinned to has committed.
+     */
+    void afterCommit(Runnable action) {
+        afterCommit.add(action);
+    }
+
+    /**
+     * Registers an action to run once the transaction this connection is pinned to has rolled back.
+     */
+    void afterRollback(Runnable action) {
+        afterRollback.add(action);
+    }
+
+    /**
+     * Hands over the actions registered for how the transaction ended, and forgets all of them.
+     *
+     * @param committed Whether the transaction committed.
+     * @return The actions, in the order they were registered.
+     */
+    List<Runnable> completionActions(boolean committed) {
+        List<Runnable> actions = List.copyOf(committed ? afterCommit : afterRollback);
+        afterCommit.clear();
+        afterRollback.clear();
+        return actions;
+    }
+
+    /**
+     * Returns this connection to its pool, unless it is pinned to a transaction.
+     */
+    @Override
+    public void close() {
+        if (!pinned) {
+            pool.release(this);
+        }
+    }
+}
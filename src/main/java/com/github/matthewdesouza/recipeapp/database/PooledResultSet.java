@@ -0,0 +1,89 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link ResultSet} wrapper that hands the statement and pooled connection it was read from back once it is closed.
+ * <p>
+ * This lets {@link DatabaseConnector} keep handing out plain result sets while connections are borrowed per call;
+ * callers only need to close the result set, which the DAOs already do with try-with-resources. The rows read are
+ * counted and reported once the result set is closed.
+ */
+final class PooledResultSet implements InvocationHandler {
+    /**
+     * Receives the number of rows read from a result set once it is closed.
+     */
+    @FunctionalInterface
+    interface RowCountListener {
+        void closed(long rows);
+    }
+
+    private static final RowCountListener IGNORE_ROWS = rows -> {
+    };
+
+    private final ResultSet delegate;
+    private final PreparedStatement statement;
+    private final PooledConnection pooled;
+    private final RowCountListener rowCountListener;
+    private long rows;
+    private boolean closed;
+
+    private PooledResultSet(ResultSet delegate, PreparedStatement statement, PooledConnection pooled,
+                            RowCountListener rowCountListener) {
+        this.delegate = delegate;
+        this.statement = statement;
+        this.pooled = pooled;
+        this.rowCountListener = rowCountListener;
+    }
+
+    static ResultSet wrap(ResultSet delegate, PreparedStatement statement, PooledConnection pooled) {
+        return wrap(delegate, statement, pooled, IGNORE_ROWS);
+    }
+
+    static ResultSet wrap(ResultSet delegate, PreparedStatement statement, PooledConnection pooled,
+                          RowCountListener rowCountListener) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                new PooledResultSet(delegate, statement, pooled, rowCountListener));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("close") && method.getParameterCount() == 0) {
+            close();
+            return null;
+        }
+        try {
+            Object result = method.invoke(delegate, args);
+            if (result == Boolean.TRUE && method.getName().equals("next")) {
+                rows++;
+            }
+            return result;
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        rowCountListener.closed(rows);
+        try {
+            delegate.close();
+        } finally {
+            try {
+                pooled.releaseStatement(statement);
+            } finally {
+                pooled.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-statement timings of the SQL run by a {@link DatabaseConnector}, and the slow-query log.
+ * <p>
+ * Statements are told apart by their SQL text, which the stores keep constant, so the number of distinct statements
+ * stays small; past {@code recipeapp.db.metrics.maxStatements} (default 256) further ones are counted together as
+ * {@code <other>}. Executions taking at least {@code recipeapp.db.slowQueryMs} (default 200) are logged to the
+ * {@code ...database.SlowQueries} logger, with the type of each bound parameter but never its value.
+ */
+public final class QueryMetrics implements QueryMetricsMXBean {
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("com.github.matthewdesouza.recipeapp.database.SlowQueries");
+    private static final String OTHER = "<other>";
+
+    private final ConcurrentHashMap<String, QueryStats> statements = new ConcurrentHashMap<>();
+    private final LongAdder slowQueries = new LongAdder();
+    private final int maxStatements;
+    private volatile long slowQueryThresholdNanos;
+
+    QueryMetrics(long slowQueryThresholdMillis, int maxStatements) {
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMillis);
+        this.maxStatements = maxStatements;
+    }
+
+    static QueryMetrics fromSystemProperties() {
+        return new QueryMetrics(Long.getLong("recipeapp.db.slowQueryMs", 200L),
+                Integer.getInteger("recipeapp.db.metrics.maxStatements", 256));
+    }
+
+    /**
+     * @param rows Rows read by a query, or affected by an update.
+     */
+    void record(String sql, long nanos, long rows, Object[] parameters) {
+        stats(sql).record(nanos, rows);
+        if (nanos >= slowQueryThresholdNanos) {
+            slowQueries.increment();
+            slowQueryLog.warn("{} ms, {} rows: {} {}",
+                    TimeUnit.NANOSECONDS.toMillis(nanos), rows, normalize(sql), redact(parameters));
+        }
+    }
+
+    void recordError(String sql, long nanos) {
+        stats(sql).recordError(nanos);
+    }
+
+    /**
+     * @return Statistics of one statement, or null if it never ran.
+     */
+    public QueryStats getStatement(String sql) {
+        return statements.get(sql);
+    }
+
+    @Override
+    public List<QueryStats> getStatements() {
+        List<QueryStats> all = new ArrayList<>(statements.values());
+        all.sort(Comparator.comparingDouble(QueryStats::getTotalMillis).reversed());
+        return all;
+    }
+
+    @Override
+    public long getSlowQueryCount() {
+        return slowQueries.sum();
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowQueryThresholdNanos);
+    }
+
+    @Override
+    public void setSlowQueryThresholdMillis(long thresholdMillis) {
+        if (thresholdMillis < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative: " + thresholdMillis);
+        }
+        slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    @Override
+    public void reset() {
+        statements.clear();
+        slowQueries.reset();
+    }
+
+    private QueryStats stats(String sql) {
+        QueryStats stats = statements.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        if (statements.size() >= maxStatements) {
+            return statements.computeIfAbsent(OTHER, QueryStats::new);
+        }
+        return statements.computeIfAbsent(sql, key -> new QueryStats(normalize(key)));
+    }
+
+    static String normalize(String sql) {
+        return sql.strip().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Describes bound parameters without their values, which may be user names, password hashes or recipe text.
+     *
+     * @return E.g. {@code [String(12), Integer, null]}.
+     */
+    static String redact(Object[] parameters) {
+        StringBuilder redacted = new StringBuilder("[");
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                redacted.append(", ");
+            }
+            Object parameter = parameters[i];
+            if (parameter == null) {
+                redacted.append("null");
+            } else if (parameter instanceof CharSequence text) {
+                redacted.append("String(").append(text.length()).append(')');
+            } else {
+                redacted.append(parameter.getClass().getSimpleName());
+            }
+        }
+        return redacted.append(']').toString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import java.util.List;
+
+/**
+ * JMX view of the {@link QueryMetrics} of a {@link DatabaseConnector}, registered as
+ * {@code com.github.matthewdesouza.recipeapp:type=QueryMetrics,name=<database>}.
+ */
+public interface QueryMetricsMXBean {
+    /**
+     * @return Statistics of every statement executed so far, slowest in total first.
+     */
+    List<QueryStats> getStatements();
+
+    long getSlowQueryCount();
+
+    long getSlowQueryThresholdMillis();
+
+    void setSlowQueryThresholdMillis(long thresholdMillis);
+
+    /**
+     * Forgets all statistics, e.g. before measuring a particular workload.
+     */
+    void reset();
+}
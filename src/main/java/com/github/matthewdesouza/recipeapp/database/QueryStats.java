@@ -0,0 +1,88 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import com.github.matthewdesouza.recipeapp.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution counts, latencies and row counts of one SQL statement, see {@link QueryMetrics}.
+ */
+public final class QueryStats {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String sql;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    QueryStats(String sql) {
+        this.sql = sql;
+    }
+
+    void record(long nanos, long rowCount) {
+        latency.record(nanos);
+        rows.add(rowCount);
+    }
+
+    void recordError(long nanos) {
+        latency.record(nanos);
+        errors.increment();
+    }
+
+    /**
+     * @return The statement, with whitespace collapsed.
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return Executions, including failed ones.
+     */
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * @return Rows read from queries, or rows affected by updates, summed over all executions.
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public double getTotalMillis() {
+        return latency.getTotalNanos() / NANOS_PER_MILLI;
+    }
+
+    public double getMeanMillis() {
+        return latency.getMeanNanos() / NANOS_PER_MILLI;
+    }
+
+    public double getP50Millis() {
+        return latency.getPercentileNanos(50) / NANOS_PER_MILLI;
+    }
+
+    public double getP99Millis() {
+        return latency.getPercentileNanos(99) / NANOS_PER_MILLI;
+    }
+
+    public double getMaxMillis() {
+        return latency.getMaxNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryStats{" +
+                "sql='" + sql + '\'' +
+                ", count=" + getCount() +
+                ", errors=" + getErrorCount() +
+                ", rows=" + getRows() +
+                ", p50=" + String.format("%.3f", getP50Millis()) + "ms" +
+                ", p99=" + String.format("%.3f", getP99Millis()) + "ms" +
+                '}';
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import com.github.matthewdesouza.recipeapp.model.RecipeSummary;
+
+/**
+ * A recipe written through {@link RecipeDAO}, published to its change listeners once the write is committed.
+ *
+ * @param type     What happened to the recipe.
+ * @param recipeId Id of the recipe.
+ * @param summary  The recipe as it is now, or null if it was deleted. The author's name may be null.
+ * @see RecipeDAO#addChangeListener(java.util.function.Consumer)
+ */
+public record RecipeChange(Type type, int recipeId, RecipeSummary summary) {
+    public enum Type {
+        INSERTED, UPDATED, DELETED
+    }
+
+    static RecipeChange inserted(RecipeSummary summary) {
+        return new RecipeChange(Type.INSERTED, summary.getId(), summary);
+    }
+
+    static RecipeChange updated(RecipeSummary summary) {
+        return new RecipeChange(Type.UPDATED, summary.getId(), summary);
+    }
+
+    static RecipeChange deleted(int recipeId) {
+        return new RecipeChange(Type.DELETED, recipeId, null);
+    }
+}
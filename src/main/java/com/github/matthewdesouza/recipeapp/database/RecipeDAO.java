@@ -1,48 +1,141 @@
 package com.github.matthewdesouza.recipeapp.database;
 
+import com.github.matthewdesouza.recipeapp.cache.CacheStats;
+import com.github.matthewdesouza.recipeapp.cache.LruCache;
+import com.github.matthewdesouza.recipeapp.collection.IntSet;
+import com.github.matthewdesouza.recipeapp.database.exception.UncheckedSQLException;
 import com.github.matthewdesouza.recipeapp.model.Recipe;
+import com.github.matthewdesouza.recipeapp.model.RecipeSummary;
 import com.github.matthewdesouza.recipeapp.model.User;
+import com.github.matthewdesouza.recipeapp.popularity.PopularityIndex;
+import com.github.matthewdesouza.recipeapp.popularity.RankedRecipe;
+import com.github.matthewdesouza.recipeapp.recommend.Recommendation;
+import com.github.matthewdesouza.recipeapp.recommend.RecommendationIndex;
+import com.github.matthewdesouza.recipeapp.search.RecipeSearchIndex;
 
-import java.sql.ResultSet;
+import java.io.IOException;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class RecipeDAO {
+    /**
+     * Read-through cache of full recipes by id, bounded by count and approximate heap footprint.
+     */
+    private static final LruCache<Integer, Recipe> recipeCache = LruCache.<Integer, Recipe>builder()
+            .maximumSize(Long.getLong("recipeapp.cache.recipes.maxEntries", 10_000L))
+            .maximumWeight(Long.getLong("recipeapp.cache.recipes.maxBytes", 64L << 20), (id, recipe) -> estimateBytes(recipe))
+            .build();
+
+    /**
+     * Read-through cache of summary list results (pages, searches), cleared on every write to recipes and on every
+     * change to an author shown in them.
+     */
+    private static final LruCache<String, List<RecipeSummary>> summaryListCache = LruCache.<String, List<RecipeSummary>>builder()
+            .maximumSize(Long.getLong("recipeapp.cache.recipeLists.maxEntries", 256L))
+            .maximumWeight(Long.getLong("recipeapp.cache.recipeLists.maxBytes", 16L << 20), (key, summaries) -> estimateBytes(summaries))
+            .build();
+
+    /**
+     * Full-text index over titles and content, built on first use and updated by the write methods below.
+     */
+    private static final RecipeSearchIndex searchIndex = new RecipeSearchIndex();
+
+    /**
+     * Like counts per recipe, built from {@code user_likes} on first use and updated as likes are made.
+     */
+    private static final PopularityIndex popularity = new PopularityIndex();
+
+    /**
+     * Co-likes between recipes, built from {@code user_likes} on first use and updated as likes are made.
+     */
+    private static final RecommendationIndex recommendations = new RecommendationIndex();
+
+    /**
+     * Sequence number of the last like change the popularity index was built with, see {@link LikeWriteBuffer}.
+     */
+    private static volatile long popularitySequence;
+
+    /**
+     * Sequence number of the last like change the recommendation index was built with.
+     */
+    private static volatile long recommendationSequence;
+
+    private static final List<Consumer<RecipeChange>> changeListeners = new CopyOnWriteArrayList<>();
+
     public static void createRecipe(Recipe recipe, User user) {
-        String sql = """
-                INSERT INTO recipes (title, content, uri, userId) VALUES (?, ?, ?, ?)
-                """;
-        DatabaseConnector db = DatabaseConnector.getInstance();
-        try (ResultSet generatedKeys = db.executeUpdateWithKeys(sql,
-                recipe.getTitle(),
-                recipe.getContent(),
-                recipe.getImageUri(),
-                user.getId())) {
-            if (generatedKeys.next()) {
-                recipe.setId(generatedKeys.getInt(1)); // Set the generated ID back to the recipe object
-            }
+        try {
+            recipe.setId(store().insert(recipe, user.getId())); // Set the generated ID back to the recipe object
+            Recipe indexed = new Recipe(recipe);
+            indexed.setUserId(user.getId());
+            indexed.setAuthorUsername(user.getUsername());
+            Storage.get().afterCommit(() -> {
+                searchIndex.index(indexed);
+                summaryListCache.invalidateAll();
+                publish(RecipeChange.inserted(summaryOf(indexed)));
+            });
         } catch (SQLException e) {
             System.out.println(e.getMessage());
             e.printStackTrace();
         }
     }
 
-    public static Recipe getRecipeByRecipeId(int id) {
-        String sql = """
-            SELECT * FROM recipes WHERE id = ?
-            """;
-        DatabaseConnector db = DatabaseConnector.getInstance();
-        try (ResultSet rs = db.executeQuery(sql, id)) {
-            if (rs.next()) {
-                Recipe recipe = new Recipe();
-                recipe.setId(id);
-                recipe.setTitle(rs.getString("title"));
-                recipe.setContent(rs.getString("content"));
-                recipe.setImageUri(rs.getString("uri"));
-                recipe.setUserId(rs.getInt("userId"));
-                return recipe;
+    /**
+     * Inserts many recipes in one transaction, with a single JDBC batch on JDBC backends instead of one round-trip per recipe.
+     * <p>
+     * Each recipe must have its author set through {@link Recipe#setUserId(int)}; generated ids are set on the recipes.
+     *
+     * @param recipes Recipes to insert.
+     * @return Generated ids, in the order of {@code recipes}.
+     * @throws SQLException If the batch failed, in which case none of the recipes were inserted.
+     */
+    public static int[] createRecipes(List<Recipe> recipes) throws SQLException {
+        int[] ids = store().insertAll(recipes);
+        List<Recipe> inserted = new ArrayList<>(recipes.size());
+        for (int i = 0; i < ids.length; i++) {
+            Recipe recipe = recipes.get(i);
+            recipe.setId(ids[i]);
+            inserted.add(new Recipe(recipe));
+        }
+        Storage.get().afterCommit(() -> {
+            summaryListCache.invalidateAll();
+            // Only keep the search index in step if one is in use; otherwise it will read these rows when it is built.
+            if (searchIndex.isStarted()) {
+                inserted.forEach(searchIndex::index);
+            }
+            if (!changeListeners.isEmpty()) {
+                inserted.forEach(recipe -> publish(RecipeChange.inserted(summaryOf(recipe))));
             }
+        });
+        return ids;
+    }
+
+    /**
+     * Returns a recipe by id, served from the recipe cache when possible. Inside a read-write transaction the cache is
+     * bypassed, so rows that may still be rolled back are never cached.
+     *
+     * @param id Recipe id.
+     * @return A copy of the recipe that the caller may modify, or null if it does not exist.
+     */
+    public static Recipe getRecipeByRecipeId(int id) {
+        if (Storage.get().isInWriteTransaction()) {
+            return loadRecipe(id);
+        }
+        Recipe recipe = recipeCache.get(id, RecipeDAO::loadRecipe);
+        return recipe != null ? new Recipe(recipe) : null;
+    }
+
+    private static Recipe loadRecipe(int id) {
+        try {
+            return store().findById(id);
         } catch (SQLException e) {
             System.out.println(e.getMessage());
             e.printStackTrace();
@@ -51,107 +144,509 @@ public class RecipeDAO {
     }
 
     public static int updateRecipe(Recipe recipe) {
-        String sql = """
-                UPDATE recipes
-                SET title = ?, content = ?, uri = ?, userId = ?
-                WHERE id = ?
-                """;
-
         int affectedRows = 0;
-        DatabaseConnector db = DatabaseConnector.getInstance();
         try {
-            affectedRows = db.executeUpdate(sql,
-                    recipe.getTitle(),
-                    recipe.getContent(),
-                    recipe.getImageUri(),
-                    recipe.getUserId(),
-                    recipe.getId());
+            affectedRows = store().update(recipe);
         } catch (SQLException e) {
             System.out.println(e.getMessage());
             e.printStackTrace();
         }
+        Recipe updated = affectedRows > 0 ? new Recipe(recipe) : null;
+        Storage.get().afterCommit(() -> {
+            invalidate(recipe.getId());
+            if (updated != null) {
+                searchIndex.index(updated);
+                publish(RecipeChange.updated(summaryOf(updated)));
+            }
+        });
         return affectedRows;
     }
 
     public static int deleteRecipe(int recipeId) {
-        String sql = """
-                DELETE FROM recipes WHERE id = ?
-                """;
-        DatabaseConnector db = DatabaseConnector.getInstance();
         int affectedRows = 0;
         try {
-            affectedRows = db.executeUpdate(sql, recipeId);
+            affectedRows = store().delete(recipeId);
         } catch (SQLException e) {
             System.out.println(e.getMessage());
             e.printStackTrace();
         }
+        boolean deleted = affectedRows > 0;
+        Storage.get().afterCommit(() -> {
+            invalidate(recipeId);
+            searchIndex.remove(recipeId);
+            if (deleted) {
+                popularity.remove(recipeId);
+                recommendations.remove(recipeId);
+                publish(RecipeChange.deleted(recipeId));
+            }
+        });
         return affectedRows;
     }
 
     public static int deleteRecipe(Recipe recipe) {
-        String sql = """
-                DELETE FROM recipes WHERE id = ?
-                """;
-        DatabaseConnector db = DatabaseConnector.getInstance();
-        int affectedRows = 0;
+        return deleteRecipe(recipe.getId());
+    }
+
+    /**
+     * Subscribes to recipes inserted, updated or deleted through this DAO, so views can update the rows concerned
+     * instead of reloading everything.
+     * <p>
+     * Listeners are called on the thread that made the write, once it is committed: right after it, or inside a
+     * transaction after the commit. A rollback is not announced.
+     *
+     * @param listener Receives each change.
+     */
+    public static void addChangeListener(Consumer<RecipeChange> listener) {
+        changeListeners.add(listener);
+    }
+
+    public static void removeChangeListener(Consumer<RecipeChange> listener) {
+        changeListeners.remove(listener);
+    }
+
+    private static void publish(RecipeChange change) {
+        for (Consumer<RecipeChange> listener : changeListeners) {
+            try {
+                listener.accept(change);
+            } catch (RuntimeException e) {
+                // A failing view must not make the write look failed to its caller.
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static RecipeSummary summaryOf(Recipe recipe) {
+        return new RecipeSummary(recipe.getId(), recipe.getTitle(), recipe.getUserId(), recipe.getAuthorUsername());
+    }
+
+    /**
+     * Ranked full-text search over recipe titles and content, answered from the in-memory search index.
+     * <p>
+     * All terms of the query must match, and the last one also matches as a prefix, so the method can be called on
+     * every keystroke. Titles weigh more than content. The first call waits for the index to be built.
+     *
+     * @param query Free text query.
+     * @param limit Maximum number of results.
+     * @return Matching summaries, best match first.
+     * @throws UncheckedSQLException If the index had to be built and the recipes could not be read.
+     */
+    public static List<RecipeSummary> searchRecipes(String query, int limit) {
+        buildSearchIndex();
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Builds the search index from the database if that has not happened yet, e.g. to warm it up at startup.
+     *
+     * @throws UncheckedSQLException If the recipes could not be read; the next call builds the index again.
+     */
+    public static void buildSearchIndex() {
+        searchIndex.ensureBuilt((afterId, pageSize) -> {
+            try {
+                return store().findPage(afterId, pageSize);
+            } catch (SQLException e) {
+                // An empty page would end the build with the index missing recipes.
+                throw new UncheckedSQLException(e);
+            }
+        });
+    }
+
+    /**
+     * The most liked recipes of all time, answered from the in-memory popularity index. The first call waits for the
+     * index to be built.
+     *
+     * @param limit Maximum number of recipes.
+     * @return Recipe ids with their like counts, most liked first.
+     */
+    public static List<RankedRecipe> getMostLikedRecipes(int limit) {
+        buildPopularityIndex();
+        return popularity.mostLiked(limit);
+    }
+
+    /**
+     * The recipes that gained the most likes over the last {@value PopularityIndex#TRENDING_DAYS} days, answered from
+     * the in-memory popularity index. The first call waits for the index to be built.
+     *
+     * @param limit Maximum number of recipes.
+     * @return Recipe ids with the likes made in that time and not withdrawn since, most first.
+     */
+    public static List<RankedRecipe> getTrendingRecipes(int limit) {
+        buildPopularityIndex();
+        return popularity.trending(limit);
+    }
+
+    public static int getLikeCount(int recipeId) {
+        buildPopularityIndex();
+        return popularity.likes(recipeId);
+    }
+
+    /**
+     * Counts the likes stored in the database if that has not happened yet, e.g. to warm up the index at startup.
+     *
+     * @throws UncheckedSQLException If the likes could not be read; the next call builds the index again.
+     */
+    public static void buildPopularityIndex() {
+        popularity.ensureBuilt(new StoredLikes());
+    }
+
+    /**
+     * "People who liked this also liked": the recipes most often liked together with a recipe, answered from the
+     * in-memory recommendation index. The first call waits for the index to be built.
+     *
+     * @param recipeId Recipe to find similar recipes for.
+     * @param limit    Maximum number of recipes.
+     * @return Recipe ids with their similarity, most similar first.
+     */
+    public static List<Recommendation> getSimilarRecipes(int recipeId, int limit) {
+        buildRecommendationIndex();
+        return recommendations.similar(recipeId, limit);
+    }
+
+    /**
+     * Suggestions for a user from the recipes liked together with the ones they like, answered from the in-memory
+     * recommendation index. The first call waits for the index to be built.
+     *
+     * @param user  The user, whose liked recipes are left out.
+     * @param limit Maximum number of recipes.
+     * @return Recipe ids with their score, best first.
+     */
+    public static List<Recommendation> getRecommendedRecipes(User user, int limit) {
+        buildRecommendationIndex();
+        return recommendations.recommendFor(user.getLikedRecipes(), limit);
+    }
+
+    /**
+     * Counts the co-likes stored in the database if that has not happened yet, e.g. to warm up the index at startup.
+     *
+     * @throws UncheckedSQLException If the likes could not be read; the next call builds the index again.
+     */
+    public static void buildRecommendationIndex() {
+        recommendations.ensureBuilt(new StoredLikesByUser());
+    }
+
+    /**
+     * Counts a like or unlike that {@link UserDAO} accepted, before it is written.
+     *
+     * @param likedOn  For an unlike, the day the withdrawn like was made; ignored for a like, which is made today.
+     * @param sequence Sequence number of the change in the {@link LikeWriteBuffer}; a change an index was built with
+     *                 is not counted again.
+     */
+    static void recordLike(int userId, int recipeId, boolean liked, LocalDate likedOn, long sequence) {
         try {
-            affectedRows = db.executeUpdate(sql, recipe.getId());
-        } catch (SQLException e) {
+            buildPopularityIndex();
+        } catch (UncheckedSQLException e) {
+            // Left to the next build, which reads this change with the others.
             System.out.println(e.getMessage());
             e.printStackTrace();
         }
-        return affectedRows;
+        boolean counted = popularity.isBuilt() && sequence > popularitySequence;
+        // Before the recommendation index is built it ignores the change, which its build then reads.
+        boolean paired = sequence > recommendationSequence;
+        if (liked) {
+            if (counted) {
+                popularity.recordLike(recipeId);
+            }
+            if (paired) {
+                recommendations.recordLike(userId, recipeId);
+            }
+        } else {
+            if (counted) {
+                popularity.recordUnlike(recipeId, likedOn);
+            }
+            if (paired) {
+                recommendations.recordUnlike(userId, recipeId);
+            }
+        }
     }
 
-    public static Set<Recipe> searchRecipesByTitle(String titlePattern) {
-        Set<Recipe> recipes = new HashSet<>();
-        String sql = "SELECT * FROM recipes WHERE LOWER( title ) LIKE ?";
-        DatabaseConnector db = DatabaseConnector.getInstance();
-
-        try (ResultSet rs = db.executeQuery(sql, "%" + titlePattern + "%")) {
-            while (rs.next()) {
-                Recipe recipe = new Recipe();
-                recipe.setId(rs.getInt("id"));
-                recipe.setTitle(rs.getString("title"));
-                recipe.setContent(rs.getString("content"));
-                recipe.setImageUri(rs.getString("uri"));
-                recipe.setUserId(rs.getInt("userId"));
-                recipes.add(recipe);
+    /**
+     * Reads like counts for the popularity index from one snapshot of the current backend, and records the sequence
+     * number it reflects in {@link #popularitySequence}. Likes still waiting to be written are counted as made today,
+     * and unlikes still waiting are taken back from the day their like was made, as
+     * {@link PopularityIndex#recordLike(int)} and {@link PopularityIndex#recordUnlike(int, LocalDate)} would have.
+     */
+    private static final class StoredLikes implements PopularityIndex.LikeSource {
+        @Override
+        public PopularityIndex.LikeCounts read(LocalDate since) {
+            LocalDate today = since.plusDays(PopularityIndex.TRENDING_DAYS - 1);
+            try {
+                LikeWriteBuffer.Snapshot<PopularityIndex.LikeCounts> snapshot = UserDAO.snapshotLikes(
+                        pending -> Storage.get().inReadOnlyTransaction(() -> countLikes(since, today, pending)));
+                popularitySequence = snapshot.sequence();
+                return snapshot.value();
+            } catch (SQLException e) {
+                // Empty counts would be taken for the stored ones.
+                throw new UncheckedSQLException(e);
             }
+        }
+
+        private static PopularityIndex.LikeCounts countLikes(LocalDate since, LocalDate today, List<LikeChange> pending)
+                throws SQLException {
+            UserStore users = Storage.get().users();
+            Map<Integer, Integer> total = new HashMap<>(users.countLikes());
+            Map<LocalDate, Map<Integer, Integer>> perDay = new HashMap<>();
+            users.countLikesPerDay(since).forEach((day, likes) -> perDay.put(day, new HashMap<>(likes)));
+
+            Map<Integer, List<LikeChange>> pendingByUser = new HashMap<>();
+            for (LikeChange change : pending) {
+                pendingByUser.computeIfAbsent(change.userId(), id -> new ArrayList<>()).add(change);
+            }
+            for (Map.Entry<Integer, List<LikeChange>> entry : pendingByUser.entrySet()) {
+                List<Integer> recipeIds = entry.getValue().stream().map(LikeChange::recipeId).toList();
+                Map<Integer, LocalDate> stored = users.findLikeDays(entry.getKey(), recipeIds);
+                for (LikeChange change : entry.getValue()) {
+                    // Only a change not written yet is missing from the counts.
+                    LocalDate likedOn = stored.get(change.recipeId());
+                    if (change.liked() && likedOn == null) {
+                        total.merge(change.recipeId(), 1, RecipeDAO::sumOrNull);
+                        perDay.computeIfAbsent(today, day -> new HashMap<>())
+                                .merge(change.recipeId(), 1, RecipeDAO::sumOrNull);
+                    } else if (!change.liked() && likedOn != null) {
+                        total.merge(change.recipeId(), -1, RecipeDAO::sumOrNull);
+                        if (!likedOn.isBefore(since)) {
+                            perDay.computeIfAbsent(likedOn, day -> new HashMap<>())
+                                    .merge(change.recipeId(), -1, RecipeDAO::sumOrNull);
+                        }
+                    }
+                }
+            }
+            return new PopularityIndex.LikeCounts(total, perDay);
+        }
+    }
+
+    /**
+     * Adds like counts for {@link Map#merge}, removing the entry when they cancel out.
+     */
+    private static Integer sumOrNull(Integer likes, Integer change) {
+        return likes + change != 0 ? likes + change : null;
+    }
+
+    /**
+     * Reads every like for the recommendation index from one snapshot of the current backend, with the likes still
+     * waiting to be written applied on top, and records the sequence number it reflects in
+     * {@link #recommendationSequence}.
+     */
+    private static final class StoredLikesByUser implements RecommendationIndex.LikeSource {
+        @Override
+        public Map<Integer, IntSet> likesByUser() {
+            try {
+                LikeWriteBuffer.Snapshot<Map<Integer, IntSet>> snapshot = UserDAO.snapshotLikes(pending -> {
+                    Map<Integer, IntSet> likes = Storage.get().users().findAllLikedRecipeIds();
+                    for (LikeChange change : pending) {
+                        IntSet liked = likes.computeIfAbsent(change.userId(), userId -> new IntSet());
+                        if (change.liked()) {
+                            liked.add(change.recipeId());
+                        } else {
+                            liked.remove(change.recipeId());
+                        }
+                    }
+                    return likes;
+                });
+                recommendationSequence = snapshot.sequence();
+                return snapshot.value();
+            } catch (SQLException e) {
+                // Only the pending likes would be taken for all of them.
+                throw new UncheckedSQLException(e);
+            }
+        }
+    }
+
+    /**
+     * Receives recipes from {@link #streamRecipes(int, int, RecipeConsumer)}.
+     */
+    @FunctionalInterface
+    public interface RecipeConsumer {
+        void accept(Recipe recipe) throws IOException;
+    }
+
+    /**
+     * Streams every recipe with an id above {@code afterId} to a consumer in id order, holding only one row in memory.
+     * <p>
+     * Unlike {@link #getAllRecipes()} nothing is collected, and the cache is bypassed, so this is suitable for
+     * exporting tables of any size. Passing the id of the last recipe consumed resumes an interrupted run.
+     *
+     * @param afterId   Only recipes with a greater id are streamed; 0 streams all of them.
+     * @param fetchSize Rows fetched from the database per round-trip.
+     * @param consumer  Receives each recipe; the same instance is never passed twice.
+     * @throws SQLException If the query failed.
+     * @throws IOException  If the consumer failed; streaming stops at that recipe.
+     */
+    public static void streamRecipes(int afterId, int fetchSize, RecipeConsumer consumer) throws SQLException, IOException {
+        store().stream(afterId, fetchSize, consumer);
+    }
+
+    /**
+     * Finds recipes whose title contains the given text, returning only the columns a result list needs.
+     *
+     * @param titlePattern Case-insensitive text to look for in recipe titles.
+     * @return Matching recipe summaries, as an unmodifiable list.
+     */
+    public static List<RecipeSummary> searchRecipeSummariesByTitle(String titlePattern) {
+        String pattern = titlePattern.toLowerCase();
+        return cachedSummaries("search:" + pattern, () -> loadSummaries(store -> store.findSummariesByTitle(pattern)));
+    }
+
+    public static Set<Recipe> searchRecipesByTitle(String titlePattern) {
+        try {
+            return store().findByTitle(titlePattern);
         } catch (SQLException e) {
             System.out.println(e.getMessage());
             e.printStackTrace();
         }
-        return recipes;
+        return new HashSet<>();
+    }
+
+    /**
+     * Returns summaries of every recipe, in id order. List views should page through
+     * {@link #getRecipeSummaryPage(int, int)} instead when the catalog can be large.
+     *
+     * @return All recipe summaries.
+     */
+    public static List<RecipeSummary> getAllRecipeSummaries() {
+        return cachedSummaries("all", () -> loadSummaries(RecipeStore::findAllSummaries));
     }
 
+    /**
+     * Loads every recipe together with its author in a single query, content included. Prefer the summary queries
+     * for anything that only lists recipes.
+     * <p>
+     * Recipes whose author no longer exists are attributed to the <unknown> user (id 0).
+     *
+     * @return All recipes, with {@link Recipe#getAuthorUsername()} populated where the author exists.
+     */
     public static Set<Recipe> getAllRecipes() {
-        Set<Recipe> recipes = new HashSet<>();
-        String sql = "SELECT * FROM recipes";
-        DatabaseConnector db = DatabaseConnector.getInstance();
-
-        try (ResultSet rs = db.executeQuery(sql)) {
-            while (rs.next()) {
-                Recipe recipe = new Recipe();
-                recipe.setId(rs.getInt("id"));
-                recipe.setTitle(rs.getString("title"));
-                recipe.setContent(rs.getString("content"));
-                recipe.setImageUri(rs.getString("uri"));
-
-                // Fetch the user and check if it's not null before getting the id
-                User user = UserDAO.getUserById(rs.getInt("userId"));
-                if (user != null) {
-                    recipe.setUserId(user.getId());
-                } else {
-                    recipe.setUserId(0); // <unknown> user
-                }
+        try {
+            return store().findAll();
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+            e.printStackTrace();
+        }
+        return new HashSet<>();
+    }
 
-                recipes.add(recipe);
-            }
+    /**
+     * Returns one page of recipe summaries in id order, using the last id of the previous page as the keyset cursor.
+     * Unlike an OFFSET, the cursor keeps every page an index range scan however deep the user scrolls.
+     *
+     * @param afterId  Id of the last recipe on the previous page, or 0 for the first page.
+     * @param pageSize Maximum number of summaries to return.
+     * @return Up to {@code pageSize} summaries with ids greater than {@code afterId}, as an unmodifiable list; fewer
+     * means the end was reached.
+     */
+    public static List<RecipeSummary> getRecipeSummaryPage(int afterId, int pageSize) {
+        return cachedSummaries("page:" + afterId + ":" + pageSize,
+                () -> loadSummaries(store -> store.findSummaryPage(afterId, pageSize)));
+    }
+
+    /**
+     * Returns one page of full recipes in id order, for bulk consumers that need the content of every recipe.
+     *
+     * @param afterId  Id of the last recipe on the previous page, or 0 for the first page.
+     * @param pageSize Maximum number of recipes to return.
+     * @return Up to {@code pageSize} recipes with ids greater than {@code afterId}.
+     */
+    public static List<Recipe> getRecipePage(int afterId, int pageSize) {
+        try {
+            return store().findPage(afterId, pageSize);
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * @return Hit rate, eviction count and load latency of the recipe-by-id cache.
+     */
+    public static CacheStats getRecipeCacheStats() {
+        return recipeCache.stats();
+    }
+
+    /**
+     * @return Hit rate, eviction count and load latency of the recipe list cache.
+     */
+    public static CacheStats getRecipeListCacheStats() {
+        return summaryListCache.stats();
+    }
+
+    /**
+     * Drops all cached recipes, the search index, like counts and co-likes, e.g. after switching to another backend.
+     */
+    static void clearCaches() {
+        recipeCache.invalidateAll();
+        summaryListCache.invalidateAll();
+        searchIndex.clear();
+        popularity.clear();
+        recommendations.clear();
+    }
+
+    /**
+     * Drops the author name joined into cached summaries and search results once a rename or delete of the user is
+     * committed.
+     *
+     * @param userId   The author.
+     * @param username New name, or null if the user was deleted.
+     */
+    static void authorChanged(int userId, String username) {
+        Storage.get().afterCommit(() -> {
+            summaryListCache.invalidateIf((key, summaries) ->
+                    summaries.stream().anyMatch(summary -> summary.getUserId() == userId));
+            searchIndex.updateAuthor(userId, username);
+        });
+    }
+
+    private static void invalidate(int recipeId) {
+        recipeCache.invalidate(recipeId);
+        summaryListCache.invalidateAll();
+    }
+
+    private static List<RecipeSummary> cachedSummaries(String key, Supplier<List<RecipeSummary>> loader) {
+        // Inside a read-write transaction the rows may still be rolled back, so they are not cached.
+        List<RecipeSummary> summaries = Storage.get().isInWriteTransaction()
+                ? loader.get()
+                : summaryListCache.get(key, k -> loader.get());
+        return summaries != null ? summaries : List.of();
+    }
+
+    private static RecipeStore store() {
+        return Storage.get().recipes();
+    }
+
+    @FunctionalInterface
+    private interface SummaryQuery {
+        List<RecipeSummary> run(RecipeStore store) throws SQLException;
+    }
+
+    /**
+     * Runs a summary query against the current store.
+     *
+     * @return The summaries as an unmodifiable list, or null if the query failed so that nothing gets cached.
+     */
+    private static List<RecipeSummary> loadSummaries(SummaryQuery query) {
+        try {
+            return List.copyOf(query.run(store()));
         } catch (SQLException e) {
             System.out.println(e.getMessage());
             e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static long estimateBytes(Recipe recipe) {
+        // Object headers and fields plus two bytes per char, close enough to size the cache in practice.
+        return 96 + 2L * (length(recipe.getTitle()) + length(recipe.getContent())
+                + length(recipe.getImageUri()) + length(recipe.getAuthorUsername()));
+    }
+
+    private static long estimateBytes(List<RecipeSummary> summaries) {
+        long bytes = 64;
+        for (RecipeSummary summary : summaries) {
+            bytes += 72 + 2L * (length(summary.getTitle()) + length(summary.getAuthorUsername()));
         }
-        return recipes;
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
     }
 }
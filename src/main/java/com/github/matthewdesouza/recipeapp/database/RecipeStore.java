@@ -0,0 +1,86 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+import com.github.matthewdesouza.recipeapp.model.RecipeSummary;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Persistence of recipes for one {@link StorageBackend}.
+ * <p>
+ * Stores only read and write rows; caching, search indexing and error reporting are left to {@link RecipeDAO}, which
+ * is what the rest of the application calls.
+ */
+public interface RecipeStore {
+    /**
+     * @param recipe Recipe to insert; its id is ignored.
+     * @param userId Author of the recipe.
+     * @return The generated id.
+     * @throws SQLException If the author does not exist or the recipe could not be stored.
+     */
+    int insert(Recipe recipe, int userId) throws SQLException;
+
+    /**
+     * Inserts recipes all-or-nothing, authored by their {@link Recipe#getUserId()}.
+     *
+     * @return Generated ids, in the order of {@code recipes}.
+     */
+    int[] insertAll(List<Recipe> recipes) throws SQLException;
+
+    /**
+     * @return The recipe, or null if it does not exist.
+     */
+    Recipe findById(int id) throws SQLException;
+
+    /**
+     * @return Number of recipes updated, 0 if it does not exist.
+     */
+    int update(Recipe recipe) throws SQLException;
+
+    /**
+     * Deletes a recipe together with its likes.
+     *
+     * @return Number of recipes deleted, 0 if it does not exist.
+     */
+    int delete(int id) throws SQLException;
+
+    /**
+     * @return Up to {@code limit} summaries with ids above {@code afterId}, in id order.
+     */
+    List<RecipeSummary> findSummaryPage(int afterId, int limit) throws SQLException;
+
+    /**
+     * @return Summaries of all recipes, in id order.
+     */
+    List<RecipeSummary> findAllSummaries() throws SQLException;
+
+    /**
+     * @param lowerCaseText Lower-case text to look for in titles.
+     * @return Summaries of recipes whose lower-cased title contains the text, in id order.
+     */
+    List<RecipeSummary> findSummariesByTitle(String lowerCaseText) throws SQLException;
+
+    /**
+     * @param text Text to look for in lower-cased titles, as-is.
+     * @return Matching recipes, without author names.
+     */
+    Set<Recipe> findByTitle(String text) throws SQLException;
+
+    /**
+     * @return All recipes with their author names; recipes whose author no longer exists have userId 0.
+     */
+    Set<Recipe> findAll() throws SQLException;
+
+    /**
+     * @return Up to {@code limit} recipes with their author names and ids above {@code afterId}, in id order.
+     */
+    List<Recipe> findPage(int afterId, int limit) throws SQLException;
+
+    /**
+     * Hands every recipe with an id above {@code afterId} to the consumer in id order, without collecting them.
+     */
+    void stream(int afterId, int fetchSize, RecipeDAO.RecipeConsumer consumer) throws SQLException, IOException;
+}
@@ -0,0 +1,154 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of {@link PreparedStatement}s for a single pooled connection, keyed by SQL text.
+ * <p>
+ * A pooled connection is only ever used by the thread that borrowed it, so the cache is not synchronized. Statements
+ * are handed out exclusively: if the same SQL is requested while its cached statement still has an open result set,
+ * a one-off statement is prepared instead and closed on release. Evicted statements are closed as soon as they are no
+ * longer in use.
+ */
+final class StatementCache {
+    private static final Logger log = LoggerFactory.getLogger(StatementCache.class);
+
+    private record Key(String sql, boolean returnGeneratedKeys) {
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+
+        private Entry(Key key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+    }
+
+    private final Connection connection;
+    private final int maxSize;
+    private final StatementCacheStats stats;
+    private final Map<Key, Entry> entries;
+    private final Map<PreparedStatement, Entry> inUse = new IdentityHashMap<>();
+
+    StatementCache(Connection connection, int maxSize, StatementCacheStats stats) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.stats = stats;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                evict(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns a prepared statement for the given SQL, reusing a cached one when possible.
+     *
+     * @param sql                 SQL text to prepare.
+     * @param returnGeneratedKeys Whether the statement must return generated keys.
+     * @return A statement with cleared parameters; hand it back with {@link #release(PreparedStatement)}.
+     * @throws SQLException If the statement could not be prepared.
+     */
+    PreparedStatement acquire(String sql, boolean returnGeneratedKeys) throws SQLException {
+        if (maxSize <= 0) {
+            stats.recordMiss();
+            return prepare(sql, returnGeneratedKeys);
+        }
+        Key key = new Key(sql, returnGeneratedKeys);
+        Entry cached = entries.get(key);
+        Entry entry;
+        if (cached != null && !cached.inUse) {
+            stats.recordHit();
+            entry = cached;
+        } else {
+            stats.recordMiss();
+            entry = new Entry(key, prepare(sql, returnGeneratedKeys));
+            if (cached == null) {
+                entries.put(key, entry);
+            } else {
+                entry.evicted = true; // One-off statement while the cached one is busy.
+            }
+        }
+        entry.inUse = true;
+        inUse.put(entry.statement, entry);
+        return entry.statement;
+    }
+
+    /**
+     * Hands a statement back after use. Cached statements stay open for reuse, everything else is closed.
+     *
+     * @param statement Statement obtained from {@link #acquire(String, boolean)}.
+     */
+    void release(PreparedStatement statement) {
+        Entry entry = inUse.remove(statement);
+        if (entry == null || entry.evicted) {
+            close(statement);
+            return;
+        }
+        entry.inUse = false;
+        try {
+            statement.clearParameters();
+        } catch (SQLException e) {
+            // A statement in a bad state should not be handed out again.
+            entries.remove(entry.key);
+            close(statement);
+        }
+    }
+
+    /**
+     * Drops a statement from the cache and closes it, e.g. after it failed to execute.
+     *
+     * @param statement Statement obtained from {@link #acquire(String, boolean)}.
+     */
+    void discard(PreparedStatement statement) {
+        Entry entry = inUse.remove(statement);
+        if (entry != null && !entry.evicted) {
+            entries.remove(entry.key);
+        }
+        close(statement);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private PreparedStatement prepare(String sql, boolean returnGeneratedKeys) throws SQLException {
+        return returnGeneratedKeys
+                ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(sql);
+    }
+
+    private void evict(Entry entry) {
+        stats.recordEviction();
+        entry.evicted = true;
+        if (!entry.inUse) {
+            close(entry.statement);
+        }
+    }
+
+    private void close(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            log.debug("Error closing prepared statement.", e);
+        }
+    }
+}
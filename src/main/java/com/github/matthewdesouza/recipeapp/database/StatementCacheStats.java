@@ -0,0 +1,58 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool-wide counters for the per-connection prepared statement caches.
+ */
+public final class StatementCacheStats {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    StatementCacheStats() {
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Fraction of statement lookups served from a cache, or 0 if nothing was prepared yet.
+     */
+    public double getHitRate() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCacheStats{" +
+                "hits=" + getHits() +
+                ", misses=" + getMisses() +
+                ", evictions=" + getEvictions() +
+                ", hitRate=" + String.format("%.3f", getHitRate()) +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import java.util.Locale;
+
+/**
+ * Chooses the {@link StorageBackend} the DAOs work against.
+ * <p>
+ * The backend is picked once, on first use, from the {@code recipeapp.db.backend} system property:
+ * <ul>
+ *     <li>{@code mariadb} (default): a MariaDB server, see {@link JdbcStorageBackend#mariaDb()}. Suited to shared
+ *     deployments.</li>
+ *     <li>{@code h2}: an embedded H2 database file in the application's config directory, see
+ *     {@link JdbcStorageBackend#h2()}. Runs in-process, so a single-user desktop install needs no server. Requires the
+ *     H2 driver on the class path (Maven profile {@code h2}).</li>
+ *     <li>{@code memory}: an {@link InMemoryStorageBackend}, emptied on exit. For tests and benchmarks.</li>
+ * </ul>
+ * Tests can also swap in a backend of their own with {@link #use(StorageBackend)}.
+ */
+public final class Storage {
+    private static volatile StorageBackend backend;
+
+    private Storage() {
+    }
+
+    /**
+     * @return The configured backend, opened on first use.
+     */
+    public static StorageBackend get() {
+        StorageBackend current = backend;
+        if (current == null) {
+            synchronized (Storage.class) {
+                current = backend;
+                if (current == null) {
+                    current = open(System.getProperty("recipeapp.db.backend", "mariadb"));
+                    backend = current;
+                    StorageBackend opened = current;
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        UserDAO.flushLikes();
+                        opened.close();
+                    }, "recipe-storage-shutdown"));
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Switches the DAOs to another backend, dropping everything they cached from the previous one. Pending likes are
+     * written to the previous backend first.
+     *
+     * @param replacement Backend to use from now on.
+     * @return The previous backend, or null if none was opened yet; the caller decides whether to close it.
+     */
+    public static synchronized StorageBackend use(StorageBackend replacement) {
+        StorageBackend previous = backend;
+        if (previous != null) {
+            UserDAO.flushLikes();
+        }
+        backend = replacement;
+        RecipeDAO.clearCaches();
+        UserDAO.clearCaches();
+        return previous;
+    }
+
+    private static StorageBackend open(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "mariadb" -> JdbcStorageBackend.mariaDb();
+            case "h2" -> JdbcStorageBackend.h2();
+            case "memory" -> new InMemoryStorageBackend();
+            default -> throw new IllegalArgumentException("Unknown storage backend `%s`, expected mariadb, h2 or memory.".formatted(name));
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import java.sql.SQLException;
+
+/**
+ * A place recipes and users are stored, e.g. a MariaDB server or an embedded database file.
+ *
+ * @see Storage
+ */
+public interface StorageBackend extends AutoCloseable {
+    RecipeStore recipes();
+
+    UserStore users();
+
+    /**
+     * Runs work in a single transaction: store calls made by the work from the same thread are committed together
+     * when it returns, and rolled back if it throws. A transaction started inside another one joins it.
+     *
+     * @param work Work to run.
+     * @return The work's result.
+     * @throws SQLException If the work, the commit or the rollback failed.
+     */
+    <T> T inTransaction(TransactionWork<T> work) throws SQLException;
+
+    /**
+     * Runs reads in a single read-only transaction, so they see one consistent snapshot.
+     *
+     * @see #inTransaction(TransactionWork)
+     */
+    <T> T inReadOnlyTransaction(TransactionWork<T> work) throws SQLException;
+
+    /**
+     * Runs an action once the transaction of the current thread has committed, or right away outside a transaction.
+     * The DAOs use it to update caches, indexes and listeners only with committed changes.
+     *
+     * @param action Action to run; a failure is logged, not thrown.
+     */
+    void afterCommit(Runnable action);
+
+    /**
+     * Runs an action once the transaction of the current thread has rolled back; outside a transaction it never runs.
+     *
+     * @param action Action to run; a failure is logged, not thrown.
+     */
+    void afterRollback(Runnable action);
+
+    /**
+     * @return Whether the current thread runs a read-write transaction, whose uncommitted changes must not be cached.
+     */
+    boolean isInWriteTransaction();
+
+    @Override
+    void close();
+}
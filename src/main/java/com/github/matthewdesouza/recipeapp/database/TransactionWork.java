@@ -0,0 +1,11 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import java.sql.SQLException;
+
+/**
+ * Work to run inside a transaction, see {@link StorageBackend#inTransaction(TransactionWork)}.
+ */
+@FunctionalInterface
+public interface TransactionWork<T> {
+    T execute() throws SQLException;
+}
@@ -1,15 +1,21 @@
 package com.github.matthewdesouza.recipeapp.database;
 
+import com.github.matthewdesouza.recipeapp.cache.CacheStats;
+import com.github.matthewdesouza.recipeapp.cache.LruCache;
+import com.github.matthewdesouza.recipeapp.collection.IntSet;
+import com.github.matthewdesouza.recipeapp.database.exception.UncheckedSQLException;
 import com.github.matthewdesouza.recipeapp.database.exception.UserNotFoundException;
 import com.github.matthewdesouza.recipeapp.model.User;
-import org.mindrot.jbcrypt.BCrypt;
+import com.github.matthewdesouza.recipeapp.security.PasswordHasher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashSet;
-import java.util.Set;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  *
@@ -17,22 +23,43 @@ import java.util.Set;
 public class UserDAO {
     private static final Logger logger = LoggerFactory.getLogger(UserDAO.class);
 
+    private static final long USER_CACHE_SIZE = Long.getLong("recipeapp.cache.users.maxEntries", 10_000L);
+    private static final Duration USER_CACHE_TTL = Duration.ofSeconds(Long.getLong("recipeapp.cache.users.ttlSeconds", 300L));
+
+    /**
+     * Cached users by id, without their liked recipes. Entries expire so changes made by other clients show up.
+     */
+    private static final LruCache<Integer, User> userCache = LruCache.<Integer, User>builder()
+            .maximumSize(USER_CACHE_SIZE)
+            .expireAfterWrite(USER_CACHE_TTL)
+            .build();
+
+    /**
+     * Cached user ids by username; unknown usernames are not cached, so registrations are seen immediately.
+     */
+    private static final LruCache<String, Integer> userIdsByUsername = LruCache.<String, Integer>builder()
+            .maximumSize(USER_CACHE_SIZE)
+            .expireAfterWrite(USER_CACHE_TTL)
+            .build();
+
+    /**
+     * Likes and unlikes waiting to be written to the store.
+     */
+    private static final LikeWriteBuffer likes = new LikeWriteBuffer(Long.getLong("recipeapp.likes.flushMs", 500L),
+            // Only likes can violate a constraint, and a like still pending was counted as made today.
+            (dropped, sequence) -> RecipeDAO.recordLike(dropped.userId(), dropped.recipeId(), !dropped.liked(),
+                    LocalDate.now(), sequence));
+
     /**
      * Creates a new user in the database.
      * @param user The user object to be created.
      */
     public static void createUser(User user) {
-        String sql = "INSERT INTO users (username, password) VALUES (?, ?)";
-        DatabaseConnector db = DatabaseConnector.getInstance();
-
-        try (ResultSet generatedKeys = db.executeUpdateWithKeys(sql,
-                user.getUsername(),
-                BCrypt.hashpw(user.getPassword(), BCrypt.gensalt()))) {
-            if (generatedKeys.next()) {
-                user.setId(generatedKeys.getInt(1)); // Set the generated ID back to the user object
-            }
+        try {
+            // Set the generated ID back to the user object
+            user.setId(store().insert(user.getUsername(), PasswordHasher.getInstance().hash(user.getPassword())));
         } catch (SQLException e) {
-            logger.error("Error executing query: {}", sql, e);
+            logger.error("Error creating user {}.", user, e);
         }
         logger.info("User {} created successfully.", user);
     }
@@ -43,180 +70,350 @@ public class UserDAO {
      * @param password The password for authentication.
      * @return A User object if authentication is successful.
      * @throws UserNotFoundException if no matching user is found.
+     * @throws com.github.matthewdesouza.recipeapp.security.exception.PasswordHasherBusyException if too many
+     * passwords are being checked at once.
      */
     public static User authenticateUser(String username, String password) throws UserNotFoundException {
-        String sql = """
-                SELECT * FROM users WHERE username = ?
-                """;
-        DatabaseConnector db = DatabaseConnector.getInstance();
-        try (ResultSet rs = db.executeQuery(sql, username)) {
-            if (rs.next() && BCrypt.checkpw(password, rs.getString("password"))) {
-                User user = new User();
-                user.setId(rs.getInt("id"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setLikedRecipes(getUserLikedRecipe(user.getId()));
-                logger.info("User {} successfully authenticated, welcome.", user);
-                return user;
-            }
+        User user = null;
+        try {
+            user = store().findByUsername(username);
         } catch (SQLException e) {
-            logger.error("Error executing query: {}", sql, e);
+            logger.error("Error looking up user `{}`.", username, e);
+        }
+
+        // The password is checked after the lookup returned, so no connection is held during the slow part.
+        PasswordHasher hasher = PasswordHasher.getInstance();
+        if (user != null && hasher.verify(password, user.getPassword())) {
+            if (hasher.needsRehash(user.getPassword())) {
+                rehashPassword(user, password);
+            }
+            User authenticated = user;
+            authenticated.setLikedRecipesLoader(() -> getUserLikedRecipe(authenticated.getId()));
+            logger.info("User {} successfully authenticated, welcome.", authenticated);
+            return authenticated;
         }
         throw new UserNotFoundException("Username-password combo not found in database.");
     }
 
+    /**
+     * Replaces a stored hash made with an outdated cost factor, now that the plain-text password is known.
+     * The update only applies if the hash was not changed concurrently, e.g. by a password change.
+     */
+    private static void rehashPassword(User user, String password) {
+        PasswordHasher hasher = PasswordHasher.getInstance();
+        try {
+            String rehashed = hasher.hash(password);
+            if (store().replacePassword(user.getId(), user.getPassword(), rehashed) == 1) {
+                user.setPassword(rehashed);
+                invalidateUser(user.getId());
+                hasher.recordRehash();
+                logger.info("User {} password rehashed with cost {}.", user, hasher.getCost());
+            }
+        } catch (SQLException | RuntimeException e) {
+            // The old hash still works, so a failed upgrade only means trying again at the next login.
+            logger.warn("Unable to rehash password of user {}.", user, e);
+        }
+    }
+
+    /**
+     * Updates a user's username and password together in one transaction.
+     * @param user The user, with the new username and plain-text password set.
+     * @return 2 if both were updated, 0 if either update failed, in which case neither was applied.
+     */
     public static int updateUser(User user) {
-        int affectedRows = 0;
+        // Hash before the transaction starts, so it does not hold a connection while bcrypt runs.
+        String hashedPassword = PasswordHasher.getInstance().hash(user.getPassword());
+        try {
+            return Storage.get().inTransaction(() -> {
+                int affectedRows = 0;
 
-        // Update username
-        affectedRows += updateUserUsername(user);
+                // Update username
+                affectedRows += updateUserUsername(user);
 
-        // Update password
-        affectedRows += updateUserPassword(user);
+                // Update password
+                affectedRows += updatePasswordHash(user, hashedPassword);
 
-        return affectedRows;
+                if (affectedRows != 2) {
+                    throw new SQLException("Updating user " + user.getId() + " failed, rolling back.");
+                }
+                return affectedRows;
+            });
+        } catch (SQLException e) {
+            logger.error("Error updating user {}.", user, e);
+            return 0;
+        }
     }
 
     public static int updateUserUsername(User user) {
-        String sql = "UPDATE users SET username = ? WHERE id = ?";
-        DatabaseConnector db = DatabaseConnector.getInstance();
         try {
-            int rv = db.executeUpdate(sql, user.getUsername(), user.getId());
+            int rv = store().updateUsername(user.getId(), user.getUsername());
+            invalidateUser(user.getId());
             if (rv == 1) {
+                RecipeDAO.authorChanged(user.getId(), user.getUsername());
                 logger.info("User {} username successfully updated.", user);
             }
             return rv;
         } catch (SQLException e) {
-            logger.error("Error executing query: {}", sql, e);
+            logger.error("Error updating username of user {}.", user, e);
             return -1;
         }
     }
 
     public static int updateUserPassword(User user) {
-        String sql = "UPDATE users SET password = ? WHERE id = ?";
-        DatabaseConnector db = DatabaseConnector.getInstance();
+        return updatePasswordHash(user, PasswordHasher.getInstance().hash(user.getPassword()));
+    }
+
+    private static int updatePasswordHash(User user, String hashedPassword) {
         try {
-            String hashedPassword = BCrypt.hashpw(user.getPassword(), BCrypt.gensalt());
-            int rv = db.executeUpdate(sql, hashedPassword, user.getId());
+            int rv = store().updatePassword(user.getId(), hashedPassword);
+            invalidateUser(user.getId());
             if (rv == 1) {
                 logger.info("User {} password successfully updated.", user);
             }
-            return db.executeUpdate(sql, hashedPassword, user.getId());
+            return rv;
         } catch (SQLException e) {
-            logger.error("Error executing query: {}", sql, e);
+            logger.error("Error updating password of user {}.", user, e);
             return 0;
         }
     }
 
     public static int deleteUser(int userId) {
-        String sql = """
-                DELETE FROM users WHERE id = ?
-                """;
-
         int affectedRows = 0;
-        DatabaseConnector db = DatabaseConnector.getInstance();
         try {
-            affectedRows = db.executeUpdate(sql, userId);
+            affectedRows = store().delete(userId);
+            invalidateUser(userId);
             if (affectedRows == 1) {
+                RecipeDAO.authorChanged(userId, null);
                 logger.info("User (id={}) deleted successfully.", userId);
             }
         } catch (SQLException e) {
-            logger.error("Error executing query: {}", sql, e);
+            logger.error("Error deleting user (id={}).", userId, e);
         }
         return affectedRows;
     }
 
     public static int deleteUser(User user) {
-        String sql = """
-                DELETE FROM users WHERE id = ?
-                """;
-
         int affectedRows = 0;
-        DatabaseConnector db = DatabaseConnector.getInstance();
         try {
-            affectedRows = db.executeUpdate(sql, user.getId());
+            affectedRows = store().delete(user.getId());
+            invalidateUser(user.getId());
+            if (affectedRows == 1) {
+                RecipeDAO.authorChanged(user.getId(), null);
+            }
         } catch (SQLException e) {
-            logger.error("Error executing query: {}", sql, e);
+            logger.error("Error deleting user {}.", user, e);
         }
         return affectedRows;
     }
 
     /**
-     * Retrieves a user by username.
+     * Retrieves a user by username, served from the user cache when possible. Inside a read-write transaction the
+     * cache is bypassed, so rows that may still be rolled back are never cached.
      * @param username The username of the user to retrieve.
-     * @return A User object if found, null otherwise.
+     * @return A User object if found, null otherwise. Its liked recipes are loaded on first access.
      */
     public static User getUserByUsername(String username) {
-        String sql = """
-            SELECT * FROM users WHERE username = ?
-            """;
-        DatabaseConnector db = DatabaseConnector.getInstance();
-
-        try (ResultSet rs = db.executeQuery(sql, username)) {
-            if (rs.next()) {
-                User user = new User();
-                user.setId(rs.getInt("id"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setLikedRecipes(getUserLikedRecipe(user.getId()));
-                return user;
-            } else {
-                logger.warn("Username not found: `{}`, returning null.", username);
-                return null;
-            }
-        } catch (SQLException e) {
-            logger.error("Error executing query: {}", sql, e);
+        if (Storage.get().isInWriteTransaction()) {
+            Integer id = loadUserIdByUsername(username);
+            return id != null ? getUserById(id) : null;
+        }
+        Integer id = userIdsByUsername.get(username, UserDAO::loadUserIdByUsername);
+        if (id == null) {
+            logger.debug("Username not found: `{}`, returning null.", username);
             return null;
         }
+        User user = getUserById(id);
+        if (user == null || !username.equals(user.getUsername())) {
+            // Renamed or deleted by another client since the id was cached.
+            userIdsByUsername.invalidate(username);
+            Integer freshId = loadUserIdByUsername(username);
+            user = freshId != null ? getUserById(freshId) : null;
+        }
+        return user;
     }
 
     /**
-     * Retrieves a user by their ID.
+     * Retrieves a user by their ID, served from the user cache when possible, but not inside a read-write transaction.
      * @param id The ID of the user to retrieve.
-     * @return A User object if found, null otherwise.
+     * @return A User object if found, null otherwise. Its liked recipes are loaded on first access.
      */
     public static User getUserById(int id) {
-        String sql = """
-            SELECT * FROM users WHERE id = ?
-            """;
-        DatabaseConnector db = DatabaseConnector.getInstance();
-
-        try (ResultSet rs = db.executeQuery(sql, id)) {
-            if (rs.next()) {
-                User user = new User();
-                user.setId(rs.getInt("id"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setLikedRecipes(getUserLikedRecipe(user.getId()));
-                logger.info("User {} found by id.", user);
-                return user;
+        User user = Storage.get().isInWriteTransaction() ? loadUserById(id) : userCache.get(id, UserDAO::loadUserById);
+        return user != null ? detachedCopy(user) : null;
+    }
+
+    /**
+     * @return Hit rate, eviction count and load latency of the user-by-id cache.
+     */
+    public static CacheStats getUserCacheStats() {
+        return userCache.stats();
+    }
+
+    private static Integer loadUserIdByUsername(String username) {
+        try {
+            return store().findIdByUsername(username);
+        } catch (SQLException e) {
+            logger.error("Error looking up id of user `{}`.", username, e);
+            return null;
+        }
+    }
+
+    private static User loadUserById(int id) {
+        try {
+            User user = store().findById(id);
+            if (user != null) {
+                logger.debug("User {} found by id.", user);
             } else {
                 logger.warn("User id not found: {}", id);
-                return null;
             }
+            return user;
         } catch (SQLException e) {
-            logger.error("Error executing query: {}", sql, e);
+            logger.error("Error looking up user (id={}).", id, e);
             return null;
         }
     }
 
+    /**
+     * Copies a cached user so callers can modify it freely; liked recipes are fetched only if the copy asks for them.
+     */
+    private static User detachedCopy(User user) {
+        User copy = new User(user);
+        copy.setLikedRecipesLoader(() -> getUserLikedRecipe(copy.getId()));
+        return copy;
+    }
+
+    /**
+     * Drops all cached users, e.g. after switching to another backend.
+     */
+    static void clearCaches() {
+        userCache.invalidateAll();
+        userIdsByUsername.invalidateAll();
+    }
+
+    private static UserStore store() {
+        return Storage.get().users();
+    }
+
+    /**
+     * Drops a changed user from the caches once the change is committed, so no reader caches the old row again.
+     */
+    private static void invalidateUser(int userId) {
+        Storage.get().afterCommit(() -> {
+            userCache.invalidate(userId);
+            userIdsByUsername.invalidateIf((username, id) -> id == userId);
+        });
+    }
+
+    /**
+     * Looks up the usernames for a set of user ids in as few queries as the backend allows.
+     * @param ids The user ids to resolve.
+     * @return Map of user id to username; ids without a matching user are absent.
+     * @throws UncheckedSQLException If the lookup failed; an empty map would be taken for users that do not exist.
+     */
+    public static Map<Integer, String> getUsernamesByIds(Collection<Integer> ids) {
+        try {
+            return store().findUsernames(ids);
+        } catch (SQLException e) {
+            logger.error("Error looking up usernames of {} users.", ids.size(), e);
+            throw new UncheckedSQLException(e);
+        }
+    }
+
     public static boolean usernameExists(String username) {
         return getUserByUsername(username) != null;
     }
 
-    public static Set<Integer> getUserLikedRecipe(int id) {
-        Set<Integer> rv = new HashSet<>();
-        String sql = """
-                SELECT recipeId FROM user_likes WHERE userId = ?
-                """;
-        DatabaseConnector db = DatabaseConnector.getInstance();
-        try (ResultSet rs = db.executeQuery(sql, id)) {
-            while (rs.next()) {
-                rv.add(rs.getInt("recipeId"));
-            }
+    /**
+     * Looks up every recipe a user likes, including likes not yet written to the database.
+     * @param id The user.
+     * @return The ids of the liked recipes.
+     * @throws UncheckedSQLException If the likes could not be read; an empty set would be taken for the user's likes.
+     */
+    public static IntSet getUserLikedRecipe(int id) {
+        try {
+            return likes.overlay(id, store().findLikedRecipeIds(id), null);
+        } catch (SQLException e) {
+            logger.error("Error looking up recipes liked by user (id={}).", id, e);
+            throw new UncheckedSQLException(e);
+        }
+    }
+
+    /**
+     * Looks up which of a batch of recipes a user likes in as few queries as the backend allows, e.g. for every row
+     * of a page about to be displayed.
+     * @param userId The user.
+     * @param recipeIds The recipes to check.
+     * @return The ids among {@code recipeIds} that the user likes, including likes not yet written to the database.
+     */
+    public static IntSet getLikedRecipeIds(int userId, Collection<Integer> recipeIds) {
+        try {
+            return likes.overlay(userId, store().findLikedRecipeIds(userId, recipeIds), recipeIds);
         } catch (SQLException e) {
-            logger.error("Error executing query: {}", sql, e);
+            logger.error("Error looking up liked state of {} recipes for user (id={}).", recipeIds.size(), userId, e);
+            return likes.overlay(userId, new IntSet(), recipeIds);
+        }
+    }
+
+    /**
+     * Likes a recipe on behalf of a user. The user's liked recipes and the recipe's like count change at once; the
+     * database is updated in the background, where repeated toggles of the same recipe end up as a single write.
+     * Liking a recipe the user already likes does nothing.
+     * @param user The user liking the recipe.
+     * @param recipeId The recipe.
+     * @throws UncheckedSQLException If the user's liked recipes had yet to be loaded and could not be read, in which
+     * case nothing changed.
+     */
+    public static void likeRecipe(User user, int recipeId) {
+        if (user.addLikedRecipe(recipeId)) {
+            long sequence = likes.set(user.getId(), recipeId, true);
+            RecipeDAO.recordLike(user.getId(), recipeId, true, null, sequence);
+        }
+    }
+
+    /**
+     * Withdraws a user's like of a recipe, written to the database in the background like {@link #likeRecipe}.
+     * @param user The user.
+     * @param recipeId The recipe no longer liked.
+     * @throws UncheckedSQLException If the user's liked recipes had yet to be loaded and could not be read.
+     */
+    public static void unlikeRecipe(User user, int recipeId) {
+        if (user.removeLikedRecipe(recipeId)) {
+            LocalDate likedOn = likeDay(user.getId(), recipeId);
+            long sequence = likes.set(user.getId(), recipeId, false);
+            RecipeDAO.recordLike(user.getId(), recipeId, false, likedOn, sequence);
         }
-        return rv;
+    }
+
+    /**
+     * The day a like being withdrawn was made, so that trending counts take it back from that day: today if it is
+     * still waiting to be written, otherwise as stored.
+     */
+    private static LocalDate likeDay(int userId, int recipeId) {
+        if (!likes.isPending(userId, recipeId, true)) {
+            try {
+                LocalDate stored = store().findLikeDays(userId, List.of(recipeId)).get(recipeId);
+                if (stored != null) {
+                    return stored;
+                }
+            } catch (SQLException e) {
+                logger.warn("Unable to look up when user (id={}) liked recipe {}, counting it as today.", userId, recipeId, e);
+            }
+        }
+        return LocalDate.now();
+    }
+
+    /**
+     * Writes pending likes and unlikes now instead of at the next background flush, e.g. before shutting down.
+     */
+    public static void flushLikes() {
+        likes.flush();
+    }
+
+    /**
+     * Reads stored likes together with the likes and unlikes not written yet, see
+     * {@link LikeWriteBuffer#snapshot(LikeWriteBuffer.SnapshotRead)}.
+     */
+    static <T> LikeWriteBuffer.Snapshot<T> snapshotLikes(LikeWriteBuffer.SnapshotRead<T> read) throws SQLException {
+        return likes.snapshot(read);
     }
 }
@@ -0,0 +1,99 @@
+package com.github.matthewdesouza.recipeapp.database;
+
+import com.github.matthewdesouza.recipeapp.collection.IntSet;
+import com.github.matthewdesouza.recipeapp.model.User;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persistence of users for one {@link StorageBackend}. Passwords are only ever stored and returned hashed.
+ *
+ * @see UserDAO
+ */
+public interface UserStore {
+    /**
+     * @return The generated id.
+     * @throws SQLException If the username is taken or the user could not be stored.
+     */
+    int insert(String username, String passwordHash) throws SQLException;
+
+    /**
+     * @return The user with its password hash, or null if there is no such username.
+     */
+    User findByUsername(String username) throws SQLException;
+
+    /**
+     * @return The user's id, or null if there is no such username.
+     */
+    Integer findIdByUsername(String username) throws SQLException;
+
+    /**
+     * @return The user with its password hash, or null if it does not exist.
+     */
+    User findById(int id) throws SQLException;
+
+    /**
+     * @throws SQLException If the username is taken by another user.
+     */
+    int updateUsername(int id, String username) throws SQLException;
+
+    int updatePassword(int id, String passwordHash) throws SQLException;
+
+    /**
+     * Replaces a password hash only if it still is {@code expectedHash}.
+     *
+     * @return 1 if the hash was replaced, 0 otherwise.
+     */
+    int replacePassword(int id, String expectedHash, String newHash) throws SQLException;
+
+    /**
+     * @throws SQLException If recipes or likes still refer to the user.
+     */
+    int delete(int id) throws SQLException;
+
+    /**
+     * @return Map of user id to username; ids without a matching user are absent.
+     */
+    Map<Integer, String> findUsernames(Collection<Integer> ids) throws SQLException;
+
+    IntSet findLikedRecipeIds(int userId) throws SQLException;
+
+    /**
+     * @return The ids among {@code recipeIds} that the user likes.
+     */
+    IntSet findLikedRecipeIds(int userId, Collection<Integer> recipeIds) throws SQLException;
+
+    /**
+     * @return The day each recipe among {@code recipeIds} that the user likes was liked on, by recipe id.
+     */
+    Map<Integer, LocalDate> findLikeDays(int userId, Collection<Integer> recipeIds) throws SQLException;
+
+    /**
+     * Applies likes and unlikes in one transaction. Liking a recipe twice, or unliking one that is not liked, is not
+     * an error.
+     *
+     * @throws SQLException If a like refers to a user or recipe that does not exist, or the changes could not be
+     *                      written; none of them are applied in that case.
+     */
+    void writeLikes(Collection<LikeChange> changes) throws SQLException;
+
+    /**
+     * @return Number of likes per recipe id, for recipes liked at least once.
+     */
+    Map<Integer, Integer> countLikes() throws SQLException;
+
+    /**
+     * @param since First day to count.
+     * @return Number of likes per recipe id for each day from {@code since} on, by the day the like was made.
+     */
+    Map<LocalDate, Map<Integer, Integer>> countLikesPerDay(LocalDate since) throws SQLException;
+
+    /**
+     * @return Liked recipe ids by user id, for users who like at least one recipe.
+     */
+    Map<Integer, IntSet> findAllLikedRecipeIds() throws SQLException;
+}
@@ -0,0 +1,18 @@
+package com.github.matthewdesouza.recipeapp.database.exception;
+
+import java.sql.SQLException;
+
+/**
+ * Wraps a {@link SQLException} thrown where only unchecked exceptions can pass, e.g. out of an index source, so that
+ * the failure reaches the caller instead of reading as an empty result.
+ */
+public class UncheckedSQLException extends RuntimeException {
+    public UncheckedSQLException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
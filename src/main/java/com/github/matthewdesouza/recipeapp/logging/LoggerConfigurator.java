@@ -1,25 +1,56 @@
 package com.github.matthewdesouza.recipeapp.logging;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.core.joran.spi.JoranException;
+import ch.qos.logback.core.util.StatusPrinter;
+import com.github.matthewdesouza.recipeapp.AppDirectories;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.File;
+import java.net.URL;
 
 public class LoggerConfigurator {
-    public static void configureLogging() {
-        String os = System.getProperty("os.name").toLowerCase();
-        String userHome = System.getProperty("user.home");
+    private static final String CONFIGURATION = "/com/github/matthewdesouza/recipeapp/logback.xml";
 
-        if (os.contains("win")) {
-            // Windows
-            System.setProperty("LOGS_HOME", userHome + "\\AppData\\Roaming\\recipe-app\\logs");
-        } else if (os.contains("mac")) {
-            // macOS
-            System.setProperty("LOGS_HOME", userHome + "/Library/Application Support/recipe-app/logs");
-        } else {
-            // Assume Linux/Unix
-            System.setProperty("LOGS_HOME", userHome + "/.config/recipe-app/logs");
-        }
+    /**
+     * Points logback at the application's log directory and applies the bundled logback.xml, which writes through
+     * an async appender to rolling, compressed files.
+     */
+    public static void configureLogging() {
+        System.setProperty("LOGS_HOME", AppDirectories.configHome().resolve("logs").toString());
         File logDir = new File(System.getProperty("LOGS_HOME"));
         if (!logDir.exists()) {
             logDir.mkdirs();
         }
+
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        URL configuration = LoggerConfigurator.class.getResource(CONFIGURATION);
+        try {
+            JoranConfigurator configurator = new JoranConfigurator();
+            configurator.setContext(context);
+            context.reset();
+            configurator.doConfigure(configuration);
+        } catch (JoranException e) {
+            // Logback has recorded the cause in its status; it is printed below.
+        }
+        StatusPrinter.printInCaseOfErrorsOrWarnings(context);
+    }
+
+    /**
+     * Changes a logger's level while the application runs, e.g. to turn on debug output for one package.
+     *
+     * @param loggerName Logger to change, or {@link Logger#ROOT_LOGGER_NAME} for all of them.
+     * @param level      TRACE, DEBUG, INFO, WARN, ERROR or OFF; null makes the logger inherit its parent's level.
+     */
+    public static void setLevel(String loggerName, String level) {
+        Level parsed = level == null ? null : Level.toLevel(level, null);
+        if (level != null && parsed == null) {
+            throw new IllegalArgumentException("Unknown log level `%s`.".formatted(level));
+        }
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.getLogger(loggerName).setLevel(parsed);
     }
-}
\ No newline at end of file
+}
@@ -8,10 +8,21 @@ public class Recipe {
     private String content;
     private String imageUri;
     private int userId;
+    // Denormalized from `users`, only filled in by queries that join the author; not part of equality.
+    private String authorUsername;
 
     public Recipe() {
     }
 
+    public Recipe(Recipe other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.content = other.content;
+        this.imageUri = other.imageUri;
+        this.userId = other.userId;
+        this.authorUsername = other.authorUsername;
+    }
+
     public int getId() {
         return id;
     }
@@ -52,6 +63,14 @@ public class Recipe {
         this.userId = userId;
     }
 
+    public String getAuthorUsername() {
+        return authorUsername;
+    }
+
+    public void setAuthorUsername(String authorUsername) {
+        this.authorUsername = authorUsername;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
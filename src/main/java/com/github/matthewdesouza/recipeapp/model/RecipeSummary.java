@@ -0,0 +1,61 @@
+package com.github.matthewdesouza.recipeapp.model;
+
+import java.util.Objects;
+
+/**
+ * Lightweight, read-only view of a recipe for list displays; it carries no content or image.
+ * Use {@link com.github.matthewdesouza.recipeapp.database.RecipeDAO#getRecipeByRecipeId(int)} to load the full recipe.
+ */
+public class RecipeSummary {
+    private final int id;
+    private final String title;
+    private final int userId;
+    // Denormalized from `users`, null when the author does not exist; not part of equality.
+    private final String authorUsername;
+
+    public RecipeSummary(int id, String title, int userId, String authorUsername) {
+        this.id = id;
+        this.title = title;
+        this.userId = userId;
+        this.authorUsername = authorUsername;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getAuthorUsername() {
+        return authorUsername;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RecipeSummary that = (RecipeSummary) o;
+        return id == that.id && userId == that.userId && Objects.equals(title, that.title);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, title, userId);
+    }
+
+    @Override
+    public String toString() {
+        return "RecipeSummary{" +
+                "id=" + id +
+                ", title='" + title + '\'' +
+                ", userId=" + userId +
+                ", authorUsername='" + authorUsername + '\'' +
+                '}';
+    }
+}
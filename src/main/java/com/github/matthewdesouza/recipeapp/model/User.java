@@ -1,11 +1,15 @@
 package com.github.matthewdesouza.recipeapp.model;
 
-import java.util.HashSet;
+import com.github.matthewdesouza.recipeapp.collection.IntSet;
+
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Supplier;
 
 public class User {
-    private Set<Integer> likedRecipes;
+    private IntSet likedRecipes;
+    // Fetches likedRecipes on first access, null once loaded or when the set was given directly.
+    private Supplier<? extends Set<Integer>> likedRecipesLoader;
     private int id;
     private String username;
     private String password;
@@ -13,13 +17,23 @@ public class User {
     public User(String username, String password) {
         this.username = username;
         this.password = password;
-        this.likedRecipes = new HashSet<>();
+        this.likedRecipes = new IntSet();
     }
 
     public User() {
         this(null, null);
     }
 
+    /**
+     * Copies the identity of another user; the liked recipes are not copied.
+     *
+     * @param other User to copy.
+     */
+    public User(User other) {
+        this(other.username, other.password);
+        this.id = other.id;
+    }
+
     public int getId() {
         return id;
     }
@@ -44,20 +58,58 @@ public class User {
         this.password = password;
     }
 
-    public Set<Integer> getLikedRecipes() {
+    /**
+     * Loads the liked recipes first if they were deferred with {@link #setLikedRecipesLoader(Supplier)}. If the loader
+     * throws, the exception is passed on and the loader kept, so the next call tries again rather than taking the
+     * user for liking nothing.
+     *
+     * @return The ids of the recipes this user likes, as a primitive set the caller may modify.
+     */
+    public IntSet getLikedRecipes() {
+        if (likedRecipesLoader != null) {
+            likedRecipes = toIntSet(likedRecipesLoader.get());
+            likedRecipesLoader = null;
+        }
         return likedRecipes;
     }
 
+    /**
+     * @param likedRecipes Ids of the liked recipes; used as-is if it is an {@link IntSet}, copied otherwise.
+     */
     public void setLikedRecipes(Set<Integer> likedRecipes) {
-        this.likedRecipes = likedRecipes;
+        this.likedRecipes = toIntSet(likedRecipes);
+        this.likedRecipesLoader = null;
+    }
+
+    /**
+     * Checks a recipe's liked state without boxing, e.g. for every row being rendered.
+     */
+    public boolean likesRecipe(int recipeId) {
+        return getLikedRecipes().contains(recipeId);
     }
 
-    public void addLikedRecipe(int recipeId) {
-        this.likedRecipes.add(recipeId);
+    /**
+     * Defers loading the liked recipes until {@link #getLikedRecipes()} is first called.
+     *
+     * @param likedRecipesLoader Supplies the liked recipe ids.
+     */
+    public void setLikedRecipesLoader(Supplier<? extends Set<Integer>> likedRecipesLoader) {
+        this.likedRecipes = null;
+        this.likedRecipesLoader = likedRecipesLoader;
     }
 
-    public void removeLikedRecipe(int recipeId) {
-        this.likedRecipes.remove(recipeId);
+    /**
+     * @return Whether the recipe was not liked before.
+     */
+    public boolean addLikedRecipe(int recipeId) {
+        return getLikedRecipes().add(recipeId);
+    }
+
+    /**
+     * @return Whether the recipe was liked before.
+     */
+    public boolean removeLikedRecipe(int recipeId) {
+        return getLikedRecipes().remove(recipeId);
     }
 
     @Override
@@ -80,4 +132,8 @@ public class User {
                 ", username='" + username + '\'' +
                 '}';
     }
+
+    private static IntSet toIntSet(Set<Integer> values) {
+        return values instanceof IntSet intSet ? intSet : IntSet.copyOf(values);
+    }
 }
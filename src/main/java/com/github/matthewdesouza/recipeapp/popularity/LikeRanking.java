@@ -0,0 +1,82 @@
+package com.github.matthewdesouza.recipeapp.popularity;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Like counters by recipe id, also kept in a skip list sorted by count, so the top of the ranking is read in order
+ * without sorting. Recipes whose count drops to zero or below leave the ranking.
+ * <p>
+ * Each counter is updated atomically with its ranking entry; reads never block.
+ */
+final class LikeRanking {
+    private record Entry(int recipeId, int likes) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::likes).reversed()
+            .thenComparingInt(Entry::recipeId);
+
+    private final ConcurrentHashMap<Integer, Integer> counts = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+
+    void add(int recipeId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        counts.compute(recipeId, (id, previous) -> {
+            int old = previous != null ? previous : 0;
+            int updated = old + delta;
+            // The new entry goes in before the old one is taken out, so a concurrent reader never misses the recipe.
+            if (updated > 0) {
+                ranking.add(new Entry(id, updated));
+            }
+            if (old > 0) {
+                ranking.remove(new Entry(id, old));
+            }
+            return updated != 0 ? updated : null;
+        });
+    }
+
+    void remove(int recipeId) {
+        counts.computeIfPresent(recipeId, (id, likes) -> {
+            ranking.remove(new Entry(id, likes));
+            return null;
+        });
+    }
+
+    int count(int recipeId) {
+        return counts.getOrDefault(recipeId, 0);
+    }
+
+    /**
+     * @return Up to {@code limit} recipes with the most likes, most first; ties in id order.
+     */
+    List<RankedRecipe> top(int limit) {
+        List<RankedRecipe> top = new ArrayList<>(Math.min(limit, 64));
+        Set<Integer> seen = new HashSet<>();
+        for (Entry entry : ranking) {
+            if (top.size() == limit) {
+                break;
+            }
+            // Skips the older entry of a recipe caught mid-update.
+            if (seen.add(entry.recipeId())) {
+                top.add(new RankedRecipe(entry.recipeId(), entry.likes()));
+            }
+        }
+        return top;
+    }
+
+    int size() {
+        return ranking.size();
+    }
+
+    void clear() {
+        counts.clear();
+        ranking.clear();
+    }
+}
@@ -0,0 +1,205 @@
+package com.github.matthewdesouza.recipeapp.popularity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Like counts per recipe, all time and over the last {@value #TRENDING_DAYS} days, kept in memory so that "most liked"
+ * and "trending" lists never have to count {@code user_likes}.
+ * <p>
+ * The index is filled once from a {@link LikeSource} and then kept current through {@link #recordLike(int)} and
+ * {@link #recordUnlike(int, LocalDate)}. Trending counts are the likes made during the window that still stand, kept
+ * in one bucket per day by the day the like was made, which is how a build counts them too: an unlike takes its like
+ * back from the bucket of that day, or only from the all-time count if the like is older than the window. When a day
+ * leaves the window its bucket is subtracted again. Both rankings are sorted as they are updated, so reading the top
+ * {@code n} costs O(n) however many recipes are liked. Writes are serialized; reads never block.
+ */
+public final class PopularityIndex {
+    private static final Logger log = LoggerFactory.getLogger(PopularityIndex.class);
+
+    public static final int TRENDING_DAYS = 7;
+
+    /**
+     * Supplies the like counts stored in the database for the initial build.
+     */
+    @FunctionalInterface
+    public interface LikeSource {
+        /**
+         * @param since First day to count likes per day for.
+         * @return The like counts, read from one snapshot.
+         */
+        LikeCounts read(LocalDate since);
+    }
+
+    /**
+     * @param total  Number of likes per recipe id.
+     * @param perDay Number of likes per recipe id for each day from the requested one on.
+     */
+    public record LikeCounts(Map<Integer, Integer> total, Map<LocalDate, Map<Integer, Integer>> perDay) {
+    }
+
+    private final Clock clock;
+    private final LikeRanking allTime = new LikeRanking();
+    private final LikeRanking trending = new LikeRanking();
+
+    // All guarded by `this`; the bucket of a day is at its epoch day modulo TRENDING_DAYS.
+    private final List<Map<Integer, Integer>> days;
+    private boolean built;
+    private volatile LocalDate today;
+
+    public PopularityIndex() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param clock Clock deciding which day a like counts for.
+     */
+    public PopularityIndex(Clock clock) {
+        this.clock = clock;
+        this.days = Stream.<Map<Integer, Integer>>generate(HashMap::new).limit(TRENDING_DAYS).toList();
+        this.today = LocalDate.now(clock);
+    }
+
+    /**
+     * Fills the index from the given source on the first call. Likes recorded concurrently wait for the build; the
+     * caller must only record those the source did not return.
+     * <p>
+     * If the source throws, the index stays empty and the next call tries again.
+     *
+     * @param source Source of the stored likes.
+     */
+    public synchronized void ensureBuilt(LikeSource source) {
+        if (built) {
+            return;
+        }
+        long start = System.nanoTime();
+        LocalDate now = LocalDate.now(clock);
+        LocalDate since = now.minusDays(TRENDING_DAYS - 1);
+        LikeCounts counts = source.read(since);
+        clearCounts();
+        today = now;
+
+        counts.total().forEach(allTime::add);
+        counts.perDay().forEach((day, likesByRecipe) -> {
+            if (!day.isBefore(since) && !day.isAfter(now)) {
+                Map<Integer, Integer> bucket = bucket(day);
+                likesByRecipe.forEach((recipeId, likes) -> {
+                    bucket.merge(recipeId, likes, Integer::sum);
+                    trending.add(recipeId, likes);
+                });
+            }
+        });
+        built = true;
+        log.info("Popularity index built in {} ms, {} recipes liked.", (System.nanoTime() - start) / 1_000_000, allTime.size());
+    }
+
+    /**
+     * @return Whether {@link #ensureBuilt(LikeSource)} has run, i.e. whether individual likes are worth recording.
+     */
+    public synchronized boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Empties the index, so that the next {@link #ensureBuilt(LikeSource)} builds it again, e.g. from another database.
+     */
+    public synchronized void clear() {
+        built = false;
+        clearCounts();
+    }
+
+    public synchronized void recordLike(int recipeId) {
+        roll();
+        allTime.add(recipeId, 1);
+        addToDay(today, recipeId, 1);
+    }
+
+    /**
+     * @param likedOn Day the withdrawn like was made.
+     */
+    public synchronized void recordUnlike(int recipeId, LocalDate likedOn) {
+        roll();
+        allTime.add(recipeId, -1);
+        if (!likedOn.isAfter(today) && likedOn.isAfter(today.minusDays(TRENDING_DAYS))) {
+            addToDay(likedOn, recipeId, -1);
+        }
+    }
+
+    /**
+     * Forgets a deleted recipe.
+     */
+    public synchronized void remove(int recipeId) {
+        allTime.remove(recipeId);
+        trending.remove(recipeId);
+        days.forEach(bucket -> bucket.remove(recipeId));
+    }
+
+    /**
+     * @param limit Maximum number of recipes.
+     * @return The recipes with the most likes of all time, most first.
+     */
+    public List<RankedRecipe> mostLiked(int limit) {
+        return allTime.top(limit);
+    }
+
+    /**
+     * @param limit Maximum number of recipes.
+     * @return The recipes with the most likes made over the last {@value #TRENDING_DAYS} days including today and
+     * not withdrawn since, most first.
+     */
+    public List<RankedRecipe> trending(int limit) {
+        if (!LocalDate.now(clock).equals(today)) {
+            synchronized (this) {
+                roll();
+            }
+        }
+        return trending.top(limit);
+    }
+
+    /**
+     * @return All-time likes of a recipe.
+     */
+    public int likes(int recipeId) {
+        return allTime.count(recipeId);
+    }
+
+    private void addToDay(LocalDate day, int recipeId, int delta) {
+        bucket(day).merge(recipeId, delta, (likes, change) -> likes + change != 0 ? likes + change : null);
+        trending.add(recipeId, delta);
+    }
+
+    /**
+     * Moves the window forward to the current day, subtracting the days that left it.
+     */
+    private void roll() {
+        LocalDate now = LocalDate.now(clock);
+        LocalDate day = today;
+        // The bucket of the day entering the window is the one of the day leaving it.
+        for (int i = 0; i < TRENDING_DAYS && day.isBefore(now); i++) {
+            day = day.plusDays(1);
+            Map<Integer, Integer> expired = bucket(day);
+            expired.forEach((recipeId, likes) -> trending.add(recipeId, -likes));
+            expired.clear();
+        }
+        if (now.isAfter(today)) {
+            today = now;
+        }
+    }
+
+    private Map<Integer, Integer> bucket(LocalDate day) {
+        return days.get(Math.floorMod(day.toEpochDay(), TRENDING_DAYS));
+    }
+
+    private void clearCounts() {
+        allTime.clear();
+        trending.clear();
+        days.forEach(Map::clear);
+    }
+}
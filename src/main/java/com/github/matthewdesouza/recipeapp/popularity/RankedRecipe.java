@@ -0,0 +1,10 @@
+package com.github.matthewdesouza.recipeapp.popularity;
+
+/**
+ * A recipe in a popularity ranking.
+ *
+ * @param recipeId Id of the recipe.
+ * @param likes    Number of likes it is ranked by.
+ */
+public record RankedRecipe(int recipeId, int likes) {
+}
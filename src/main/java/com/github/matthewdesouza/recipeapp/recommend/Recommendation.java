@@ -0,0 +1,11 @@
+package com.github.matthewdesouza.recipeapp.recommend;
+
+/**
+ * A recipe suggested by the {@link RecommendationIndex}.
+ *
+ * @param recipeId Id of the recipe.
+ * @param score    Cosine similarity to the recipe asked about, or its sum over the liked recipes a user's suggestions
+ *                 are based on; higher is better.
+ */
+public record Recommendation(int recipeId, double score) {
+}
@@ -0,0 +1,361 @@
+package com.github.matthewdesouza.recipeapp.recommend;
+
+import com.github.matthewdesouza.recipeapp.collection.IntIntMap;
+import com.github.matthewdesouza.recipeapp.collection.IntSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "People who liked this also liked" recommendations from item-item collaborative filtering over {@code user_likes}.
+ * <p>
+ * For every recipe the index keeps how many users liked it and, sparsely, how many users liked it together with each
+ * other recipe. The similarity of two recipes is the cosine of their like vectors, i.e. their co-likes divided by the
+ * geometric mean of their like counts, so a recipe everyone likes does not end up similar to everything. A user's
+ * suggestions add up the similarities of the {@value #MAX_SEEDS} newest recipes they like, i.e. those with the highest
+ * ids, whenever they were liked.
+ * <p>
+ * The index is filled once from a {@link LikeSource}, counting pairs on a {@link ForkJoinPool} with every task owning
+ * a disjoint share of the recipes, so no counts have to be merged or locked. It is then kept current through
+ * {@link #recordLike(int, int)} and {@link #recordUnlike(int, int)}, each of which touches one count per other recipe
+ * the user likes. A query reads only the co-likes of the recipes it starts from. Reads run concurrently; writes take
+ * an exclusive lock for the duration of a single like.
+ */
+public final class RecommendationIndex {
+    private static final Logger log = LoggerFactory.getLogger(RecommendationIndex.class);
+
+    static final int MAX_SEEDS = 64;
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private static final Comparator<Recommendation> BEST_FIRST = Comparator
+            .comparingDouble(Recommendation::score).reversed()
+            .thenComparingInt(Recommendation::recipeId);
+
+    /**
+     * Supplies the likes stored in the database for the initial build.
+     */
+    @FunctionalInterface
+    public interface LikeSource {
+        /**
+         * @return Liked recipe ids by user id. The index takes ownership of the returned sets.
+         */
+        Map<Integer, IntSet> likesByUser();
+    }
+
+    private final ForkJoinPool pool;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All guarded by `lock`.
+    private final Map<Integer, IntIntMap> coLikes = new HashMap<>();
+    private final IntIntMap likeCounts = new IntIntMap();
+    private final Map<Integer, IntSet> likesByUser = new HashMap<>();
+    private volatile boolean built;
+
+    public RecommendationIndex() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool Pool counting co-likes during the initial build.
+     */
+    public RecommendationIndex(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Fills the index from the given source on the first call; later calls wait for that build to finish. Likes
+     * recorded while the build runs wait for it as well, and recording a like the source already returned changes
+     * nothing, so none is counted twice or lost.
+     * <p>
+     * If the source throws, the index stays empty and the next call tries again.
+     *
+     * @param source Source of the stored likes.
+     */
+    public void ensureBuilt(LikeSource source) {
+        if (built) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (built) {
+                return;
+            }
+            long start = System.nanoTime();
+            Map<Integer, IntSet> stored = source.likesByUser();
+            clearCounts();
+            likesByUser.putAll(stored);
+            int[][] users = likesByUser.values().stream().map(IntSet::toIntArray).toArray(int[][]::new);
+
+            Partition[] partitions = new Partition[Math.max(1, pool.getParallelism()) * PARTITIONS_PER_THREAD];
+            pool.invoke(new CountTask(users, partitions, 0, partitions.length));
+            for (Partition partition : partitions) {
+                coLikes.putAll(partition.coLikes());
+                partition.likeCounts().forEach(likeCounts::addTo);
+            }
+            built = true;
+            log.info("Recommendation index built in {} ms, {} users, {} recipes liked.",
+                    (System.nanoTime() - start) / 1_000_000, likesByUser.size(), likeCounts.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Whether {@link #ensureBuilt(LikeSource)} has run.
+     */
+    public boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Empties the index, so that the next {@link #ensureBuilt(LikeSource)} builds it again, e.g. from another database.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            built = false;
+            clearCounts();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts a like with the user's other likes. Does nothing before the index is built, as the build reads it from
+     * the source, or if the user already likes the recipe.
+     */
+    public void recordLike(int userId, int recipeId) {
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                return;
+            }
+            IntSet liked = likesByUser.computeIfAbsent(userId, id -> new IntSet());
+            if (liked.contains(recipeId)) {
+                return;
+            }
+            liked.forEachInt(other -> addCoLike(recipeId, other, 1));
+            liked.add(recipeId);
+            likeCounts.addTo(recipeId, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Takes back a like counted before. Does nothing before the index is built or if the user does not like the
+     * recipe.
+     */
+    public void recordUnlike(int userId, int recipeId) {
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                return;
+            }
+            IntSet liked = likesByUser.get(userId);
+            if (liked == null || !liked.remove(recipeId)) {
+                return;
+            }
+            liked.forEachInt(other -> addCoLike(recipeId, other, -1));
+            likeCounts.addTo(recipeId, -1);
+            if (liked.isEmpty()) {
+                likesByUser.remove(userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets a deleted recipe and its likes.
+     */
+    public void remove(int recipeId) {
+        lock.writeLock().lock();
+        try {
+            IntIntMap row = coLikes.remove(recipeId);
+            if (row != null) {
+                row.forEach((other, count) -> addToRow(other, recipeId, -count));
+            }
+            likeCounts.remove(recipeId);
+            likesByUser.values().forEach(liked -> liked.remove(recipeId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param recipeId Recipe to find similar recipes for.
+     * @param limit    Maximum number of recipes.
+     * @return The recipes most often liked by the users who liked {@code recipeId}, most similar first.
+     */
+    public List<Recommendation> similar(int recipeId, int limit) {
+        lock.readLock().lock();
+        try {
+            IntIntMap row = coLikes.get(recipeId);
+            if (row == null || limit <= 0) {
+                return List.of();
+            }
+            TopN top = new TopN(limit);
+            double likes = likeCounts.get(recipeId);
+            row.forEach((other, count) -> top.offer(other, cosine(count, likes, likeCounts.get(other))));
+            return top.toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param liked Ids of the recipes a user likes.
+     * @param limit Maximum number of recipes.
+     * @return Recipes the user does not like yet, ranked by their summed similarity to the {@value #MAX_SEEDS}
+     * liked recipes with the highest ids, best first.
+     */
+    public List<Recommendation> recommendFor(IntSet liked, int limit) {
+        if (liked.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // Ids grow with time, so the highest ids are the newest recipes; when they were liked is not known here.
+        int[] ids = liked.toIntArray();
+        int[] seeds = Arrays.copyOfRange(ids, Math.max(0, ids.length - MAX_SEEDS), ids.length);
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = new HashMap<>();
+            for (int seed : seeds) {
+                IntIntMap row = coLikes.get(seed);
+                if (row == null) {
+                    continue;
+                }
+                double likes = likeCounts.get(seed);
+                row.forEach((other, count) -> {
+                    if (!liked.contains(other)) {
+                        scores.merge(other, cosine(count, likes, likeCounts.get(other)), Double::sum);
+                    }
+                });
+            }
+            TopN top = new TopN(limit);
+            scores.forEach(top::offer);
+            return top.toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addCoLike(int recipeId, int other, int delta) {
+        if (recipeId == other) {
+            return;
+        }
+        addToRow(recipeId, other, delta);
+        addToRow(other, recipeId, delta);
+    }
+
+    private void addToRow(int recipeId, int other, int delta) {
+        IntIntMap row = coLikes.computeIfAbsent(recipeId, id -> new IntIntMap());
+        if (row.addTo(other, delta) == 0 && row.isEmpty()) {
+            coLikes.remove(recipeId);
+        }
+    }
+
+    private void clearCounts() {
+        coLikes.clear();
+        likeCounts.clear();
+        likesByUser.clear();
+    }
+
+    private static double cosine(int coLikes, double likes, int otherLikes) {
+        return coLikes / Math.sqrt(likes * otherLikes);
+    }
+
+    /**
+     * Co-likes and like counts of the recipes whose id falls into one partition.
+     */
+    private record Partition(Map<Integer, IntIntMap> coLikes, IntIntMap likeCounts) {
+    }
+
+    /**
+     * Counts the partitions in {@code [from, to)}, splitting the range in halves until each task has one. Every task
+     * reads all users but only counts pairs starting at a recipe of its own partition, so the partitions are disjoint.
+     */
+    private static final class CountTask extends RecursiveAction {
+        private final int[][] users;
+        private final Partition[] partitions;
+        private final int from;
+        private final int to;
+
+        CountTask(int[][] users, Partition[] partitions, int from, int to) {
+            this.users = users;
+            this.partitions = partitions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new CountTask(users, partitions, from, mid), new CountTask(users, partitions, mid, to));
+                return;
+            }
+            Map<Integer, IntIntMap> coLikes = new HashMap<>();
+            IntIntMap likeCounts = new IntIntMap();
+            for (int[] liked : users) {
+                for (int recipeId : liked) {
+                    if (Math.floorMod(recipeId, partitions.length) != from) {
+                        continue;
+                    }
+                    likeCounts.addTo(recipeId, 1);
+                    if (liked.length > 1) {
+                        IntIntMap row = coLikes.computeIfAbsent(recipeId, id -> new IntIntMap());
+                        for (int other : liked) {
+                            if (other != recipeId) {
+                                row.addTo(other, 1);
+                            }
+                        }
+                    }
+                }
+            }
+            partitions[from] = new Partition(coLikes, likeCounts);
+        }
+    }
+
+    /**
+     * Keeps the best {@code limit} recipes offered, in a heap whose head is the worst one kept.
+     */
+    private static final class TopN {
+        private final int limit;
+        private final PriorityQueue<Recommendation> heap;
+
+        TopN(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(limit, BEST_FIRST.reversed());
+        }
+
+        void offer(int recipeId, double score) {
+            if (heap.size() == limit) {
+                Recommendation worst = heap.peek();
+                if (score < worst.score() || (score == worst.score() && recipeId > worst.recipeId())) {
+                    return;
+                }
+                heap.poll();
+            }
+            heap.add(new Recommendation(recipeId, score));
+        }
+
+        List<Recommendation> toList() {
+            List<Recommendation> best = new ArrayList<>(heap);
+            best.sort(BEST_FIRST);
+            return best;
+        }
+    }
+}
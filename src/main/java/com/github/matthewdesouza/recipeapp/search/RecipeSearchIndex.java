@@ -0,0 +1,471 @@
+package com.github.matthewdesouza.recipeapp.search;
+
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+import com.github.matthewdesouza.recipeapp.model.RecipeSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over recipe titles and content.
+ * <p>
+ * Every term maps to a posting list of recipe ids sorted by id, with a per-recipe weight where a title occurrence
+ * counts {@value #TITLE_WEIGHT} times as much as one in the content. A query matches recipes containing all of its
+ * terms, the last term also matching as a prefix so results update while the user is still typing. Matches are ranked
+ * by a BM25-style score: rare terms count for more than common ones, and repeats of a term have diminishing returns.
+ * <p>
+ * The index is filled once from a {@link RecipeSource} and then kept current through {@link #index(Recipe)} and
+ * {@link #remove(int)}. Reads run concurrently; writes take an exclusive lock for the duration of a single recipe.
+ */
+public final class RecipeSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(RecipeSearchIndex.class);
+
+    static final int TITLE_WEIGHT = 3;
+    private static final int BUILD_PAGE_SIZE = 1_000;
+    private static final int MAX_PREFIX_EXPANSIONS = 256;
+    private static final float SATURATION = 1.2f;
+
+    /**
+     * Supplies recipes, including content, in id order for the initial build.
+     */
+    @FunctionalInterface
+    public interface RecipeSource {
+        /**
+         * @param afterId  Id of the last recipe of the previous page, 0 for the first page.
+         * @param pageSize Maximum number of recipes to return.
+         * @return The next recipes by id; fewer than {@code pageSize} means the end was reached.
+         */
+        List<Recipe> nextPage(int afterId, int pageSize);
+    }
+
+    /**
+     * Recipe ids sorted ascending, each with the weight of the term in that recipe.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private short[] weights = new short[4];
+        private int size;
+
+        void put(int doc, int weight) {
+            short clamped = (short) Math.min(weight, Short.MAX_VALUE);
+            // Recipes are mostly indexed in id order, so appending is the common case.
+            int index = size > 0 && docs[size - 1] < doc ? -(size + 1) : Arrays.binarySearch(docs, 0, size, doc);
+            if (index >= 0) {
+                weights[index] = clamped;
+                return;
+            }
+            index = -(index + 1);
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(docs, index, docs, index + 1, size - index);
+            System.arraycopy(weights, index, weights, index + 1, size - index);
+            docs[index] = doc;
+            weights[index] = clamped;
+            size++;
+        }
+
+        void remove(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index >= 0) {
+                System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+                System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+
+    /**
+     * Scored recipe ids, sorted by id.
+     */
+    private record Matches(int[] docs, float[] scores, int size) {
+    }
+
+    private record IndexedRecipe(RecipeSummary summary, String[] terms) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Integer, IndexedRecipe> recipes = new HashMap<>();
+
+    // Guarded by `this`.
+    private CompletableFuture<Void> build;
+    private Set<Integer> removedDuringBuild;
+
+    /**
+     * Fills the index from the given source on the first call; later calls wait for that build to finish.
+     * Recipes indexed or removed while the build runs take precedence over what the build reads.
+     *
+     * @param source Source of all recipes.
+     */
+    public void ensureBuilt(RecipeSource source) {
+        CompletableFuture<Void> pending;
+        boolean owner = false;
+        synchronized (this) {
+            if (build == null) {
+                build = new CompletableFuture<>();
+                removedDuringBuild = new HashSet<>();
+                owner = true;
+            }
+            pending = build;
+        }
+        if (!owner) {
+            pending.join();
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            int afterId = 0;
+            List<Recipe> page;
+            do {
+                page = source.nextPage(afterId, BUILD_PAGE_SIZE);
+                for (Recipe recipe : page) {
+                    indexFromBuild(recipe);
+                    afterId = recipe.getId();
+                }
+            } while (page.size() == BUILD_PAGE_SIZE);
+            synchronized (this) {
+                removedDuringBuild = null;
+            }
+            log.info("Search index built: {} recipes, {} terms in {} ms.",
+                    size(), termCount(), (System.nanoTime() - start) / 1_000_000);
+            pending.complete(null);
+        } catch (RuntimeException e) {
+            log.warn("Search index build failed, it is retried on the next search.", e);
+            synchronized (this) {
+                build = null; // Let the next caller retry.
+                removedDuringBuild = null;
+            }
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return Whether {@link #ensureBuilt(RecipeSource)} was called, i.e. whether individual updates are worth applying.
+     */
+    public synchronized boolean isStarted() {
+        return build != null;
+    }
+
+    /**
+     * Empties the index, so that the next {@link #ensureBuilt(RecipeSource)} builds it again, e.g. from another
+     * database. A build still running keeps filling the index, so this should only be called once it has finished.
+     */
+    public void clear() {
+        synchronized (this) {
+            build = null;
+            removedDuringBuild = null;
+        }
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            recipes.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a recipe, or replaces the indexed version of it.
+     *
+     * @param recipe Recipe with title and content.
+     */
+    public void index(Recipe recipe) {
+        lock.writeLock().lock();
+        try {
+            put(recipe);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param recipeId Id of a recipe that was deleted.
+     */
+    public void remove(int recipeId) {
+        synchronized (this) {
+            if (removedDuringBuild != null) {
+                removedDuringBuild.add(recipeId);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            delete(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Shows another name for an author in the results, e.g. after a rename.
+     *
+     * @param userId   Author of the recipes to update.
+     * @param username New name, or null if the author was deleted, whose recipes then read as the <unknown> user
+     *                 (id 0) like they do in the database.
+     */
+    public void updateAuthor(int userId, String username) {
+        lock.writeLock().lock();
+        try {
+            recipes.replaceAll((id, indexed) -> indexed.summary().getUserId() != userId ? indexed : new IndexedRecipe(
+                    new RecipeSummary(id, indexed.summary().getTitle(), username != null ? userId : 0, username),
+                    indexed.terms()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the recipes matching all terms of a query, the last term also matching as a prefix.
+     * <p>
+     * A term longer than {@value Tokenizer#MAX_TERM_LENGTH} characters is never indexed, so a query containing one
+     * matches nothing. A prefix matches through its {@value #MAX_PREFIX_EXPANSIONS} terms found in the most recipes.
+     *
+     * @param query Free text, e.g. "chocolate ca".
+     * @param limit Maximum number of results.
+     * @return Best matches first; ties are ordered by recipe id.
+     */
+    public List<RecipeSummary> search(String query, int limit) {
+        List<String> queryTerms = Tokenizer.tokenizeQuery(query);
+        if (queryTerms.isEmpty() || limit <= 0
+                || queryTerms.stream().anyMatch(term -> term.length() > Tokenizer.MAX_TERM_LENGTH)) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = recipes.size();
+            List<Matches> perTerm = new ArrayList<>(queryTerms.size());
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String term = queryTerms.get(i);
+                boolean last = i == queryTerms.size() - 1;
+                Matches matches = last ? prefixMatches(term, documentCount) : exactMatches(term, documentCount);
+                if (matches.size() == 0) {
+                    return List.of();
+                }
+                perTerm.add(matches);
+            }
+
+            // Intersect starting from the rarest term to keep intermediate results small.
+            perTerm.sort(Comparator.comparingInt(Matches::size));
+            Matches result = perTerm.get(0);
+            for (int i = 1; i < perTerm.size() && result.size() > 0; i++) {
+                result = intersect(result, perTerm.get(i));
+            }
+            return topResults(result, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of indexed recipes.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return recipes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void indexFromBuild(Recipe recipe) {
+        lock.writeLock().lock();
+        try {
+            synchronized (this) {
+                if (removedDuringBuild != null && removedDuringBuild.contains(recipe.getId())) {
+                    return;
+                }
+            }
+            if (!recipes.containsKey(recipe.getId())) {
+                put(recipe);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Recipe recipe) {
+        delete(recipe.getId());
+
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : Tokenizer.tokenize(recipe.getTitle())) {
+            weights.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : Tokenizer.tokenize(recipe.getContent())) {
+            weights.merge(term, 1, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), term -> new Postings()).put(recipe.getId(), entry.getValue());
+        }
+        RecipeSummary summary = new RecipeSummary(recipe.getId(), recipe.getTitle(), recipe.getUserId(), recipe.getAuthorUsername());
+        recipes.put(recipe.getId(), new IndexedRecipe(summary, weights.keySet().toArray(new String[0])));
+    }
+
+    private void delete(int recipeId) {
+        IndexedRecipe previous = recipes.remove(recipeId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms()) {
+            Postings postings = terms.get(term);
+            if (postings != null) {
+                postings.remove(recipeId);
+                if (postings.size == 0) {
+                    terms.remove(term);
+                }
+            }
+        }
+    }
+
+    private Matches exactMatches(String term, int documentCount) {
+        Postings postings = terms.get(term);
+        if (postings == null) {
+            return new Matches(new int[0], new float[0], 0);
+        }
+        float idf = idf(postings.size, documentCount);
+        float[] scores = new float[postings.size];
+        for (int i = 0; i < postings.size; i++) {
+            scores[i] = score(postings.weights[i], idf);
+        }
+        return new Matches(postings.docs, scores, postings.size);
+    }
+
+    private Matches prefixMatches(String prefix, int documentCount) {
+        List<Postings> expansions = commonestExpansions(prefix);
+        int total = 0;
+        for (Postings postings : expansions) {
+            total += postings.size;
+        }
+
+        // Pack (id, score) pairs into longs so a single primitive sort groups them by id.
+        long[] packed = new long[total];
+        int n = 0;
+        for (Postings postings : expansions) {
+            float idf = idf(postings.size, documentCount);
+            for (int i = 0; i < postings.size; i++) {
+                packed[n++] = ((long) postings.docs[i] << 32)
+                        | (Float.floatToRawIntBits(score(postings.weights[i], idf)) & 0xFFFFFFFFL);
+            }
+        }
+        Arrays.sort(packed, 0, n);
+
+        // A recipe matching several expansions of the prefix keeps its best score.
+        int[] docs = new int[n];
+        float[] scores = new float[n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            int doc = (int) (packed[i] >>> 32);
+            float score = Float.intBitsToFloat((int) packed[i]);
+            if (size > 0 && docs[size - 1] == doc) {
+                scores[size - 1] = Math.max(scores[size - 1], score);
+            } else {
+                docs[size] = doc;
+                scores[size] = score;
+                size++;
+            }
+        }
+        return new Matches(docs, scores, size);
+    }
+
+    /**
+     * Picks the terms starting with a prefix that are found in the most recipes, at most
+     * {@value #MAX_PREFIX_EXPANSIONS} of them, so a short prefix like "c" still reaches common words late in the
+     * alphabet such as "chocolate".
+     */
+    private List<Postings> commonestExpansions(String prefix) {
+        Collection<Postings> all = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values();
+        if (all.size() <= MAX_PREFIX_EXPANSIONS) {
+            return new ArrayList<>(all);
+        }
+        PriorityQueue<Postings> commonest = new PriorityQueue<>(MAX_PREFIX_EXPANSIONS + 1,
+                Comparator.comparingInt(postings -> postings.size));
+        for (Postings postings : all) {
+            commonest.add(postings);
+            if (commonest.size() > MAX_PREFIX_EXPANSIONS) {
+                commonest.poll();
+            }
+        }
+        return new ArrayList<>(commonest);
+    }
+
+    private static Matches intersect(Matches left, Matches right) {
+        int capacity = Math.min(left.size(), right.size());
+        int[] docs = new int[capacity];
+        float[] scores = new float[capacity];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.size() && j < right.size()) {
+            int leftDoc = left.docs()[i];
+            int rightDoc = right.docs()[j];
+            if (leftDoc == rightDoc) {
+                docs[size] = leftDoc;
+                scores[size] = left.scores()[i] + right.scores()[j];
+                size++;
+                i++;
+                j++;
+            } else if (leftDoc < rightDoc) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return new Matches(docs, scores, size);
+    }
+
+    private List<RecipeSummary> topResults(Matches matches, int limit) {
+        Comparator<Integer> byRank = Comparator.<Integer>comparingDouble(i -> matches.scores()[i])
+                .thenComparing(i -> -matches.docs()[i]);
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, byRank);
+        for (int i = 0; i < matches.size(); i++) {
+            best.add(i);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Integer> ranked = new ArrayList<>(best);
+        ranked.sort(byRank.reversed());
+
+        List<RecipeSummary> results = new ArrayList<>(ranked.size());
+        for (int index : ranked) {
+            results.add(recipes.get(matches.docs()[index]).summary());
+        }
+        return results;
+    }
+
+    private static float idf(int documentFrequency, int documentCount) {
+        return (float) Math.log(1.0 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static float score(int weight, float idf) {
+        return idf * (weight * (SATURATION + 1)) / (weight + SATURATION);
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.matthewdesouza.recipeapp.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into search terms: runs of letters and digits, case-folded and stripped of accents, so that
+ * "Crème Brûlée" and "creme brulee" produce the same terms.
+ */
+public final class Tokenizer {
+    /**
+     * Terms longer than this are almost always noise (URLs, pasted data) and are not indexed.
+     */
+    static final int MAX_TERM_LENGTH = 40;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private Tokenizer() {
+    }
+
+    /**
+     * @param text Text to tokenize, may be null.
+     * @return The terms in order of appearance, duplicates included, without those over {@value #MAX_TERM_LENGTH}
+     * characters.
+     */
+    public static List<String> tokenize(String text) {
+        return split(text, MAX_TERM_LENGTH);
+    }
+
+    /**
+     * Tokenizes a query like {@link #tokenize(String)}, but keeps terms too long to be indexed, so the caller can tell
+     * that nothing matches them instead of searching for the rest of the query alone.
+     *
+     * @param query Query to tokenize, may be null.
+     * @return The terms in order of appearance, duplicates included.
+     */
+    public static List<String> tokenizeQuery(String query) {
+        return split(query, Integer.MAX_VALUE);
+    }
+
+    private static List<String> split(String text, int maxTermLength) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean termChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                if (i - start <= maxTermLength) {
+                    terms.add(folded.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
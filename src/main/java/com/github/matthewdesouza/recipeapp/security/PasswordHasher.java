@@ -0,0 +1,189 @@
+package com.github.matthewdesouza.recipeapp.security;
+
+import com.github.matthewdesouza.recipeapp.security.exception.PasswordHasherBusyException;
+import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashes and verifies passwords with bcrypt on a dedicated, bounded worker pool.
+ * <p>
+ * bcrypt is CPU-bound by design, so running it on every caller's thread lets a burst of logins take over the machine.
+ * Here at most {@code threads} hashes run at once (one per core by default) and at most {@code queueCapacity} more
+ * may wait; anything beyond that is rejected straight away with a {@link PasswordHasherBusyException}. Callers block
+ * until their hash is done, which is cheap when they are virtual threads.
+ * <p>
+ * New hashes use the configured cost factor; {@link #needsRehash(String)} tells whether a stored hash was made with a
+ * different one, so it can be replaced the next time its password is known.
+ * <p>
+ * Configured through system properties: {@code recipeapp.bcrypt.cost} (default 10), {@code recipeapp.bcrypt.threads}
+ * (default: available processors), {@code recipeapp.bcrypt.queueSize} (default 64) and
+ * {@code recipeapp.bcrypt.timeoutMs} (default 30000).
+ */
+public final class PasswordHasher implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    static final int MIN_COST = 4;
+    static final int MAX_COST = 30;
+
+    private final int cost;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor executor;
+    private final PasswordHasherStats stats = new PasswordHasherStats();
+
+    /**
+     * @param cost          bcrypt log2 cost factor for new hashes, between 4 and 30.
+     * @param threads       Number of worker threads.
+     * @param queueCapacity Number of calls that may wait for a worker before new ones are rejected.
+     * @param timeoutMs     How long a caller waits for its result before giving up.
+     */
+    public PasswordHasher(int cost, int threads, int queueCapacity, long timeoutMs) {
+        if (cost < MIN_COST || cost > MAX_COST) {
+            throw new IllegalArgumentException("bcrypt cost must be between %d and %d: %d".formatted(MIN_COST, MAX_COST, cost));
+        }
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("threads and queueCapacity must be positive.");
+        }
+        this.cost = cost;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "recipe-bcrypt-" + threadCount.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static PasswordHasher getInstance() {
+        return SingletonHelper.INSTANCE;
+    }
+
+    /**
+     * Hashes a password with a fresh salt at the configured cost.
+     *
+     * @param password Plain-text password.
+     * @return bcrypt hash to store.
+     * @throws PasswordHasherBusyException If the hashing queue is full or the hash did not finish in time.
+     */
+    public String hash(String password) {
+        return submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)), true);
+    }
+
+    /**
+     * @param password Plain-text password.
+     * @param hash     Stored bcrypt hash.
+     * @return Whether the password matches the hash.
+     * @throws PasswordHasherBusyException If the hashing queue is full or the check did not finish in time.
+     */
+    public boolean verify(String password, String hash) {
+        return submit(() -> BCrypt.checkpw(password, hash), false);
+    }
+
+    /**
+     * @param hash Stored bcrypt hash.
+     * @return Whether the hash was made with a different cost than new hashes use.
+     */
+    public boolean needsRehash(String hash) {
+        int hashCost = costOf(hash);
+        return hashCost > 0 && hashCost != cost;
+    }
+
+    /**
+     * Counts a stored hash that was replaced after {@link #needsRehash(String)} asked for it.
+     */
+    public void recordRehash() {
+        stats.recordRehash();
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public PasswordHasherStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        log.info("Password hasher stopped. {}", stats);
+    }
+
+    /**
+     * Reads the cost factor out of a {@code $2a$NN$...} hash.
+     *
+     * @return The cost, or -1 if the hash is not in bcrypt format.
+     */
+    static int costOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$' || hash.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash, 4, 6, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private <T> T submit(Callable<T> work, boolean isHash) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                T result = work.call();
+                long finished = System.nanoTime();
+                if (isHash) {
+                    stats.recordHash(started - submitted, finished - started);
+                } else {
+                    stats.recordVerification(started - submitted, finished - started);
+                }
+                return result;
+            });
+        } catch (RejectedExecutionException e) {
+            stats.recordRejection();
+            throw new PasswordHasherBusyException("Too many password checks in progress, try again shortly.", e);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            stats.recordRejection();
+            throw new PasswordHasherBusyException("Password check timed out after %d ms.".formatted(timeoutMs), e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHasherBusyException("Interrupted while waiting for a password check.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException; // e.g. IllegalArgumentException for a malformed stored hash.
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Static inner class for holding the instance (Bill Pugh Singleton Implementation)
+     */
+    private static class SingletonHelper {
+        private static final PasswordHasher INSTANCE = new PasswordHasher(
+                Integer.getInteger("recipeapp.bcrypt.cost", 10),
+                Integer.getInteger("recipeapp.bcrypt.threads", Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger("recipeapp.bcrypt.queueSize", 64),
+                Long.getLong("recipeapp.bcrypt.timeoutMs", 30_000L));
+    }
+}
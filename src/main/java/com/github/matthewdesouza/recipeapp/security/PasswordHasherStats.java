@@ -0,0 +1,119 @@
+package com.github.matthewdesouza.recipeapp.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latencies of a {@link PasswordHasher}. Latencies are measured per call and split into the time spent
+ * waiting in the queue and the time spent computing the hash.
+ */
+public final class PasswordHasherStats {
+    private final Operation hashes = new Operation();
+    private final Operation verifications = new Operation();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder rehashes = new LongAdder();
+
+    PasswordHasherStats() {
+    }
+
+    void recordHash(long queueNanos, long computeNanos) {
+        hashes.record(queueNanos, computeNanos);
+    }
+
+    void recordVerification(long queueNanos, long computeNanos) {
+        verifications.record(queueNanos, computeNanos);
+    }
+
+    void recordRejection() {
+        rejections.increment();
+    }
+
+    void recordRehash() {
+        rehashes.increment();
+    }
+
+    public long getHashCount() {
+        return hashes.count.sum();
+    }
+
+    public long getVerificationCount() {
+        return verifications.count.sum();
+    }
+
+    /**
+     * @return Calls rejected because the queue was full or the caller timed out.
+     */
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * @return Stored hashes upgraded to the configured cost after a successful login.
+     */
+    public long getRehashCount() {
+        return rehashes.sum();
+    }
+
+    public double getAverageHashMillis() {
+        return hashes.averageComputeMillis();
+    }
+
+    public double getMaxHashMillis() {
+        return toMillis(hashes.maxComputeNanos.get());
+    }
+
+    public double getAverageVerificationMillis() {
+        return verifications.averageComputeMillis();
+    }
+
+    public double getMaxVerificationMillis() {
+        return toMillis(verifications.maxComputeNanos.get());
+    }
+
+    /**
+     * @return Average time hashes and verifications spent queued before a worker picked them up.
+     */
+    public double getAverageQueueMillis() {
+        long count = getHashCount() + getVerificationCount();
+        return count == 0 ? 0.0 : toMillis(hashes.queueNanos.sum() + verifications.queueNanos.sum()) / count;
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return "PasswordHasherStats{" +
+                "hashes=" + getHashCount() +
+                ", verifications=" + getVerificationCount() +
+                ", rejections=" + getRejectionCount() +
+                ", rehashes=" + getRehashCount() +
+                ", avgHashMs=" + String.format("%.1f", getAverageHashMillis()) +
+                ", maxHashMs=" + String.format("%.1f", getMaxHashMillis()) +
+                ", avgVerifyMs=" + String.format("%.1f", getAverageVerificationMillis()) +
+                ", maxVerifyMs=" + String.format("%.1f", getMaxVerificationMillis()) +
+                ", avgQueueMs=" + String.format("%.1f", getAverageQueueMillis()) +
+                '}';
+    }
+
+    private static final class Operation {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder queueNanos = new LongAdder();
+        private final LongAdder computeNanos = new LongAdder();
+        private final LongAccumulator maxComputeNanos = new LongAccumulator(Math::max, 0);
+
+        private void record(long queued, long computed) {
+            count.increment();
+            queueNanos.add(queued);
+            computeNanos.add(computed);
+            maxComputeNanos.accumulate(computed);
+        }
+
+        private double averageComputeMillis() {
+            long n = count.sum();
+            return n == 0 ? 0.0 : toMillis(computeNanos.sum()) / n;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.matthewdesouza.recipeapp.security.exception;
+
+/**
+ * Thrown when a password cannot be hashed or verified because the hashing queue is full, or the work did not finish in
+ * time. Callers should report a temporary failure rather than retry immediately.
+ */
+public class PasswordHasherBusyException extends RuntimeException {
+    public PasswordHasherBusyException(String message) {
+        super(message);
+    }
+
+    public PasswordHasherBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
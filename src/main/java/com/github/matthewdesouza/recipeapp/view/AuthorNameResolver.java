@@ -0,0 +1,69 @@
+package com.github.matthewdesouza.recipeapp.view;
+
+import com.github.matthewdesouza.recipeapp.database.UserDAO;
+import com.github.matthewdesouza.recipeapp.database.exception.UncheckedSQLException;
+import com.github.matthewdesouza.recipeapp.model.RecipeSummary;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves recipe author ids to usernames for table cells without touching the database while rendering.
+ * <p>
+ * {@link #resolve(Collection)} is called with every batch of recipes before it is displayed: names already joined onto
+ * the summaries are taken as-is, any remaining author ids are fetched together in a single batched lookup, and cells
+ * then read from the in-memory map. Resolving may run on a background thread while cells read on the FX thread.
+ * <p>
+ * Authors the lookup reports as missing are remembered as {@value #UNKNOWN_AUTHOR}. If the lookup itself fails nothing
+ * is remembered, so the names are fetched again with the next batch.
+ */
+class AuthorNameResolver {
+    static final String UNKNOWN_AUTHOR = "<unknown>";
+
+    private final Map<Integer, String> usernames = new ConcurrentHashMap<>();
+
+    /**
+     * Makes sure every author of the given recipes has a resolved name.
+     *
+     * @param recipes Recipes about to be displayed.
+     */
+    void resolve(Collection<RecipeSummary> recipes) {
+        Set<Integer> missing = new HashSet<>();
+        for (RecipeSummary recipe : recipes) {
+            if (recipe.getAuthorUsername() != null) {
+                usernames.put(recipe.getUserId(), recipe.getAuthorUsername());
+            } else if (!usernames.containsKey(recipe.getUserId())) {
+                missing.add(recipe.getUserId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Integer, String> found;
+            try {
+                found = UserDAO.getUsernamesByIds(missing);
+            } catch (UncheckedSQLException e) {
+                return; // Already logged; the cells show the authors as unknown until a later batch resolves them.
+            }
+            usernames.putAll(found);
+            // Remember authors that do not exist so they are not looked up again for every page.
+            missing.forEach(userId -> usernames.putIfAbsent(userId, UNKNOWN_AUTHOR));
+        }
+    }
+
+    /**
+     * Forgets all resolved names, e.g. after a refresh where authors may have been renamed.
+     */
+    void clear() {
+        usernames.clear();
+    }
+
+    /**
+     * @param userId Author id of a displayed recipe.
+     * @return The author's username, or {@value #UNKNOWN_AUTHOR} if the author does not exist.
+     */
+    String getUsername(int userId) {
+        return usernames.getOrDefault(userId, UNKNOWN_AUTHOR);
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.matthewdesouza.recipeapp.view;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Hands the outcome of background work back to the JavaFX Application Thread.
+ */
+final class FxFutures {
+    private FxFutures() {
+    }
+
+    /**
+     * Runs one of the callbacks on the FX thread once the future completes. Nothing runs if the future was cancelled
+     * before it completed. Cancelling a completed future has no effect, so a caller whose request can be superseded
+     * must check in the callbacks that the future is still the latest one it started.
+     *
+     * @param future    Background work, typically from {@link com.github.matthewdesouza.recipeapp.database.AsyncDAO}.
+     * @param onSuccess Receives the result.
+     * @param onFailure Receives the cause of the failure, unwrapped from {@link CompletionException}.
+     */
+    static <T> void onFxThread(CompletableFuture<T> future, Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                onFailure.accept(unwrap(error));
+            }
+        }));
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -1,14 +1,18 @@
 package com.github.matthewdesouza.recipeapp.view;
 
 import com.github.matthewdesouza.recipeapp.RecipeApp;
+import com.github.matthewdesouza.recipeapp.database.AsyncDAO;
 import com.github.matthewdesouza.recipeapp.database.UserDAO;
 import com.github.matthewdesouza.recipeapp.model.User;
+import com.github.matthewdesouza.recipeapp.security.exception.PasswordHasherBusyException;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.control.PasswordField;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
@@ -22,6 +26,15 @@ public class LoginController {
     @FXML
     private PasswordField passwordField;
 
+    @FXML
+    private Button loginButton;
+
+    @FXML
+    private Button registerButton;
+
+    @FXML
+    private ProgressIndicator progressIndicator;
+
     private Stage primaryStage;
 
     private static User currentUser;
@@ -40,8 +53,10 @@ public class LoginController {
             return;
         }
 
-        try {
-            User user = UserDAO.authenticateUser(username, password);
+        // Password hashing is deliberately slow, so it runs off the FX thread.
+        setBusy(true);
+        FxFutures.onFxThread(AsyncDAO.authenticateUser(username, password), user -> {
+            setBusy(false);
             if (!user.getPassword().isBlank()) {
                 currentUser = user;
                 showAlert("Login Successful", "Welcome, " + username + "!");
@@ -49,9 +64,14 @@ public class LoginController {
             } else {
                 showAlert("Login Failed", "Invalid username or password.");
             }
-        } catch (Exception e) { // Consider more specific exception handling based on your application's requirements
-            showAlert("Error", "An error occurred during login.");
-        }
+        }, e -> { // Consider more specific exception handling based on your application's requirements
+            setBusy(false);
+            if (e instanceof PasswordHasherBusyException) {
+                showAlert("Server Busy", "Too many logins at once, please try again in a moment.");
+            } else {
+                showAlert("Error", "An error occurred during login.");
+            }
+        });
     }
 
     @FXML
@@ -64,19 +84,35 @@ public class LoginController {
             return;
         }
 
-        try {
-            if (!UserDAO.usernameExists(username)) {
-                UserDAO.createUser(new User(username, password));
-                currentUser = UserDAO.getUserByUsername(username);
+        setBusy(true);
+        FxFutures.onFxThread(AsyncDAO.supply(() -> {
+            if (UserDAO.usernameExists(username)) {
+                return null;
+            }
+            UserDAO.createUser(new User(username, password));
+            return UserDAO.getUserByUsername(username);
+        }), user -> {
+            setBusy(false);
+            if (user != null) {
+                currentUser = user;
                 showAlert("Registration Successful", "User registered successfully.");
                 loadMainView();
             } else {
                 showAlert("Registration Failed", "Username already in use.");
             }
-        } catch (Exception e) {
+        }, e -> {
+            setBusy(false);
             e.printStackTrace();
             showAlert("Registration Failed", "An error occurred during registration, try a different username.");
-        }
+        });
+    }
+
+    private void setBusy(boolean busy) {
+        usernameField.setDisable(busy);
+        passwordField.setDisable(busy);
+        loginButton.setDisable(busy);
+        registerButton.setDisable(busy);
+        progressIndicator.setVisible(busy);
     }
 
     private boolean isValidUsername(String username) {
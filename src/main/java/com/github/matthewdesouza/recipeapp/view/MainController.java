@@ -1,11 +1,15 @@
 package com.github.matthewdesouza.recipeapp.view;
 
 import com.github.matthewdesouza.recipeapp.RecipeApp;
+import com.github.matthewdesouza.recipeapp.database.AsyncDAO;
+import com.github.matthewdesouza.recipeapp.database.RecipeChange;
 import com.github.matthewdesouza.recipeapp.database.RecipeDAO;
-import com.github.matthewdesouza.recipeapp.database.UserDAO;
 import com.github.matthewdesouza.recipeapp.model.Recipe;
+import com.github.matthewdesouza.recipeapp.model.RecipeSummary;
 import com.github.matthewdesouza.recipeapp.model.User;
 import javafx.application.Platform;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -16,7 +20,6 @@ import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
@@ -27,49 +30,146 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.util.Objects;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 
 public class MainController {
     @FXML
-    private TableView<Recipe> recipeTableView;
+    private TableView<RecipeSummary> recipeTableView;
 
     @FXML
-    private TableColumn<Recipe, String> userColumn;
+    private TableColumn<RecipeSummary, String> userColumn;
 
     @FXML
-    private TableColumn<Recipe, String> recipeTitleColumn;
+    private TableColumn<RecipeSummary, String> recipeTitleColumn;
 
     @FXML
     private TabPane recipeTabPane;
 
-    private ObservableList<Recipe> recipesList;
+    @FXML
+    private TextField searchField;
+
+    @FXML
+    private ProgressIndicator loadingIndicator;
+
+    private static final int SEARCH_RESULT_LIMIT = 200;
+
+    private static final double IMAGE_WIDTH = 560;
+
+    private static final double IMAGE_HEIGHT = 180;
+
+    private final AuthorNameResolver authorNames = new AuthorNameResolver();
+
+    private final RecipePageLoader recipePages = new RecipePageLoader(authorNames, RecipePageLoader.DEFAULT_PAGE_SIZE);
+
+    private final RecipeImageLoader images = new RecipeImageLoader(IMAGE_WIDTH, IMAGE_HEIGHT);
+
+    /**
+     * Number of database calls in flight on behalf of this view, other than recipe pages.
+     */
+    private final IntegerProperty pendingTasks = new SimpleIntegerProperty();
+
+    private CompletableFuture<List<RecipeSummary>> pendingSearch;
+
+    private CompletableFuture<Recipe> pendingRecipe;
+
+    private final Consumer<RecipeChange> recipeChanges = change -> Platform.runLater(() -> applyChange(change));
 
     @FXML
     public void initialize() {
+        loadingIndicator.visibleProperty().bind(pendingTasks.greaterThan(0).or(recipePages.loadingProperty()));
         loadRecipes();
+        listenForChanges();
+        setupSearch();
         setupTableViewSelection();
         setupGlobalKeyListeners();
     }
 
     public void refreshRecipes() {
-        // Refresh the list of recipes
-        recipesList.setAll(RecipeDAO.getAllRecipes());
+        // Refresh the list of recipes, starting over from the first page
+        authorNames.clear();
+        cancel(pendingSearch);
+        pendingSearch = null;
+        searchField.clear();
+        recipePages.reset();
     }
 
     private void loadRecipes() {
-        recipesList = FXCollections.observableArrayList(RecipeDAO.getAllRecipes());
-        recipeTableView.setItems(recipesList);
+        recipePages.attach(recipeTableView);
+        recipePages.reset();
 
-        userColumn.setCellValueFactory(cellData -> {
-            int userId = cellData.getValue().getUserId();
-            User user = UserDAO.getUserById(userId);
-            return new SimpleStringProperty(user != null ? user.getUsername() : "<unknown>");
-        });
+        userColumn.setCellValueFactory(cellData -> new SimpleStringProperty(authorNames.getUsername(cellData.getValue().getUserId())));
         recipeTitleColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getTitle()));
     }
 
+    private void listenForChanges() {
+        RecipeDAO.addChangeListener(recipeChanges);
+        recipeTableView.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                RecipeDAO.removeChangeListener(recipeChanges);
+            }
+        });
+    }
+
+    /**
+     * Updates the row of a recipe that was written, in the paged list and in the search results on display.
+     */
+    private void applyChange(RecipeChange change) {
+        if (change.summary() != null && change.summary().getAuthorUsername() != null) {
+            authorNames.resolve(List.of(change.summary())); // Name already known, so no lookup.
+        }
+        recipePages.apply(change);
+
+        // Search results are ranked rather than in id order, but short; new recipes show up in the next search.
+        ObservableList<RecipeSummary> shown = recipeTableView.getItems();
+        if (shown != recipePages.getItems() && change.type() != RecipeChange.Type.INSERTED) {
+            for (int i = 0; i < shown.size(); i++) {
+                if (shown.get(i).getId() == change.recipeId()) {
+                    if (change.type() == RecipeChange.Type.DELETED) {
+                        shown.remove(i);
+                    } else {
+                        shown.set(i, change.summary());
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private void setupSearch() {
+        // Build the search index in the background so the first keystroke does not pay for it.
+        AsyncDAO.buildSearchIndex();
+
+        searchField.textProperty().addListener((obs, oldText, newText) -> {
+            // Each keystroke supersedes the previous search, whose results must not land after ours.
+            cancel(pendingSearch);
+            if (newText == null || newText.isBlank()) {
+                pendingSearch = null;
+                recipePages.attach(recipeTableView);
+                return;
+            }
+            CompletableFuture<List<RecipeSummary>> search = AsyncDAO.supply(() -> {
+                List<RecipeSummary> results = RecipeDAO.searchRecipes(newText, SEARCH_RESULT_LIMIT);
+                authorNames.resolve(results);
+                return results;
+            });
+            pendingSearch = search;
+            // A search that completed before being superseded is not cancelled, so only the latest one may land.
+            runInBackground(search, results -> {
+                if (search == pendingSearch) {
+                    recipeTableView.setItems(FXCollections.observableArrayList(results));
+                }
+            }, error -> {
+                if (search == pendingSearch) {
+                    showAlert("Error", "An error occurred while searching.");
+                }
+            });
+        });
+    }
+
     private void setupTableViewSelection() {
         recipeTableView.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             if (newSelection != null) {
@@ -78,14 +178,51 @@ public class MainController {
         });
     }
 
-    private void selectOrCreateTab(Recipe recipe) {
+    private void selectOrCreateTab(RecipeSummary summary) {
         for (Tab tab : recipeTabPane.getTabs()) {
-            if (tab.getText().equals(recipe.getTitle())) {
+            if (tab.getText().equals(summary.getTitle())) {
                 recipeTabPane.getSelectionModel().select(tab);
                 return;
             }
         }
-        createTabForRecipe(recipe);
+        // Recipe content is only fetched once its tab is actually opened; a newer selection replaces this one.
+        cancel(pendingRecipe);
+        CompletableFuture<Recipe> load = AsyncDAO.getRecipeByRecipeId(summary.getId());
+        pendingRecipe = load;
+        runInBackground(load, recipe -> {
+            if (load != pendingRecipe) {
+                return;
+            }
+            if (recipe != null) {
+                createTabForRecipe(recipe);
+            } else {
+                showAlert("Error", "This recipe no longer exists.");
+                refreshRecipes();
+            }
+        }, error -> {
+            if (load == pendingRecipe) {
+                showAlert("Error", "An error occurred while loading the recipe.");
+            }
+        });
+    }
+
+    /**
+     * Runs a database call off the FX thread, showing the loading indicator until it completes.
+     */
+    private <T> void runInBackground(CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                                     Consumer<Throwable> onFailure) {
+        pendingTasks.set(pendingTasks.get() + 1);
+        future.whenComplete((result, error) -> Platform.runLater(() -> pendingTasks.set(pendingTasks.get() - 1)));
+        FxFutures.onFxThread(future, onSuccess, error -> {
+            error.printStackTrace();
+            onFailure.accept(error);
+        });
+    }
+
+    private static void cancel(CompletableFuture<?> future) {
+        if (future != null) {
+            future.cancel(false);
+        }
     }
 
     @FXML
@@ -130,14 +267,10 @@ public class MainController {
         contentBox.setPadding(new Insets(10, 10, 10, 10));
 
         ImageView imageView = new ImageView();
-        try {
-            imageView.setImage(new Image(recipe.getImageUri()));
-        } catch (IllegalArgumentException e) {
-            imageView.setImage(new Image(Objects.requireNonNull(RecipeApp.class.getResource("img/image-not-found.jpg")).toExternalForm()));
-        }
+        images.load(imageView, recipe.getImageUri());
 
-        imageView.setFitHeight(180);
-        imageView.setFitWidth(560);
+        imageView.setFitHeight(IMAGE_HEIGHT);
+        imageView.setFitWidth(IMAGE_WIDTH);
         imageView.setPreserveRatio(true);
         HBox imageBox = new HBox(imageView);
         imageBox.setAlignment(Pos.CENTER);
@@ -173,11 +306,7 @@ public class MainController {
                 ImageView imageView = (ImageView) ((HBox) contentBox.getChildren().get(0)).getChildren().get(0);
                 TextArea textArea = (TextArea) ((ScrollPane) ((HBox) contentBox.getChildren().get(1)).getChildren().get(0)).getContent();
 
-                try {
-                    imageView.setImage(new Image(recipe.getImageUri()));
-                } catch (IllegalArgumentException e) {
-                    imageView.setImage(new Image(Objects.requireNonNull(getClass().getResource("/img/image-not-found.jpg")).toExternalForm()));
-                }
+                images.load(imageView, recipe.getImageUri());
                 textArea.setText(recipe.getContent());
                 break;
             }
@@ -185,9 +314,16 @@ public class MainController {
     }
 
     public void handleEditRecipe() {
-        Recipe selectedRecipe = recipeTableView.getSelectionModel().getSelectedItem();
+        RecipeSummary selectedRecipe = recipeTableView.getSelectionModel().getSelectedItem();
         if (selectedRecipe != null) {
-            openRecipeEditor(selectedRecipe);
+            runInBackground(AsyncDAO.getRecipeByRecipeId(selectedRecipe.getId()), recipe -> {
+                if (recipe != null) {
+                    openRecipeEditor(recipe);
+                } else {
+                    showAlert("Error", "This recipe no longer exists.");
+                    refreshRecipes();
+                }
+            }, error -> showAlert("Error", "An error occurred while loading the recipe."));
         } else {
             // Show an alert if no recipe is selected
             showAlert("No Selection", "Please select a recipe to edit.");
@@ -223,7 +359,7 @@ public class MainController {
     }
 
     public void handleDeleteRecipe() {
-        Recipe selectedRecipe = recipeTableView.getSelectionModel().getSelectedItem();
+        RecipeSummary selectedRecipe = recipeTableView.getSelectionModel().getSelectedItem();
         if (selectedRecipe == null) {
             showAlert("No Selection", "Please select a recipe to delete.");
             return;
@@ -246,14 +382,14 @@ public class MainController {
             // User confirmed the deletion
             if (selectedRecipe.getUserId() == currentUser.getId() || currentUser.getUsername().equals("admin")) {
                 // Authorized to delete the recipe
-                int success = RecipeDAO.deleteRecipe(selectedRecipe.getId());
-                if (success == 1) {
-                    showAlert("Success", "Recipe deleted successfully.");
-                    closeCurrentTab();
-                    refreshRecipes();
-                } else {
-                    showAlert("Error", "Error deleting recipe.");
-                }
+                runInBackground(AsyncDAO.deleteRecipe(selectedRecipe.getId()), success -> {
+                    if (success == 1) {
+                        showAlert("Success", "Recipe deleted successfully.");
+                        closeCurrentTab();
+                    } else {
+                        showAlert("Error", "Error deleting recipe.");
+                    }
+                }, error -> showAlert("Error", "Error deleting recipe."));
             } else {
                 // Not authorized to delete the recipe
                 showAlert("Unauthorized", "You do not have permission to delete this recipe.");
@@ -1,10 +1,11 @@
 package com.github.matthewdesouza.recipeapp.view;
 
-import com.github.matthewdesouza.recipeapp.database.RecipeDAO;
+import com.github.matthewdesouza.recipeapp.database.AsyncDAO;
 import com.github.matthewdesouza.recipeapp.model.Recipe;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.image.ImageView;
@@ -30,6 +31,9 @@ public class RecipeController {
     @FXML
     private Button submitButton;
 
+    @FXML
+    private ProgressIndicator progressIndicator;
+
     private Recipe recipe;
     private boolean isEditMode = false;
     private MainController mainController;
@@ -71,28 +75,48 @@ public class RecipeController {
             recipe.setTitle(title);
             recipe.setImageUri(imageUri);
             recipe.setContent(content);
-            int success = RecipeDAO.updateRecipe(recipe);
-            if (success == 1) {
-                showAlert("Success", "Recipe updated successfully.");
-                mainController.refreshRecipes();
-                mainController.updateTabContent(recipe);
-                closeWindow();
-            } else {
+            setBusy(true);
+            FxFutures.onFxThread(AsyncDAO.updateRecipe(recipe), success -> {
+                setBusy(false);
+                if (success == 1) {
+                    showAlert("Success", "Recipe updated successfully.");
+                    mainController.updateTabContent(recipe);
+                    closeWindow();
+                } else {
+                    showAlert("Error", "Error updating recipe.");
+                }
+            }, e -> {
+                setBusy(false);
+                e.printStackTrace();
                 showAlert("Error", "Error updating recipe.");
-            }
+            });
         } else {
             // Handle adding a new recipe
             Recipe newRecipe = new Recipe();
             newRecipe.setTitle(title);
             newRecipe.setImageUri(imageUri);
             newRecipe.setContent(content);
-            RecipeDAO.createRecipe(newRecipe, LoginController.getCurrentUser());
-            mainController.refreshRecipes();
-            showAlert("Success", "Recipe added successfully.");
-            closeWindow();
+            setBusy(true);
+            FxFutures.onFxThread(AsyncDAO.createRecipe(newRecipe, LoginController.getCurrentUser()), ignored -> {
+                setBusy(false);
+                showAlert("Success", "Recipe added successfully.");
+                closeWindow();
+            }, e -> {
+                setBusy(false);
+                e.printStackTrace();
+                showAlert("Error", "Error adding recipe.");
+            });
         }
     }
 
+    private void setBusy(boolean busy) {
+        titleField.setDisable(busy);
+        imageField.setDisable(busy);
+        contentArea.setDisable(busy);
+        submitButton.setDisable(busy);
+        progressIndicator.setVisible(busy);
+    }
+
     private void closeWindow() {
         Stage stage = (Stage) submitButton.getScene().getWindow();
         stage.close();
@@ -0,0 +1,284 @@
+package com.github.matthewdesouza.recipeapp.view;
+
+import com.github.matthewdesouza.recipeapp.AppDirectories;
+import com.github.matthewdesouza.recipeapp.RecipeApp;
+import com.github.matthewdesouza.recipeapp.cache.CacheStats;
+import com.github.matthewdesouza.recipeapp.cache.LruCache;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Loads recipe images off the JavaFX Application Thread, decoded straight to the size they are displayed at.
+ * <p>
+ * Thumbnails are kept in a bounded in-memory LRU cache and in a thumbnail cache on disk under
+ * {@link AppDirectories#configHome()}, so reopening a tab, or restarting the app, does not fetch and decode the
+ * full-resolution image again. Concurrent requests for the same image share one load. JavaFX cannot encode images
+ * without Swing, so thumbnails are stored on disk as deflated pixels.
+ */
+final class RecipeImageLoader {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeImageLoader.class);
+
+    private static final long MEMORY_CACHE_BYTES = Long.getLong("recipeapp.cache.images.maxBytes", 32L << 20);
+    private static final long DISK_CACHE_BYTES = Long.getLong("recipeapp.cache.thumbnails.maxBytes", 128L << 20);
+    private static final int THREADS = Integer.getInteger("recipeapp.images.threads", 2);
+
+    private static final int THUMBNAIL_MAGIC = 0x52415448;
+    private static final int PLACEHOLDER_ARGB = 0xFFE0E0E0;
+    private static final String REQUESTED_URI = RecipeImageLoader.class.getName() + ".uri";
+
+    /**
+     * Decoding is CPU-bound, so a few platform threads are enough; they do not keep the app from exiting.
+     */
+    private static final ExecutorService executor = Executors.newFixedThreadPool(THREADS,
+            Thread.ofPlatform().name("recipe-image-", 0).daemon().factory());
+
+    private final double width;
+    private final double height;
+    private final Path thumbnailDirectory;
+    private final Image placeholder;
+    private final Image notFound;
+
+    private final LruCache<String, Image> memoryCache = LruCache.<String, Image>builder()
+            .maximumWeight(MEMORY_CACHE_BYTES, (uri, image) -> (long) image.getWidth() * (long) image.getHeight() * 4)
+            .build();
+
+    private final Map<String, CompletableFuture<Image>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param width  Width images are displayed at.
+     * @param height Height images are displayed at; images keep their aspect ratio within width and height.
+     */
+    RecipeImageLoader(double width, double height) {
+        this(width, height, AppDirectories.configHome().resolve("thumbnails"));
+    }
+
+    RecipeImageLoader(double width, double height, Path thumbnailDirectory) {
+        this.width = width;
+        this.height = height;
+        this.thumbnailDirectory = thumbnailDirectory;
+        this.placeholder = placeholder((int) width, (int) height);
+        this.notFound = new Image(Objects.requireNonNull(RecipeApp.class.getResource("img/image-not-found.jpg")).toExternalForm(),
+                width, height, true, true);
+    }
+
+    /**
+     * Shows a recipe's image in a view: immediately if it is cached in memory, otherwise a placeholder until it has
+     * loaded. If the view is given another image in the meantime, the earlier one is dropped when it arrives.
+     * Must be called on the FX thread.
+     *
+     * @param view View to show the image in.
+     * @param uri  URI of the full-size image; a missing or unreadable image shows the "image not found" picture.
+     */
+    void load(ImageView view, String uri) {
+        view.getProperties().put(REQUESTED_URI, uri);
+        if (uri == null || uri.isBlank()) {
+            view.setImage(notFound);
+            return;
+        }
+        Image cached = memoryCache.getIfPresent(uri);
+        if (cached != null) {
+            view.setImage(cached);
+            return;
+        }
+
+        view.setImage(placeholder);
+        FxFutures.onFxThread(imageFor(uri), image -> {
+            if (uri.equals(view.getProperties().get(REQUESTED_URI))) {
+                view.setImage(image);
+            }
+        }, error -> {
+            logger.warn("Unable to load image {}.", uri, error);
+            if (uri.equals(view.getProperties().get(REQUESTED_URI))) {
+                view.setImage(notFound);
+            }
+        });
+    }
+
+    /**
+     * @return Hit rate and size of the in-memory thumbnail cache.
+     */
+    CacheStats getCacheStats() {
+        return memoryCache.stats();
+    }
+
+    private CompletableFuture<Image> imageFor(String uri) {
+        CompletableFuture<Image> load = inFlight.computeIfAbsent(uri,
+                key -> CompletableFuture.supplyAsync(() -> loadThumbnail(key), executor));
+        load.whenComplete((image, error) -> inFlight.remove(uri, load));
+        return load;
+    }
+
+    private Image loadThumbnail(String uri) {
+        Path file = thumbnailFile(uri);
+        Image image = readThumbnail(file);
+        if (image == null) {
+            image = decode(uri);
+            if (image == null) {
+                // Not cached, so a broken link that gets fixed shows up the next time the recipe is opened.
+                return notFound;
+            }
+            writeThumbnail(file, image);
+        }
+        memoryCache.put(uri, image);
+        return image;
+    }
+
+    /**
+     * Fetches and decodes the full image, scaled while decoding so the full-resolution pixels are never kept.
+     */
+    private Image decode(String uri) {
+        try {
+            Image image = new Image(uri, width, height, true, true, false);
+            if (image.isError()) {
+                logger.warn("Unable to load image {}: {}", uri, Objects.toString(image.getException(), "unknown error"));
+                return null;
+            }
+            return image;
+        } catch (IllegalArgumentException e) {
+            logger.debug("Invalid image URI `{}`.", uri);
+            return null;
+        }
+    }
+
+    private Image readThumbnail(Path file) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new BufferedInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != THUMBNAIL_MAGIC) {
+                throw new IOException("Not a thumbnail");
+            }
+            int w = in.readInt();
+            int h = in.readInt();
+            byte[] pixels = in.readNBytes(w * h * 4);
+            if (pixels.length != w * h * 4) {
+                throw new IOException("Truncated thumbnail");
+            }
+            WritableImage image = new WritableImage(w, h);
+            image.getPixelWriter().setPixels(0, 0, w, h, PixelFormat.getByteBgraInstance(), pixels, 0, w * 4);
+            // Keeps recently used thumbnails from being pruned first.
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return image;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Discarding unreadable thumbnail {}.", file, e);
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    private void writeThumbnail(Path file, Image image) {
+        int w = (int) image.getWidth();
+        int h = (int) image.getHeight();
+        byte[] pixels = new byte[w * h * 4];
+        image.getPixelReader().getPixels(0, 0, w, h, PixelFormat.getByteBgraInstance(), pixels, 0, w * 4);
+        try {
+            Files.createDirectories(thumbnailDirectory);
+            Path temp = Files.createTempFile(thumbnailDirectory, "thumbnail-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))))) {
+                out.writeInt(THUMBNAIL_MAGIC);
+                out.writeInt(w);
+                out.writeInt(h);
+                out.write(pixels);
+            } catch (IOException e) {
+                deleteQuietly(temp);
+                throw e;
+            }
+            // Readers never see a half-written thumbnail.
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            pruneDiskCache();
+        } catch (IOException e) {
+            logger.warn("Unable to cache thumbnail {}.", file, e);
+        }
+    }
+
+    /**
+     * Deletes the least recently used thumbnails once the cache directory grows past its limit.
+     */
+    private void pruneDiskCache() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(thumbnailDirectory)) {
+            files = stream.filter(path -> path.getFileName().toString().endsWith(".thumb")).toList();
+        }
+        long total = 0;
+        long[] sizes = new long[files.size()];
+        FileTime[] modified = new FileTime[files.size()];
+        Integer[] order = new Integer[files.size()];
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                sizes[i] = Files.size(files.get(i));
+                modified[i] = Files.getLastModifiedTime(files.get(i));
+            } catch (NoSuchFileException e) {
+                modified[i] = FileTime.fromMillis(0); // Pruned concurrently; counts as zero bytes.
+            }
+            total += sizes[i];
+            order[i] = i;
+        }
+        if (total <= DISK_CACHE_BYTES) {
+            return;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> modified[i]));
+        for (int i = 0; i < order.length && total > DISK_CACHE_BYTES; i++) {
+            deleteQuietly(files.get(order[i]));
+            total -= sizes[order[i]];
+        }
+    }
+
+    private Path thumbnailFile(String uri) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((uri + '\n' + (int) width + 'x' + (int) height).getBytes(StandardCharsets.UTF_8));
+            return thumbnailDirectory.resolve(HexFormat.of().formatHex(digest) + ".thumb");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every JVM", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Unable to delete {}.", file, e);
+        }
+    }
+
+    private static Image placeholder(int width, int height) {
+        WritableImage image = new WritableImage(Math.max(width, 1), Math.max(height, 1));
+        int[] row = new int[(int) image.getWidth()];
+        Arrays.fill(row, PLACEHOLDER_ARGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getPixelWriter().setPixels(0, y, row.length, 1, PixelFormat.getIntArgbInstance(), row, 0, row.length);
+        }
+        return image;
+    }
+}
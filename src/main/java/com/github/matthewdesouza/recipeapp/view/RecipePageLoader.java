@@ -0,0 +1,194 @@
+package com.github.matthewdesouza.recipeapp.view;
+
+import com.github.matthewdesouza.recipeapp.database.AsyncDAO;
+import com.github.matthewdesouza.recipeapp.database.RecipeChange;
+import com.github.matthewdesouza.recipeapp.database.RecipeDAO;
+import com.github.matthewdesouza.recipeapp.model.RecipeSummary;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Data source for the recipe table that pulls recipe summaries from the database one page at a time.
+ * <p>
+ * The first page is loaded on {@link #reset()}; after that a new page is requested whenever the table creates a row
+ * close to the end of what has been loaded, i.e. as the user scrolls. Since the table only creates rows for the
+ * visible part of the list, memory and query cost follow what the user has looked at, not the catalog size.
+ * <p>
+ * Pages are fetched on a background thread and appended on the FX thread, one page at a time; {@link #reset()} drops
+ * a page that is still in flight so it cannot end up in the refreshed list. Single writes are applied to the loaded
+ * rows with {@link #apply(RecipeChange)} rather than through a reset.
+ */
+class RecipePageLoader {
+    static final int DEFAULT_PAGE_SIZE = Integer.getInteger("recipeapp.recipes.pageSize", 100);
+    private static final int PREFETCH_ROWS = 20;
+
+    private final ObservableList<RecipeSummary> items = FXCollections.observableArrayList();
+    private final ReadOnlyBooleanWrapper loading = new ReadOnlyBooleanWrapper(this, "loading");
+    private final AuthorNameResolver authorNames;
+    private final int pageSize;
+
+    private int lastId;
+    private boolean exhausted;
+    private boolean loadScheduled;
+    private CompletableFuture<List<RecipeSummary>> pendingPage;
+
+    RecipePageLoader(AuthorNameResolver authorNames, int pageSize) {
+        this.authorNames = authorNames;
+        this.pageSize = pageSize;
+    }
+
+    ObservableList<RecipeSummary> getItems() {
+        return items;
+    }
+
+    /**
+     * @return Whether a page is currently being fetched.
+     */
+    ReadOnlyBooleanProperty loadingProperty() {
+        return loading.getReadOnlyProperty();
+    }
+
+    /**
+     * Binds the table to this loader's items and fetches the next page as rows near the end are created.
+     *
+     * @param tableView The table to populate.
+     */
+    void attach(TableView<RecipeSummary> tableView) {
+        tableView.setItems(items);
+        tableView.setRowFactory(table -> {
+            TableRow<RecipeSummary> row = new TableRow<>();
+            row.indexProperty().addListener((obs, oldIndex, newIndex) -> {
+                // The table may be showing something else, e.g. search results.
+                if (table.getItems() == items && newIndex.intValue() >= items.size() - PREFETCH_ROWS) {
+                    scheduleNextPage();
+                }
+            });
+            return row;
+        });
+    }
+
+    /**
+     * Drops everything loaded so far and loads the first page again.
+     */
+    void reset() {
+        if (pendingPage != null) {
+            pendingPage.cancel(false);
+            pendingPage = null;
+            loading.set(false);
+        }
+        items.clear();
+        lastId = 0;
+        exhausted = false;
+        loadNextPage();
+    }
+
+    /**
+     * Starts fetching the next page of summaries, unless the end of the table was reached or a page is already
+     * being fetched.
+     */
+    void loadNextPage() {
+        if (exhausted || pendingPage != null) {
+            return;
+        }
+        int afterId = lastId;
+        // The page and its authors' names are read from the same snapshot.
+        CompletableFuture<List<RecipeSummary>> page = AsyncDAO.supplyReadOnly(() -> {
+            List<RecipeSummary> summaries = RecipeDAO.getRecipeSummaryPage(afterId, pageSize);
+            authorNames.resolve(summaries);
+            return summaries;
+        });
+        pendingPage = page;
+        loading.set(true);
+        page.whenComplete((summaries, error) -> Platform.runLater(() -> {
+            if (pendingPage != page) {
+                return; // Superseded by reset().
+            }
+            pendingPage = null;
+            loading.set(false);
+            if (error != null) {
+                error.printStackTrace();
+            } else {
+                append(summaries);
+            }
+        }));
+    }
+
+    /**
+     * Applies one write to the loaded rows, keyed by recipe id: at most one row is added, replaced or removed, so the
+     * scroll position and selection are kept. Rows are in id order, so the row is found by binary search.
+     * <p>
+     * An inserted recipe beyond the loaded pages is left for a later page to bring in.
+     *
+     * @param change Change published by {@link RecipeDAO}.
+     */
+    void apply(RecipeChange change) {
+        int index = indexOf(change.recipeId());
+        switch (change.type()) {
+            case INSERTED -> {
+                if (index < 0 && (exhausted || change.recipeId() < lastId)) {
+                    items.add(-index - 1, change.summary());
+                    lastId = Math.max(lastId, change.recipeId());
+                }
+            }
+            case UPDATED -> {
+                if (index >= 0) {
+                    items.set(index, change.summary());
+                }
+            }
+            case DELETED -> {
+                if (index >= 0) {
+                    items.remove(index);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The index of the recipe's row, or {@code -(insertion point) - 1} if it is not loaded.
+     */
+    private int indexOf(int recipeId) {
+        int low = 0;
+        int high = items.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = items.get(mid).getId();
+            if (midId < recipeId) {
+                low = mid + 1;
+            } else if (midId > recipeId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    private void append(List<RecipeSummary> page) {
+        if (page.size() < pageSize) {
+            exhausted = true;
+        }
+        if (!page.isEmpty()) {
+            lastId = page.get(page.size() - 1).getId();
+            items.addAll(page);
+        }
+    }
+
+    private void scheduleNextPage() {
+        // Rows are indexed during layout, so the list must not change until the current pulse is done.
+        if (!exhausted && !loadScheduled) {
+            loadScheduled = true;
+            Platform.runLater(() -> {
+                loadScheduled = false;
+                loadNextPage();
+            });
+        }
+    }
+}
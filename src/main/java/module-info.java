@@ -2,17 +2,28 @@ module com.github.matthewdesouza.recipeapp {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.sql;
+    requires java.management;
     requires mariadb.java.client;
     requires jbcrypt;
 
     requires org.slf4j;
     requires logback.classic;
+    requires logback.core;
     requires atlantafx.base;
                         
     opens com.github.matthewdesouza.recipeapp to javafx.fxml;
     opens com.github.matthewdesouza.recipeapp.view to javafx.fxml;
     exports com.github.matthewdesouza.recipeapp;
+    exports com.github.matthewdesouza.recipeapp.cache;
+    exports com.github.matthewdesouza.recipeapp.catalog;
+    exports com.github.matthewdesouza.recipeapp.collection;
+    exports com.github.matthewdesouza.recipeapp.metrics;
     exports com.github.matthewdesouza.recipeapp.model;
+    exports com.github.matthewdesouza.recipeapp.popularity;
+    exports com.github.matthewdesouza.recipeapp.recommend;
+    exports com.github.matthewdesouza.recipeapp.search;
+    exports com.github.matthewdesouza.recipeapp.security;
+    exports com.github.matthewdesouza.recipeapp.security.exception;
     exports com.github.matthewdesouza.recipeapp.view;
     exports com.github.matthewdesouza.recipeapp.database;
     exports com.github.matthewdesouza.recipeapp.database.exception;
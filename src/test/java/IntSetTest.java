@@ -0,0 +1,75 @@
+import com.github.matthewdesouza.recipeapp.collection.IntSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSetTest {
+
+    @Test
+    void testAddContainsRemove() {
+        IntSet set = new IntSet();
+        assertTrue(set.add(5));
+        assertFalse(set.add(5));
+        assertTrue(set.add(0)); // The free-slot marker is still a valid element.
+        assertTrue(set.add(-3));
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(-3));
+        assertFalse(set.contains(6));
+
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertArrayEquals(new int[]{-3, 5}, set.toIntArray());
+    }
+
+    @Test
+    void testMatchesHashSetUnderRandomOperations() {
+        Random random = new Random(42);
+        IntSet set = new IntSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (int value = 0; value < 2_000; value++) {
+            assertEquals(expected.contains(value), set.contains(value), "value " + value);
+        }
+        assertEquals(expected, set);
+        assertEquals(set, expected);
+    }
+
+    @Test
+    void testIntersect() {
+        IntSet liked = IntSet.of(1, 2, 3, 40, 500);
+        IntSet page = IntSet.of(2, 3, 4, 500, 600);
+
+        assertEquals(IntSet.of(2, 3, 500), liked.intersect(page));
+        assertEquals(IntSet.of(2, 3, 500), page.intersect(liked));
+        assertTrue(liked.intersect(new IntSet()).isEmpty());
+    }
+
+    @Test
+    void testSetViewAndCopies() {
+        IntSet set = IntSet.copyOf(Set.of(7, 8, 9));
+        IntSet copy = IntSet.copyOf(set);
+        copy.remove(8);
+
+        assertEquals(Set.of(7, 8, 9), set);
+        assertEquals(Set.of(7, 9), copy);
+        assertTrue(set.retainAll(Set.of(8, 9, 10)));
+        assertEquals(Set.of(8, 9), set);
+        assertTrue(set.removeAll(Set.of(9)));
+        assertEquals(Set.of(8), set);
+    }
+}
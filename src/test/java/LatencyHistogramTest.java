@@ -0,0 +1,45 @@
+import com.github.matthewdesouza.recipeapp.metrics.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(99));
+        assertEquals(0.0, histogram.getMeanNanos());
+    }
+
+    @Test
+    void testPercentilesWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        assertEquals(1_000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMaxNanos());
+        assertEquals(500_000, histogram.getPercentileNanos(50), 500_000 * 0.125);
+        assertEquals(990_000, histogram.getPercentileNanos(99), 990_000 * 0.125);
+        assertEquals(1_000_000, histogram.getPercentileNanos(100));
+        assertEquals(500_500, histogram.getMeanNanos(), 0.001);
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(5);
+        histogram.record(-1);
+
+        assertEquals(0, histogram.getPercentileNanos(1));
+        assertEquals(5, histogram.getPercentileNanos(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+    }
+}
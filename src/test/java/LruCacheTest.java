@@ -0,0 +1,150 @@
+import com.github.matthewdesouza.recipeapp.cache.CacheStats;
+import com.github.matthewdesouza.recipeapp.cache.LruCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest {
+
+    @Test
+    void testEvictsLeastRecentlyUsedEntry() {
+        LruCache<Integer, String> cache = LruCache.<Integer, String>builder().maximumSize(2).build();
+        cache.put(1, "one");
+        cache.put(2, "two");
+        assertEquals("one", cache.getIfPresent(1)); // 2 is now the least recently used
+        cache.put(3, "three");
+
+        assertNull(cache.getIfPresent(2));
+        assertEquals("one", cache.getIfPresent(1));
+        assertEquals("three", cache.getIfPresent(3));
+        assertEquals(1, cache.stats().getEvictionCount());
+    }
+
+    @Test
+    void testEvictsByWeight() {
+        LruCache<Integer, String> cache = LruCache.<Integer, String>builder()
+                .maximumWeight(10, (key, value) -> value.length())
+                .build();
+        cache.put(1, "aaaa");
+        cache.put(2, "bbbb");
+        cache.put(3, "cccc");
+
+        assertNull(cache.getIfPresent(1));
+        assertEquals(8, cache.stats().getWeightedSize());
+
+        cache.put(4, "this value is heavier than the whole cache");
+        assertNull(cache.getIfPresent(4));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testReadThroughRecordsStats() {
+        LruCache<Integer, String> cache = LruCache.<Integer, String>builder().maximumSize(10).build();
+        assertEquals("1", cache.get(1, String::valueOf));
+        assertEquals("1", cache.get(1, key -> fail("Value should have been cached.")));
+        assertNull(cache.get(2, key -> null));
+        assertNull(cache.getIfPresent(2));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(3, stats.getMissCount());
+        assertEquals(2, stats.getLoadCount());
+    }
+
+    @Test
+    void testLoadRacingInvalidationIsNotCached() {
+        LruCache<Integer, String> cache = LruCache.<Integer, String>builder().maximumSize(10).build();
+        String loaded = cache.get(1, key -> {
+            cache.invalidate(key); // A concurrent write lands while the value is being read.
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertNull(cache.getIfPresent(1));
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        LruCache<Integer, String> cache = LruCache.<Integer, String>builder().maximumSize(10).build();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cache.get(1, key -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                awaitUninterruptibly(release);
+                return "one";
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(() -> cache.get(1, key -> {
+                loads.incrementAndGet();
+                return "other";
+            }));
+            // Another key is not held up by the load in flight.
+            assertEquals("two", cache.get(2, key -> "two"));
+            release.countDown();
+
+            assertEquals("one", first.get(5, TimeUnit.SECONDS));
+            assertEquals("one", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+            assertEquals("one", cache.getIfPresent(1));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testInvalidatingAnotherKeyDoesNotDiscardLoad() {
+        LruCache<Integer, String> cache = LruCache.<Integer, String>builder().maximumSize(10).build();
+        cache.put(2, "two");
+        String loaded = cache.get(1, key -> {
+            cache.invalidate(2);
+            return "one";
+        });
+
+        assertEquals("one", loaded);
+        assertEquals("one", cache.getIfPresent(1));
+        assertNull(cache.getIfPresent(2));
+    }
+
+    @Test
+    void testLoaderFailureIsNotCached() {
+        LruCache<Integer, String> cache = LruCache.<Integer, String>builder().maximumSize(10).build();
+        assertThrows(IllegalStateException.class, () -> cache.get(1, key -> {
+            throw new IllegalStateException("Database unavailable");
+        }));
+        assertEquals("one", cache.get(1, key -> "one"));
+    }
+
+    @Test
+    void testEntriesExpireAfterWrite() throws InterruptedException {
+        LruCache<Integer, String> cache = LruCache.<Integer, String>builder()
+                .expireAfterWrite(Duration.ofMillis(20))
+                .build();
+        cache.put(1, "one");
+        assertEquals("one", cache.getIfPresent(1));
+
+        Thread.sleep(40);
+        assertNull(cache.getIfPresent(1));
+        assertEquals("reloaded", cache.get(1, key -> "reloaded"));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+import com.github.matthewdesouza.recipeapp.security.PasswordHasher;
+import com.github.matthewdesouza.recipeapp.security.exception.PasswordHasherBusyException;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    @Test
+    void testHashAndVerify() {
+        try (PasswordHasher hasher = new PasswordHasher(4, 2, 8, 10_000)) {
+            String hash = hasher.hash("correct horse");
+            assertTrue(hash.startsWith("$2a$04$"));
+            assertTrue(hasher.verify("correct horse", hash));
+            assertFalse(hasher.verify("battery staple", hash));
+            assertEquals(1, hasher.getStats().getHashCount());
+            assertEquals(2, hasher.getStats().getVerificationCount());
+        }
+    }
+
+    @Test
+    void testNeedsRehashWhenCostChanges() {
+        try (PasswordHasher hasher = new PasswordHasher(5, 1, 8, 10_000)) {
+            assertTrue(hasher.needsRehash(BCrypt.hashpw("password", BCrypt.gensalt(4))));
+            assertFalse(hasher.needsRehash(hasher.hash("password")));
+            assertFalse(hasher.needsRehash("not a bcrypt hash"));
+        }
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws InterruptedException {
+        // One worker and one queue slot: of many concurrent expensive hashes, some must be turned away.
+        try (PasswordHasher hasher = new PasswordHasher(12, 1, 1, 60_000);
+             ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> hasher.hash("password")));
+            }
+            int rejected = 0;
+            for (Future<String> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    assertInstanceOf(PasswordHasherBusyException.class, e.getCause());
+                    rejected++;
+                }
+            }
+            assertTrue(rejected > 0);
+            assertEquals(rejected, hasher.getStats().getRejectionCount());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+import com.github.matthewdesouza.recipeapp.popularity.PopularityIndex;
+import com.github.matthewdesouza.recipeapp.popularity.RankedRecipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopularityIndexTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    private MutableClock clock;
+    private PopularityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(TODAY);
+        index = new PopularityIndex(clock);
+        index.ensureBuilt(since -> {
+            assertEquals(TODAY.minusDays(PopularityIndex.TRENDING_DAYS - 1), since);
+            return new PopularityIndex.LikeCounts(Map.of(1, 10, 2, 4, 3, 1),
+                    Map.of(since, Map.of(2, 3), TODAY, Map.of(3, 1)));
+        });
+    }
+
+    @Test
+    void testRankingsAfterBuild() {
+        assertEquals(List.of(new RankedRecipe(1, 10), new RankedRecipe(2, 4)), index.mostLiked(2));
+        assertEquals(List.of(new RankedRecipe(2, 3), new RankedRecipe(3, 1)), index.trending(10));
+    }
+
+    @Test
+    void testLikesReorderRankings() {
+        index.recordLike(3);
+        index.recordLike(3);
+        index.recordLike(3);
+        index.recordUnlike(2, TODAY);
+
+        assertEquals(List.of(1, 3, 2), ids(index.mostLiked(10)));
+        assertEquals(List.of(new RankedRecipe(3, 4), new RankedRecipe(2, 2)), index.trending(10));
+
+        index.remove(3);
+        assertEquals(List.of(1, 2), ids(index.mostLiked(10)));
+        assertEquals(0, index.likes(3));
+    }
+
+    @Test
+    void testUnlikesAreTakenFromTheDayOfTheLike() {
+        index.recordUnlike(1, TODAY.minusDays(PopularityIndex.TRENDING_DAYS));
+        index.recordUnlike(2, TODAY.minusDays(PopularityIndex.TRENDING_DAYS - 1));
+
+        assertEquals(List.of(new RankedRecipe(2, 2), new RankedRecipe(3, 1)), index.trending(10));
+        assertEquals(9, index.likes(1));
+
+        // Once the day of the withdrawn likes leaves the window, nothing more is taken off.
+        clock.day = TODAY.plusDays(1);
+        assertEquals(List.of(new RankedRecipe(3, 1)), index.trending(10));
+    }
+
+    @Test
+    void testTrendingWindowMovesWithTheDays() {
+        index.recordLike(1);
+
+        clock.day = TODAY.plusDays(1);
+        // The likes of recipe 2 were made on the first day of the window.
+        assertEquals(List.of(new RankedRecipe(1, 1), new RankedRecipe(3, 1)), index.trending(10));
+
+        clock.day = TODAY.plusDays(30);
+        index.recordLike(2);
+        assertEquals(List.of(new RankedRecipe(2, 1)), index.trending(10));
+        assertEquals(List.of(new RankedRecipe(1, 11), new RankedRecipe(2, 5), new RankedRecipe(3, 1)), index.mostLiked(10));
+    }
+
+    @Test
+    void testConcurrentLikesAreCounted() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        index.recordLike(100 + i % 10);
+                        index.mostLiked(5);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int recipeId = 100; recipeId < 110; recipeId++) {
+            assertEquals(400, index.likes(recipeId));
+        }
+        List<RankedRecipe> top = index.mostLiked(20);
+        assertEquals(13, top.size());
+        assertEquals(new RankedRecipe(100, 400), top.get(0));
+    }
+
+    @Test
+    void testFailedBuildIsRetried() {
+        PopularityIndex fresh = new PopularityIndex(clock);
+        assertThrows(IllegalStateException.class, () -> fresh.ensureBuilt(since -> {
+            throw new IllegalStateException("Database unavailable");
+        }));
+        assertFalse(fresh.isBuilt());
+
+        fresh.ensureBuilt(since -> new PopularityIndex.LikeCounts(Map.of(5, 2), Map.of()));
+        assertEquals(List.of(new RankedRecipe(5, 2)), fresh.mostLiked(10));
+    }
+
+    private static List<Integer> ids(List<RankedRecipe> ranking) {
+        return ranking.stream().map(RankedRecipe::recipeId).toList();
+    }
+
+    private static final class MutableClock extends Clock {
+        private LocalDate day;
+
+        private MutableClock(LocalDate day) {
+            this.day = day;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    }
+}
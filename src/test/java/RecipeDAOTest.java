@@ -1,21 +1,29 @@
-import com.github.matthewdesouza.recipeapp.database.DatabaseConnector;
+import com.github.matthewdesouza.recipeapp.database.InMemoryStorageBackend;
+import com.github.matthewdesouza.recipeapp.database.RecipeChange;
 import com.github.matthewdesouza.recipeapp.database.RecipeDAO;
+import com.github.matthewdesouza.recipeapp.database.Storage;
+import com.github.matthewdesouza.recipeapp.database.StorageBackend;
 import com.github.matthewdesouza.recipeapp.database.UserDAO;
 import com.github.matthewdesouza.recipeapp.model.Recipe;
 import com.github.matthewdesouza.recipeapp.model.User;
 import org.junit.jupiter.api.*;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class RecipeDAOTest {
-    private static User testUser;
+    private StorageBackend previousBackend;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        previousBackend = Storage.use(new InMemoryStorageBackend());
 
-    @BeforeAll
-    static void setUp() {
         // Assuming UserDAO.createUser is available and correctly implemented, passing tests.
         testUser = new User();
         testUser.setUsername("recipeDAOuser");
@@ -23,17 +31,26 @@ class RecipeDAOTest {
         UserDAO.createUser(testUser);
     }
 
-    @Test
-    @Order(1)
-    void testCreateRecipe() {
+    @AfterEach
+    void restoreBackend() {
+        Storage.use(previousBackend).close();
+    }
+
+    private Recipe createTestRecipe() {
         Recipe recipe = new Recipe();
         recipe.setTitle("Test Recipe");
         recipe.setContent("Test Content");
         recipe.setImageUri("http://example.com/image.jpg");
         recipe.setUserId(testUser.getId());
-
         RecipeDAO.createRecipe(recipe, testUser);
-        assertEquals(2, recipe.getUserId());
+        return recipe;
+    }
+
+    @Test
+    void testCreateRecipe() {
+        Recipe recipe = createTestRecipe();
+        assertTrue(recipe.getId() > 0);
+        assertEquals(testUser.getId(), recipe.getUserId());
 
         Recipe recipe2 = RecipeDAO.getRecipeByRecipeId(recipe.getId());
 
@@ -41,54 +58,125 @@ class RecipeDAOTest {
     }
 
     @Test
-    @Order(2)
+    void testCreateRecipeForUnknownUser() {
+        User unknown = new User("nobody", "nobody");
+        unknown.setId(testUser.getId() + 1);
+        Recipe recipe = new Recipe();
+        recipe.setTitle("Orphan Recipe");
+        recipe.setContent("Test Content");
+
+        RecipeDAO.createRecipe(recipe, unknown);
+
+        assertEquals(0, recipe.getId());
+        assertTrue(RecipeDAO.getAllRecipes().isEmpty());
+    }
+
+    @Test
     void testGetRecipeByRecipeId() {
-        // Assuming the recipe with ID 1 exists
-        Recipe recipe = RecipeDAO.getRecipeByRecipeId(1);
+        int id = createTestRecipe().getId();
+
+        Recipe recipe = RecipeDAO.getRecipeByRecipeId(id);
         assertNotNull(recipe);
         assertEquals("Test Recipe", recipe.getTitle());
+        assertNull(RecipeDAO.getRecipeByRecipeId(id + 1));
     }
 
     @Test
-    @Order(3)
     void testGetAllRecipes() {
+        createTestRecipe();
+
         Set<Recipe> recipes = RecipeDAO.getAllRecipes();
         assertNotNull(recipes);
-        assertFalse(recipes.isEmpty());
+        assertEquals(1, recipes.size());
+        assertEquals("recipeDAOuser", recipes.iterator().next().getAuthorUsername());
     }
 
     @Test
-    @Order(4)
     void testUpdateRecipe() {
-        Recipe recipe = RecipeDAO.getRecipeByRecipeId(1); // Assuming this recipe exists
+        Recipe recipe = RecipeDAO.getRecipeByRecipeId(createTestRecipe().getId());
         assertNotNull(recipe);
         recipe.setTitle("Updated Recipe Title");
 
         int affectedRows = RecipeDAO.updateRecipe(recipe);
         assertEquals(1, affectedRows);
 
-        Recipe updatedRecipe = RecipeDAO.getRecipeByRecipeId(1);
+        Recipe updatedRecipe = RecipeDAO.getRecipeByRecipeId(recipe.getId());
         assertEquals("Updated Recipe Title", updatedRecipe.getTitle());
     }
 
     @Test
-    @Order(5)
     void testSearchRecipesByTitle() {
-        // Assuming a recipe with the title "Test Recipe" exists in the database
+        createTestRecipe();
+
         Set<Recipe> foundRecipes = RecipeDAO.searchRecipesByTitle("ecip");
         assertFalse(foundRecipes.isEmpty());
         assertTrue(foundRecipes.stream().anyMatch(recipe -> recipe.getTitle().contains("ecip")));
     }
 
     @Test
-    @Order(6)
     void testDeleteRecipeById() {
-        int affectedRows = RecipeDAO.deleteRecipe(1); // Assuming the recipe with ID 1 exists
+        int id = createTestRecipe().getId();
+
+        int affectedRows = RecipeDAO.deleteRecipe(id);
         assertEquals(1, affectedRows);
+        assertEquals(0, RecipeDAO.deleteRecipe(id));
     }
 
-    @AfterAll
-    static void resetDatabase() throws SQLException {
-        DatabaseConnector.getInstance().executeQuery("DROP SCHEMA recipe");
+    @Test
+    void testChangeListenerSeesEachWrite() {
+        List<RecipeChange> changes = new ArrayList<>();
+        Consumer<RecipeChange> listener = changes::add;
+        RecipeDAO.addChangeListener(listener);
+        try {
+            Recipe recipe = createTestRecipe();
+            recipe.setTitle("Renamed");
+            RecipeDAO.updateRecipe(recipe);
+            RecipeDAO.deleteRecipe(recipe.getId());
+            RecipeDAO.deleteRecipe(recipe.getId());
+        } finally {
+            RecipeDAO.removeChangeListener(listener);
+        }
+
+        assertEquals(List.of(RecipeChange.Type.INSERTED, RecipeChange.Type.UPDATED, RecipeChange.Type.DELETED),
+                changes.stream().map(RecipeChange::type).toList());
+        assertEquals("Renamed", changes.get(1).summary().getTitle());
+        assertTrue(changes.stream().allMatch(change -> change.recipeId() == changes.get(0).recipeId()));
+    }
+
+    @Test
+    void testRolledBackUpdateLeavesCacheAndListenersAlone() {
+        Recipe recipe = createTestRecipe();
+        List<RecipeChange> changes = new ArrayList<>();
+        Consumer<RecipeChange> listener = changes::add;
+        RecipeDAO.addChangeListener(listener);
+        try {
+            assertThrows(SQLException.class, () -> Storage.get().inTransaction(() -> {
+                Recipe renamed = new Recipe(recipe);
+                renamed.setTitle("Uncommitted");
+                RecipeDAO.updateRecipe(renamed);
+                // Read inside the transaction, where the uncommitted row must not be cached.
+                assertEquals("Uncommitted", RecipeDAO.getRecipeByRecipeId(recipe.getId()).getTitle());
+                throw new SQLException("Rolling back.");
+            }));
+        } finally {
+            RecipeDAO.removeChangeListener(listener);
+        }
+
+        assertTrue(changes.isEmpty());
+        assertEquals("Test Recipe", RecipeDAO.getRecipeByRecipeId(recipe.getId()).getTitle());
+        assertEquals(List.of(), RecipeDAO.searchRecipes("uncommitted", 10));
+    }
+
+    @Test
+    void testRenamedAuthorShowsInCachedSummaries() {
+        createTestRecipe();
+        assertEquals("recipeDAOuser", RecipeDAO.getRecipeSummaryPage(0, 10).get(0).getAuthorUsername());
+        assertEquals("recipeDAOuser", RecipeDAO.searchRecipes("test", 10).get(0).getAuthorUsername());
+
+        testUser.setUsername("renamedAuthor");
+        assertEquals(1, UserDAO.updateUserUsername(testUser));
+
+        assertEquals("renamedAuthor", RecipeDAO.getRecipeSummaryPage(0, 10).get(0).getAuthorUsername());
+        assertEquals("renamedAuthor", RecipeDAO.searchRecipes("test", 10).get(0).getAuthorUsername());
     }
 }
@@ -0,0 +1,144 @@
+import com.github.matthewdesouza.recipeapp.catalog.ExportResult;
+import com.github.matthewdesouza.recipeapp.catalog.RecipeExporter;
+import com.github.matthewdesouza.recipeapp.catalog.RecipeFormat;
+import com.github.matthewdesouza.recipeapp.catalog.RecipeReader;
+import com.github.matthewdesouza.recipeapp.catalog.RecipeWriter;
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeExporterTest {
+    private static final List<Recipe> TABLE = List.of(
+            recipe(3, "Soup", "Chop, then simmer.\nServe \"hot\".", null),
+            recipe(5, "Café Bread", "Knead\tand bake.", "file:/bread.png"),
+            recipe(9, "Salad", "Toss.", null));
+
+    @Test
+    void testExportRoundTripsThroughReader() throws IOException, SQLException {
+        for (RecipeFormat format : RecipeFormat.values()) {
+            StringWriter out = new StringWriter();
+            ExportResult result;
+            try (RecipeWriter writer = RecipeWriter.open(out, format, true)) {
+                result = exporter().exportTo(writer, 0);
+            }
+
+            assertEquals(3, result.exportedCount());
+            assertEquals(9, result.lastId());
+            assertEquals(TABLE, readAll(out.toString(), format), format.name());
+        }
+    }
+
+    @Test
+    void testResumeAfterLastExportedId() throws IOException, SQLException {
+        StringWriter out = new StringWriter();
+        try (RecipeWriter writer = RecipeWriter.open(out, RecipeFormat.CSV, true)) {
+            exporter().exportTo(writer, 0);
+        }
+        StringWriter appended = new StringWriter();
+        ExportResult result;
+        try (RecipeWriter writer = RecipeWriter.open(appended, RecipeFormat.CSV, false)) {
+            result = exporter().exportTo(writer, 3);
+        }
+
+        assertEquals(2, result.exportedCount());
+        assertFalse(appended.toString().startsWith("id,"));
+        assertEquals(TABLE.subList(1, 3), readAll("id,title,content,uri,userId\r\n" + appended, RecipeFormat.CSV));
+    }
+
+    @Test
+    void testResumeDropsRecordCutOffByInterruption(@TempDir Path dir) throws IOException, SQLException {
+        for (RecipeFormat format : RecipeFormat.values()) {
+            String full = exportAll(format);
+            String complete = full.substring(0, full.indexOf(format == RecipeFormat.CSV ? "9," : "{\"id\": 9"));
+            Path file = dir.resolve("recipes." + format.name().toLowerCase());
+            Files.writeString(file, full.substring(0, complete.length() + 7));
+
+            assertEquals(5, RecipeExporter.trimForResume(file, format, false), format.name());
+            assertEquals(complete, Files.readString(file), format.name());
+
+            append(Files.newOutputStream(file, StandardOpenOption.APPEND), format, 5);
+            assertEquals(TABLE, readAll(Files.readString(file), format), format.name());
+        }
+    }
+
+    @Test
+    void testResumeRecompressesTruncatedGzip(@TempDir Path dir) throws IOException, SQLException {
+        Path file = dir.resolve("recipes.jsonl.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(exportAll(RecipeFormat.JSONL).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] compressed = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(compressed, compressed.length - 12)); // Trailer and the end of the data lost.
+
+        int lastId = RecipeExporter.trimForResume(file, RecipeFormat.JSONL, true);
+        append(new GZIPOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND)), RecipeFormat.JSONL, lastId);
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertEquals(TABLE, readAll(new String(in.readAllBytes(), StandardCharsets.UTF_8), RecipeFormat.JSONL));
+        }
+    }
+
+    private static String exportAll(RecipeFormat format) throws IOException, SQLException {
+        StringWriter out = new StringWriter();
+        try (RecipeWriter writer = RecipeWriter.open(out, format, true)) {
+            exporter().exportTo(writer, 0);
+        }
+        return out.toString();
+    }
+
+    private static void append(OutputStream out, RecipeFormat format, int afterId) throws IOException, SQLException {
+        try (RecipeWriter writer = RecipeWriter.open(new OutputStreamWriter(out, StandardCharsets.UTF_8), format, false)) {
+            exporter().exportTo(writer, afterId);
+        }
+    }
+
+    private static RecipeExporter exporter() {
+        return new RecipeExporter(2, (afterId, fetchSize, consumer) -> {
+            for (Recipe recipe : TABLE) {
+                if (recipe.getId() > afterId) {
+                    consumer.accept(new Recipe(recipe));
+                }
+            }
+        });
+    }
+
+    private static List<Recipe> readAll(String input, RecipeFormat format) throws IOException {
+        List<Recipe> recipes = new ArrayList<>();
+        try (RecipeReader reader = RecipeReader.open(new StringReader(input), format)) {
+            Recipe recipe;
+            while ((recipe = reader.next()) != null) {
+                recipes.add(recipe);
+            }
+        }
+        return recipes;
+    }
+
+    private static Recipe recipe(int id, String title, String content, String uri) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setTitle(title);
+        recipe.setContent(content);
+        recipe.setImageUri(uri);
+        recipe.setUserId(1);
+        return recipe;
+    }
+}
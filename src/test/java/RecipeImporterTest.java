@@ -0,0 +1,99 @@
+import com.github.matthewdesouza.recipeapp.catalog.ImportResult;
+import com.github.matthewdesouza.recipeapp.catalog.RecipeFormat;
+import com.github.matthewdesouza.recipeapp.catalog.RecipeImporter;
+import com.github.matthewdesouza.recipeapp.catalog.RecipeReader;
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeImporterTest {
+
+    @Test
+    void testReadJsonLines() throws IOException {
+        String input = """
+                {"title": "Pancakes", "content": "Mix.\\nFry \\"gently\\".", "uri": null, "userId": 7}
+
+                {"content": "Bake.", "title": "Caf\\u00e9 Bread", "imageUri": "file:/bread.png"}
+                """;
+        List<Recipe> recipes = readAll(input, RecipeFormat.JSONL);
+
+        assertEquals(2, recipes.size());
+        assertEquals("Pancakes", recipes.get(0).getTitle());
+        assertEquals("Mix.\nFry \"gently\".", recipes.get(0).getContent());
+        assertNull(recipes.get(0).getImageUri());
+        assertEquals(7, recipes.get(0).getUserId());
+        assertEquals("Café Bread", recipes.get(1).getTitle());
+        assertEquals("file:/bread.png", recipes.get(1).getImageUri());
+        assertEquals(0, recipes.get(1).getUserId());
+    }
+
+    @Test
+    void testReadCsv() throws IOException {
+        String input = "userId,title,content\r\n"
+                + "3,Soup,\"Chop, then simmer.\nServe \"\"hot\"\".\"\r\n"
+                + ",Salad,Toss.\n";
+        List<Recipe> recipes = readAll(input, RecipeFormat.CSV);
+
+        assertEquals(2, recipes.size());
+        assertEquals("Soup", recipes.get(0).getTitle());
+        assertEquals("Chop, then simmer.\nServe \"hot\".", recipes.get(0).getContent());
+        assertEquals(3, recipes.get(0).getUserId());
+        assertEquals("Salad", recipes.get(1).getTitle());
+        assertEquals(0, recipes.get(1).getUserId());
+    }
+
+    @Test
+    void testMalformedJsonNamesLine() {
+        IOException e = assertThrows(IOException.class,
+                () -> readAll("{\"title\": \"ok\", \"content\": \"ok\"}\n{\"title\": }\n", RecipeFormat.JSONL));
+        assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+    }
+
+    @Test
+    void testImportBatchesAndReturnsIdsInOrder() throws IOException, SQLException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            input.append("{\"title\": \"Recipe ").append(i).append("\", \"content\": \"Step.\"}\n");
+        }
+        input.append("{\"title\": \"No content\"}\n");
+
+        List<Integer> batchSizes = new ArrayList<>();
+        int[] nextId = {100};
+        RecipeImporter importer = new RecipeImporter(4, 1, batch -> {
+            batchSizes.add(batch.size());
+            int[] ids = new int[batch.size()];
+            for (int i = 0; i < ids.length; i++) {
+                assertEquals(1, batch.get(i).getUserId());
+                ids[i] = nextId[0]++;
+            }
+            return ids;
+        });
+
+        ImportResult result;
+        try (RecipeReader reader = RecipeReader.open(new StringReader(input.toString()), RecipeFormat.JSONL)) {
+            result = importer.importFrom(reader);
+        }
+
+        assertEquals(List.of(4, 4, 2), batchSizes);
+        assertArrayEquals(new int[]{100, 101, 102, 103, 104, 105, 106, 107, 108, 109}, result.recipeIds());
+        assertEquals(1, result.skipped());
+    }
+
+    private static List<Recipe> readAll(String input, RecipeFormat format) throws IOException {
+        List<Recipe> recipes = new ArrayList<>();
+        try (RecipeReader reader = RecipeReader.open(new StringReader(input), format)) {
+            Recipe recipe;
+            while ((recipe = reader.next()) != null) {
+                recipes.add(recipe);
+            }
+        }
+        return recipes;
+    }
+}
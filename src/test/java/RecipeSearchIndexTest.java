@@ -0,0 +1,104 @@
+import com.github.matthewdesouza.recipeapp.model.Recipe;
+import com.github.matthewdesouza.recipeapp.model.RecipeSummary;
+import com.github.matthewdesouza.recipeapp.search.RecipeSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeSearchIndexTest {
+    private RecipeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RecipeSearchIndex();
+        index.ensureBuilt((afterId, pageSize) -> afterId > 0 ? List.of() : List.of(
+                recipe(1, "Chocolate Cake", "Flour, sugar, cocoa and eggs."),
+                recipe(2, "Carrot Soup", "Carrots, onions and a little chocolate for depth."),
+                recipe(3, "Crème Brûlée", "Cream, sugar and vanilla.")));
+    }
+
+    @Test
+    void testTitleMatchesRankAboveContentMatches() {
+        List<RecipeSummary> results = index.search("chocolate", 10);
+        assertEquals(List.of(1, 2), ids(results));
+    }
+
+    @Test
+    void testLastTermMatchesAsPrefix() {
+        assertEquals(List.of(2), ids(index.search("carr", 10)));
+        assertEquals(List.of(1), ids(index.search("chocolate cak", 10)));
+    }
+
+    @Test
+    void testAllTermsMustMatch() {
+        assertEquals(List.of(), ids(index.search("chocolate vanilla", 10)));
+        assertEquals(List.of(1, 3), ids(index.search("sugar", 10)));
+    }
+
+    @Test
+    void testAccentsAndCaseAreFolded() {
+        assertEquals(List.of(3), ids(index.search("CREME brulee", 10)));
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        index.index(recipe(4, "Chocolate Mousse", "Dark chocolate and cream."));
+        index.index(recipe(1, "Lemon Cake", "Flour, sugar, lemons and eggs."));
+        index.remove(2);
+
+        assertEquals(List.of(4), ids(index.search("chocolate", 10)));
+        assertEquals(List.of(1), ids(index.search("lemon", 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testShortPrefixReachesCommonTermsLateInTheAlphabet() {
+        RecipeSearchIndex large = new RecipeSearchIndex();
+        List<Recipe> recipes = new ArrayList<>();
+        // 300 rare terms sort before "chocolate", more than a prefix expands to.
+        for (int id = 1; id <= 300; id++) {
+            recipes.add(recipe(id, "Recipe " + id, "Uses ca%03d.".formatted(id)));
+        }
+        for (int id = 301; id <= 305; id++) {
+            recipes.add(recipe(id, "Dessert " + id, "Lots of chocolate."));
+        }
+        large.ensureBuilt((afterId, pageSize) -> afterId > 0 ? List.of() : recipes);
+
+        assertEquals(List.of(301, 302, 303, 304, 305), ids(large.search("dessert c", 10)));
+    }
+
+    @Test
+    void testTermTooLongToIndexMatchesNothing() {
+        assertEquals(List.of(), ids(index.search("chocolate " + "x".repeat(41), 10)));
+        assertEquals(List.of(), ids(index.search("x".repeat(41) + " chocolate", 10)));
+    }
+
+    @Test
+    void testFailedBuildIsRetried() {
+        RecipeSearchIndex fresh = new RecipeSearchIndex();
+        assertThrows(IllegalStateException.class, () -> fresh.ensureBuilt((afterId, pageSize) -> {
+            throw new IllegalStateException("Database unavailable");
+        }));
+        assertFalse(fresh.isStarted());
+
+        fresh.ensureBuilt((afterId, pageSize) -> afterId > 0 ? List.of() : List.of(recipe(1, "Apple Pie", "Apples.")));
+        assertEquals(List.of(1), ids(fresh.search("apple", 10)));
+    }
+
+    private static List<Integer> ids(List<RecipeSummary> results) {
+        return results.stream().map(RecipeSummary::getId).toList();
+    }
+
+    private static Recipe recipe(int id, String title, String content) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setTitle(title);
+        recipe.setContent(content);
+        recipe.setUserId(1);
+        return recipe;
+    }
+}
@@ -0,0 +1,125 @@
+import com.github.matthewdesouza.recipeapp.collection.IntSet;
+import com.github.matthewdesouza.recipeapp.recommend.Recommendation;
+import com.github.matthewdesouza.recipeapp.recommend.RecommendationIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendationIndexTest {
+    private RecommendationIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RecommendationIndex();
+        // Recipes 1 and 2 are liked together by three users, 1 and 3 by one; 4 is liked by all but one user.
+        index.ensureBuilt(() -> new HashMap<>(Map.of(
+                10, IntSet.of(1, 2, 4),
+                11, IntSet.of(1, 2, 4),
+                12, IntSet.of(1, 2, 3, 4),
+                13, IntSet.of(3, 4),
+                14, IntSet.of(5))));
+    }
+
+    @Test
+    void testSimilarRecipesAfterBuild() {
+        // cos(1, 2) = 3 / sqrt(3 * 3), cos(1, 4) = 3 / sqrt(3 * 4), cos(1, 3) = 1 / sqrt(3 * 2)
+        assertEquals(List.of(2, 4, 3), ids(index.similar(1, 10)));
+        assertEquals(1.0, index.similar(1, 1).get(0).score(), 1e-9);
+        assertEquals(List.of(2, 4), ids(index.similar(1, 2)));
+        assertTrue(index.similar(5, 10).isEmpty());
+        assertTrue(index.similar(99, 10).isEmpty());
+    }
+
+    @Test
+    void testLikesUpdateSimilarity() {
+        index.recordLike(13, 1);
+        index.recordLike(14, 3);
+        index.recordLike(14, 3); // Counted once.
+        index.recordUnlike(12, 2);
+
+        // cos(1, 4) = 4 / sqrt(4 * 4) now beats cos(1, 2) = 2 / sqrt(4 * 2) and cos(1, 3) = 2 / sqrt(4 * 3).
+        assertEquals(List.of(4, 2, 3), ids(index.similar(1, 10)));
+        assertEquals(1.0, index.similar(1, 1).get(0).score(), 1e-9);
+        assertEquals(List.of(3), ids(index.similar(5, 10)));
+
+        index.remove(3);
+        assertEquals(List.of(4, 2), ids(index.similar(1, 10)));
+        assertTrue(index.similar(5, 10).isEmpty());
+    }
+
+    @Test
+    void testRecommendationsLeaveOutLikedRecipes() {
+        List<Recommendation> recommended = index.recommendFor(IntSet.of(2, 4), 10);
+        assertEquals(List.of(1, 3), ids(recommended));
+        // cos(2, 1) + cos(4, 1) against cos(4, 3) alone.
+        assertEquals(1.0 + 3 / Math.sqrt(12), recommended.get(0).score(), 1e-9);
+
+        assertTrue(index.recommendFor(IntSet.of(5), 10).isEmpty());
+        assertTrue(index.recommendFor(new IntSet(), 10).isEmpty());
+    }
+
+    @Test
+    void testParallelBuildMatchesIncrementalUpdates() {
+        Random random = new Random(7);
+        Map<Integer, IntSet> likes = new HashMap<>();
+        for (int userId = 0; userId < 500; userId++) {
+            IntSet liked = new IntSet();
+            for (int i = random.nextInt(20); i > 0; i--) {
+                liked.add(1 + random.nextInt(200));
+            }
+            likes.put(userId, liked);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            RecommendationIndex built = new RecommendationIndex(pool);
+            Map<Integer, IntSet> copy = new HashMap<>();
+            likes.forEach((userId, liked) -> copy.put(userId, IntSet.copyOf(liked)));
+            built.ensureBuilt(() -> copy);
+
+            RecommendationIndex incremental = new RecommendationIndex(pool);
+            incremental.ensureBuilt(HashMap::new);
+            likes.forEach((userId, liked) -> liked.forEachInt(recipeId -> incremental.recordLike(userId, recipeId)));
+
+            for (int recipeId = 1; recipeId <= 200; recipeId++) {
+                assertEquals(built.similar(recipeId, 20), incremental.similar(recipeId, 20), "recipe " + recipeId);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testLikesBeforeBuildAreLeftToTheSource() {
+        RecommendationIndex fresh = new RecommendationIndex();
+        fresh.recordLike(1, 1);
+        fresh.recordLike(1, 2);
+        assertFalse(fresh.isBuilt());
+
+        fresh.ensureBuilt(() -> new HashMap<>(Map.of(1, IntSet.of(1, 2))));
+        assertEquals(List.of(new Recommendation(2, 1.0)), fresh.similar(1, 10));
+    }
+
+    @Test
+    void testFailedBuildIsRetried() {
+        RecommendationIndex fresh = new RecommendationIndex();
+        assertThrows(IllegalStateException.class, () -> fresh.ensureBuilt(() -> {
+            throw new IllegalStateException("Database unavailable");
+        }));
+        assertFalse(fresh.isBuilt());
+
+        fresh.ensureBuilt(() -> new HashMap<>(Map.of(1, IntSet.of(1, 2))));
+        assertEquals(List.of(2), ids(fresh.similar(1, 10)));
+    }
+
+    private static List<Integer> ids(List<Recommendation> recommendations) {
+        return recommendations.stream().map(Recommendation::recipeId).toList();
+    }
+}
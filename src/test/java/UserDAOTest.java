@@ -1,24 +1,45 @@
-import com.github.matthewdesouza.recipeapp.database.DatabaseConnector;
+import com.github.matthewdesouza.recipeapp.database.InMemoryStorageBackend;
+import com.github.matthewdesouza.recipeapp.database.RecipeDAO;
+import com.github.matthewdesouza.recipeapp.database.Storage;
+import com.github.matthewdesouza.recipeapp.database.StorageBackend;
 import com.github.matthewdesouza.recipeapp.database.UserDAO;
 import com.github.matthewdesouza.recipeapp.database.exception.UserNotFoundException;
+import com.github.matthewdesouza.recipeapp.model.Recipe;
 import com.github.matthewdesouza.recipeapp.model.User;
+import com.github.matthewdesouza.recipeapp.popularity.RankedRecipe;
+import com.github.matthewdesouza.recipeapp.recommend.Recommendation;
 import org.junit.jupiter.api.*;
 import org.mindrot.jbcrypt.BCrypt;
 
-import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class UserDAOTest {
+    private StorageBackend previousBackend;
 
-    @Test
-    @Order(1)
-    void testCreateUser() {
+    @BeforeEach
+    void setUp() {
+        previousBackend = Storage.use(new InMemoryStorageBackend());
+    }
+
+    @AfterEach
+    void restoreBackend() {
+        Storage.use(previousBackend).close();
+    }
+
+    private static User createUser(String username, String password) {
         User user = new User();
-        user.setUsername("test1");
-        user.setPassword("test1");
+        user.setUsername(username);
+        user.setPassword(password);
         UserDAO.createUser(user);
+        return user;
+    }
+
+    @Test
+    void testCreateUser() {
+        User user = createUser("test1", "test1");
         User user2 = UserDAO.getUserByUsername(user.getUsername());
 
         assertNotNull(user2);
@@ -27,56 +48,55 @@ class UserDAOTest {
     }
 
     @Test
-    @Order(2)
+    void testCreateDuplicateUser() {
+        int id = createUser("test1", "test1").getId();
+        User duplicate = createUser("test1", "other");
+
+        assertEquals(0, duplicate.getId());
+        assertEquals(id, UserDAO.getUserByUsername("test1").getId());
+    }
+
+    @Test
     void testUsernameExists() {
+        createUser("test1", "test1");
+
         assertTrue(UserDAO.usernameExists("test1"));
         assertFalse(UserDAO.usernameExists("iDoNotExist"));
     }
 
     @Test
-    @Order(3)
     void testAuthenticateUser() throws UserNotFoundException {
+        createUser("test1", "test1");
+
         User user = UserDAO.authenticateUser("test1", "test1");
         assertNotNull(user);
+        assertThrows(UserNotFoundException.class, () -> UserDAO.authenticateUser("test1", "wrong"));
     }
 
     @Test
-    @Order(4)
-    void testDeleteUserByUserObject() throws UserNotFoundException {
-        User user = new User();
-        user.setUsername("test2");
-        user.setPassword("test2");
-        UserDAO.createUser(user);
+    void testDeleteUserByUserObject() {
+        createUser("test2", "test2");
 
-        User user2 = UserDAO.getUserByUsername(user.getUsername());
+        User user2 = UserDAO.getUserByUsername("test2");
 
         int affectedRows = UserDAO.deleteUser(user2);
         assertEquals(1, affectedRows);
-
+        assertFalse(UserDAO.usernameExists("test2"));
     }
 
     @Test
-    @Order(5)
-    void testDeleteUserByUserId() throws UserNotFoundException {
-        User user = new User();
-        user.setUsername("test3");
-        user.setPassword("test3");
-
-        UserDAO.createUser(user);
+    void testDeleteUserByUserId() {
+        createUser("test3", "test3");
 
-        User user2 = UserDAO.getUserByUsername(user.getUsername());
+        User user2 = UserDAO.getUserByUsername("test3");
         int affectedRows = UserDAO.deleteUser(user2.getId());
 
         assertEquals(1, affectedRows);
     }
 
     @Test
-    @Order(6)
-    void testUpdateUserUsername() throws UserNotFoundException {
-        User user = new User();
-        user.setUsername("test4");
-        user.setPassword("test4");
-        UserDAO.createUser(user);
+    void testUpdateUserUsername() {
+        createUser("test4", "test4");
 
         User createdUser = UserDAO.getUserByUsername("test4");
         createdUser.setUsername("test4updated");
@@ -85,15 +105,12 @@ class UserDAOTest {
 
         User updatedUser = UserDAO.getUserByUsername("test4updated");
         assertEquals("test4updated", updatedUser.getUsername());
+        assertFalse(UserDAO.usernameExists("test4"));
     }
 
     @Test
-    @Order(7)
-    void testUpdateUserPassword() throws UserNotFoundException {
-        User user = new User();
-        user.setUsername("test5");
-        user.setPassword("test5");
-        UserDAO.createUser(user);
+    void testUpdateUserPassword() {
+        createUser("test5", "test5");
 
         User createdUser = UserDAO.getUserByUsername("test5");
         createdUser.setPassword("test5updated");
@@ -105,12 +122,8 @@ class UserDAOTest {
     }
 
     @Test
-    @Order(8)
-    void testUpdateUser() throws UserNotFoundException {
-        User user = new User();
-        user.setUsername("test6");
-        user.setPassword("test6");
-        UserDAO.createUser(user);
+    void testUpdateUser() {
+        createUser("test6", "test6");
 
         User createdUser = UserDAO.getUserByUsername("test6");
         createdUser.setUsername("test6updated");
@@ -123,8 +136,129 @@ class UserDAOTest {
         assertTrue(BCrypt.checkpw("test6updated", updatedUser.getPassword()));
     }
 
-    @AfterAll
-    static void resetDatabase() throws SQLException {
-        DatabaseConnector.getInstance().executeQuery("DROP SCHEMA recipe");
+    @Test
+    void testUpdateUserRollsBack() {
+        createUser("test7", "test7");
+        createUser("taken", "taken");
+
+        User createdUser = UserDAO.getUserByUsername("test7");
+        createdUser.setUsername("taken");
+        createdUser.setPassword("test7updated");
+        assertEquals(0, UserDAO.updateUser(createdUser));
+
+        User unchanged = UserDAO.getUserByUsername("test7");
+        assertNotNull(unchanged);
+        assertTrue(BCrypt.checkpw("test7", unchanged.getPassword()));
+    }
+
+    private static int createRecipe(User author, String title) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(title);
+        recipe.setContent("Test Content");
+        RecipeDAO.createRecipe(recipe, author);
+        return recipe.getId();
+    }
+
+    @Test
+    void testLikeRecipe() {
+        User user = createUser("test1", "test1");
+        int liked = createRecipe(user, "Liked");
+        int other = createRecipe(user, "Other");
+
+        UserDAO.likeRecipe(user, liked);
+        assertEquals(Set.of(liked), user.getLikedRecipes());
+        // Seen before and after the background write.
+        assertEquals(Set.of(liked), UserDAO.getLikedRecipeIds(user.getId(), List.of(liked, other)));
+        UserDAO.flushLikes();
+        assertEquals(Set.of(liked), UserDAO.getLikedRecipeIds(user.getId(), List.of(liked, other)));
+        assertEquals(Set.of(liked), UserDAO.getUserById(user.getId()).getLikedRecipes());
+        assertEquals(1, RecipeDAO.getLikeCount(liked));
+
+        UserDAO.unlikeRecipe(user, liked);
+        UserDAO.flushLikes();
+        assertTrue(UserDAO.getUserLikedRecipe(user.getId()).isEmpty());
+        assertEquals(0, RecipeDAO.getLikeCount(liked));
+    }
+
+    @Test
+    void testFailedLikedRecipesLoadIsRetried() {
+        User user = createUser("test1", "test1");
+        int recipeId = createRecipe(user, "Liked");
+        UserDAO.likeRecipe(user, recipeId);
+
+        User session = new User(user);
+        boolean[] failed = {false};
+        session.setLikedRecipesLoader(() -> {
+            if (!failed[0]) {
+                failed[0] = true;
+                throw new IllegalStateException("Database unavailable");
+            }
+            return UserDAO.getUserLikedRecipe(user.getId());
+        });
+        assertThrows(IllegalStateException.class, () -> UserDAO.likeRecipe(session, recipeId));
+
+        // The retry sees the stored like, so liking again neither counts twice nor writes anything.
+        UserDAO.likeRecipe(session, recipeId);
+        assertEquals(Set.of(recipeId), session.getLikedRecipes());
+        assertEquals(1, RecipeDAO.getLikeCount(recipeId));
+    }
+
+    @Test
+    void testLikeTogglesCollapse() {
+        User user = createUser("test1", "test1");
+        int recipeId = createRecipe(user, "Toggled");
+
+        for (int i = 0; i < 5; i++) {
+            UserDAO.likeRecipe(user, recipeId);
+            UserDAO.unlikeRecipe(user, recipeId);
+        }
+        UserDAO.likeRecipe(user, recipeId);
+        UserDAO.flushLikes();
+
+        assertEquals(Set.of(recipeId), UserDAO.getUserLikedRecipe(user.getId()));
+        assertEquals(List.of(new RankedRecipe(recipeId, 1)), RecipeDAO.getMostLikedRecipes(10));
+    }
+
+    @Test
+    void testDeleteLikedRecipe() {
+        User user = createUser("test1", "test1");
+        int deleted = createRecipe(user, "Deleted");
+        int kept = createRecipe(user, "Kept");
+        UserDAO.likeRecipe(user, deleted);
+        UserDAO.flushLikes();
+
+        assertEquals(1, RecipeDAO.deleteRecipe(deleted));
+        // A like still pending for a recipe that is gone is dropped, without holding up the others.
+        UserDAO.likeRecipe(user, deleted);
+        UserDAO.likeRecipe(user, kept);
+        UserDAO.flushLikes();
+
+        assertEquals(Set.of(kept), UserDAO.getUserLikedRecipe(user.getId()));
+        // The dropped like is taken back from the counts it was added to.
+        assertEquals(0, RecipeDAO.getLikeCount(deleted));
+        assertEquals(List.of(kept), RecipeDAO.getMostLikedRecipes(10).stream().map(RankedRecipe::recipeId).toList());
+    }
+    @Test
+    void testRecommendationsFollowLikes() {
+        User first = createUser("test1", "test1");
+        User second = createUser("test2", "test2");
+        int soup = createRecipe(first, "Soup");
+        int bread = createRecipe(first, "Bread");
+        int salad = createRecipe(first, "Salad");
+        UserDAO.likeRecipe(first, soup);
+        UserDAO.likeRecipe(first, bread);
+        UserDAO.flushLikes();
+        // Still pending when the index is built.
+        UserDAO.likeRecipe(second, soup);
+
+        assertEquals(List.of(bread), RecipeDAO.getSimilarRecipes(soup, 10).stream().map(Recommendation::recipeId).toList());
+        assertEquals(List.of(bread), RecipeDAO.getRecommendedRecipes(second, 10).stream().map(Recommendation::recipeId).toList());
+
+        UserDAO.likeRecipe(second, salad);
+        assertEquals(List.of(bread, salad), RecipeDAO.getSimilarRecipes(soup, 10).stream().map(Recommendation::recipeId).toList());
+
+        assertEquals(1, RecipeDAO.deleteRecipe(bread));
+        assertEquals(List.of(salad), RecipeDAO.getSimilarRecipes(soup, 10).stream().map(Recommendation::recipeId).toList());
+        assertTrue(RecipeDAO.getRecommendedRecipes(second, 10).isEmpty());
     }
 }